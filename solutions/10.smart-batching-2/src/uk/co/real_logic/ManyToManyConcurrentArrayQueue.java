@@ -1,7 +1,7 @@
 package uk.co.real_logic;
 
-import sun.misc.Unsafe;
-
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -9,23 +9,7 @@ import java.util.Queue;
 
 public class ManyToManyConcurrentArrayQueue<E> implements Queue<E>
 {
-    private static final Unsafe unsafe;
-    private static final int arrayBase;
-    private static final int arrayScale;
-
-    static
-    {
-        try
-        {
-            unsafe = Util.getUnsafe();
-            arrayBase = unsafe.arrayBaseOffset(Object[].class);
-            arrayScale = Util.calculateShiftForScale(unsafe.arrayIndexScale(Object[].class));
-        }
-        catch (final Exception ex)
-        {
-            throw new RuntimeException(ex);
-        }
-    }
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
 
     private final E[] buffer;
     private final int mask;
@@ -83,8 +67,8 @@ public class ManyToManyConcurrentArrayQueue<E> implements Queue<E>
         }
         while (!tail.compareAndSet(currentTail, currentTail + 1));
 
-        final long elementOffset = calculateOffset((int)currentTail & mask);
-        while (!unsafe.compareAndSwapObject(buffer, elementOffset, null, e))
+        final int index = (int)currentTail & mask;
+        while (!ELEMENTS.compareAndSet(buffer, index, null, e))
         {
             // busy spin
         }
@@ -113,15 +97,15 @@ public class ManyToManyConcurrentArrayQueue<E> implements Queue<E>
         }
         while (!head.compareAndSet(currentHead, currentHead + 1));
 
-        final long elementOffset = calculateOffset((int)currentHead & mask);
+        final int index = (int)currentHead & mask;
         Object e;
         do
         {
-            e = unsafe.getObjectVolatile(buffer, elementOffset);
+            e = ELEMENTS.getAcquire(buffer, index);
         }
         while (null == e);
 
-        unsafe.putOrderedObject(buffer, elementOffset, null);
+        ELEMENTS.setRelease(buffer, index, null);
 
         return (E)e;
     }
@@ -151,7 +135,7 @@ public class ManyToManyConcurrentArrayQueue<E> implements Queue<E>
     public E peek()
     {
         final int index = (int)head.get() & mask;
-        return getElementVolatile(index);
+        return getElementAcquire(index);
     }
 
     public int size()
@@ -182,7 +166,7 @@ public class ManyToManyConcurrentArrayQueue<E> implements Queue<E>
 
         for (long i = head.get(), limit = tail.get(); i < limit; i++)
         {
-            final E e = getElementVolatile((int)i & mask);
+            final E e = getElementAcquire((int)i & mask);
             if (o.equals(e))
             {
                 return true;
@@ -250,14 +234,9 @@ public class ManyToManyConcurrentArrayQueue<E> implements Queue<E>
         throw new UnsupportedOperationException();
     }
 
-    private static long calculateOffset(final int index)
-    {
-        return arrayBase + ((long)index << arrayScale);
-    }
-
     @SuppressWarnings("unchecked")
-    private E getElementVolatile(final int index)
+    private E getElementAcquire(final int index)
     {
-        return (E)unsafe.getObjectVolatile(buffer, calculateOffset(index));
+        return (E)ELEMENTS.getAcquire(buffer, index);
     }
 }
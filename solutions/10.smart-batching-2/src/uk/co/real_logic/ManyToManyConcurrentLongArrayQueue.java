@@ -0,0 +1,148 @@
+package uk.co.real_logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Multiple producer to multiple consumer queue of primitive longs which avoids the boxing, allocation and
+ * indirection of a {@link ManyToManyConcurrentArrayQueue} of {@link Long}.
+ *
+ * A reserved null value, which cannot be offered, marks an empty slot in the same way null does for the object
+ * queue and is returned by {@link #poll()} and {@link #peek()} when the queue is empty.
+ */
+public class ManyToManyConcurrentLongArrayQueue
+{
+    public static final long DEFAULT_NULL_VALUE = Long.MIN_VALUE;
+
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] buffer;
+    private final long nullValue;
+    private final int mask;
+    private final int capacity;
+
+    private final AtomicCounter head = new AtomicCounter(0);
+    private final AtomicCounter tail = new AtomicCounter(0);
+
+    private final AtomicCounter tailCache = new AtomicCounter(0);
+    private final AtomicCounter headCache = new AtomicCounter(0);
+
+    public ManyToManyConcurrentLongArrayQueue(final int capacity)
+    {
+        this(capacity, DEFAULT_NULL_VALUE);
+    }
+
+    public ManyToManyConcurrentLongArrayQueue(final int capacity, final long nullValue)
+    {
+        final int actualCapacity = Util.findNextPositivePowerOfTwo(capacity);
+        mask = actualCapacity - 1;
+        this.capacity = actualCapacity;
+        this.nullValue = nullValue;
+        buffer = new long[actualCapacity];
+        Arrays.fill(buffer, nullValue);
+    }
+
+    public long nullValue()
+    {
+        return nullValue;
+    }
+
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    public boolean offer(final long value)
+    {
+        if (nullValue == value)
+        {
+            throw new IllegalArgumentException("Null value is not a valid element: " + value);
+        }
+
+        long currentTail;
+        long currentHead = headCache.get();
+        long bufferLimit = currentHead + capacity;
+        do
+        {
+            currentTail = tail.get();
+            if (currentTail >= bufferLimit)
+            {
+                currentHead = head.get();
+                bufferLimit = currentHead + capacity;
+                if (currentTail >= bufferLimit)
+                {
+                    return false;
+                }
+
+                headCache.setOrdered(currentHead);
+            }
+        }
+        while (!tail.compareAndSet(currentTail, currentTail + 1));
+
+        final int index = (int)currentTail & mask;
+        while (!ELEMENTS.compareAndSet(buffer, index, nullValue, value))
+        {
+            // busy spin
+        }
+
+        return true;
+    }
+
+    public long poll()
+    {
+        long currentTail = tailCache.get();
+        long currentHead;
+        do
+        {
+            currentHead = head.get();
+            if (currentHead >= currentTail)
+            {
+                currentTail = tail.get();
+                if (currentHead >= currentTail)
+                {
+                    return nullValue;
+                }
+
+                tailCache.setOrdered(currentTail);
+            }
+        }
+        while (!head.compareAndSet(currentHead, currentHead + 1));
+
+        final int index = (int)currentHead & mask;
+        long value;
+        do
+        {
+            value = (long)ELEMENTS.getAcquire(buffer, index);
+        }
+        while (nullValue == value);
+
+        ELEMENTS.setRelease(buffer, index, nullValue);
+
+        return value;
+    }
+
+    public long peek()
+    {
+        return (long)ELEMENTS.getAcquire(buffer, (int)head.get() & mask);
+    }
+
+    public int size()
+    {
+        int size;
+        do
+        {
+            final long currentHead = head.get();
+            final long currentTail = tail.get();
+            size = (int)(currentTail - currentHead);
+        }
+        while (size > capacity);
+
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return tail.get() == head.get();
+    }
+}
@@ -0,0 +1,125 @@
+package uk.co.real_logic;
+
+/**
+ * Single producer to single consumer queue of primitive ints which avoids the boxing, allocation and indirection of a
+ * {@link OneToOneConcurrentArrayQueue} of {@link Integer}.
+ *
+ * A reserved null value, which cannot be offered, is returned by {@link #poll()} and {@link #peek()} when the queue
+ * is empty.
+ */
+public final class OneToOneConcurrentIntArrayQueue
+{
+    public static final int DEFAULT_NULL_VALUE = Integer.MIN_VALUE;
+
+    private final int capacity;
+    private final int mask;
+    private final int nullValue;
+    private final int[] buffer;
+
+    private final AtomicCounter head = new AtomicCounter(0);
+    private final AtomicCounter tail = new AtomicCounter(0);
+
+    private final AtomicCounter headCache = new AtomicCounter(0);
+    private final AtomicCounter tailCache = new AtomicCounter(0);
+
+    public OneToOneConcurrentIntArrayQueue(final int capacity)
+    {
+        this(capacity, DEFAULT_NULL_VALUE);
+    }
+
+    public OneToOneConcurrentIntArrayQueue(final int capacity, final int nullValue)
+    {
+        this.capacity = Util.findNextPositivePowerOfTwo(capacity);
+        mask = this.capacity - 1;
+        this.nullValue = nullValue;
+        buffer = new int[this.capacity];
+    }
+
+    public int nullValue()
+    {
+        return nullValue;
+    }
+
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    public boolean offer(final int value)
+    {
+        if (nullValue == value)
+        {
+            throw new IllegalArgumentException("Null value is not a valid element: " + value);
+        }
+
+        long currentHead = headCache.get();
+        long bufferLimit = currentHead + capacity;
+        final long currentTail = tail.get();
+        if (currentTail >= bufferLimit)
+        {
+            currentHead = head.get();
+            bufferLimit = currentHead + capacity;
+            if (currentTail >= bufferLimit)
+            {
+                return false;
+            }
+
+            headCache.setOrdered(currentHead);
+        }
+
+        buffer[(int)currentTail & mask] = value;
+        tail.setOrdered(currentTail + 1);
+
+        return true;
+    }
+
+    public int poll()
+    {
+        final long currentHead = head.get();
+        if (currentHead >= tailCache.get())
+        {
+            long currentTail = tail.get();
+            if (currentHead >= currentTail)
+            {
+                return nullValue;
+            }
+
+            tailCache.setOrdered(currentTail);
+        }
+
+        final int value = buffer[(int)currentHead & mask];
+        head.setOrdered(currentHead + 1);
+
+        return value;
+    }
+
+    public int peek()
+    {
+        final long currentHead = head.get();
+        if (currentHead >= tail.get())
+        {
+            return nullValue;
+        }
+
+        return buffer[(int)currentHead & mask];
+    }
+
+    public int size()
+    {
+        int size;
+        do
+        {
+            final long currentHead = head.get();
+            final long currentTail = tail.get();
+            size = (int)(currentTail - currentHead);
+        }
+        while (size > capacity);
+
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return tail.get() == head.get();
+    }
+}
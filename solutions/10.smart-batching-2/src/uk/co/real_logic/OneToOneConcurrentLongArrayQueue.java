@@ -0,0 +1,125 @@
+package uk.co.real_logic;
+
+/**
+ * Single producer to single consumer queue of primitive longs which avoids the boxing, allocation and indirection of a
+ * {@link OneToOneConcurrentArrayQueue} of {@link Long}.
+ *
+ * A reserved null value, which cannot be offered, is returned by {@link #poll()} and {@link #peek()} when the queue
+ * is empty.
+ */
+public final class OneToOneConcurrentLongArrayQueue
+{
+    public static final long DEFAULT_NULL_VALUE = Long.MIN_VALUE;
+
+    private final int capacity;
+    private final int mask;
+    private final long nullValue;
+    private final long[] buffer;
+
+    private final AtomicCounter head = new AtomicCounter(0);
+    private final AtomicCounter tail = new AtomicCounter(0);
+
+    private final AtomicCounter headCache = new AtomicCounter(0);
+    private final AtomicCounter tailCache = new AtomicCounter(0);
+
+    public OneToOneConcurrentLongArrayQueue(final int capacity)
+    {
+        this(capacity, DEFAULT_NULL_VALUE);
+    }
+
+    public OneToOneConcurrentLongArrayQueue(final int capacity, final long nullValue)
+    {
+        this.capacity = Util.findNextPositivePowerOfTwo(capacity);
+        mask = this.capacity - 1;
+        this.nullValue = nullValue;
+        buffer = new long[this.capacity];
+    }
+
+    public long nullValue()
+    {
+        return nullValue;
+    }
+
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    public boolean offer(final long value)
+    {
+        if (nullValue == value)
+        {
+            throw new IllegalArgumentException("Null value is not a valid element: " + value);
+        }
+
+        long currentHead = headCache.get();
+        long bufferLimit = currentHead + capacity;
+        final long currentTail = tail.get();
+        if (currentTail >= bufferLimit)
+        {
+            currentHead = head.get();
+            bufferLimit = currentHead + capacity;
+            if (currentTail >= bufferLimit)
+            {
+                return false;
+            }
+
+            headCache.setOrdered(currentHead);
+        }
+
+        buffer[(int)currentTail & mask] = value;
+        tail.setOrdered(currentTail + 1);
+
+        return true;
+    }
+
+    public long poll()
+    {
+        final long currentHead = head.get();
+        if (currentHead >= tailCache.get())
+        {
+            long currentTail = tail.get();
+            if (currentHead >= currentTail)
+            {
+                return nullValue;
+            }
+
+            tailCache.setOrdered(currentTail);
+        }
+
+        final long value = buffer[(int)currentHead & mask];
+        head.setOrdered(currentHead + 1);
+
+        return value;
+    }
+
+    public long peek()
+    {
+        final long currentHead = head.get();
+        if (currentHead >= tail.get())
+        {
+            return nullValue;
+        }
+
+        return buffer[(int)currentHead & mask];
+    }
+
+    public int size()
+    {
+        int size;
+        do
+        {
+            final long currentHead = head.get();
+            final long currentTail = tail.get();
+            size = (int)(currentTail - currentHead);
+        }
+        while (size > capacity);
+
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return tail.get() == head.get();
+    }
+}
@@ -11,6 +11,7 @@ public class ManyToManyQueuePerfTest
     private static final int NUM_PRODUCERS = 2;
     private static final int NUM_CONSUMERS = 2;
     private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int SAMPLE_INTERVAL = 1000;
 
     public static void main(final String[] args)
         throws Exception
@@ -23,8 +24,8 @@ public class ManyToManyQueuePerfTest
     public void shouldPerformanceTestOfferAndPoll()
         throws Exception
     {
-        final Queue<Integer> queue = new ManyToManyConcurrentArrayQueue<Integer>(QUEUE_CAPACITY);
-        //final Queue<Integer> queue = new java.util.concurrent.ArrayBlockingQueue<Integer>(QUEUE_CAPACITY);
+        final Queue<Number> queue = new ManyToManyConcurrentArrayQueue<Number>(QUEUE_CAPACITY);
+        //final Queue<Number> queue = new java.util.concurrent.ArrayBlockingQueue<Number>(QUEUE_CAPACITY);
 
         for (int i = 0; i < 5; i++)
         {
@@ -34,14 +35,15 @@ public class ManyToManyQueuePerfTest
         }
     }
 
-    private void perfRun(final int runNum, final Queue<Integer> queue)
+    private void perfRun(final int runNum, final Queue<Number> queue)
         throws Exception
     {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
         final Thread[] consumerThreads = new Thread[NUM_CONSUMERS];
         final Consumer[] consumers = new Consumer[NUM_CONSUMERS];
         for (int i = 0; i < NUM_CONSUMERS; i++)
         {
-            consumers[i] = new Consumer(queue);
+            consumers[i] = new Consumer(queue, histogram);
             consumerThreads[i] = new Thread(consumers[i]);
             consumerThreads[i].start();
         }
@@ -76,6 +78,7 @@ public class ManyToManyQueuePerfTest
                           Integer.valueOf(NUM_CONSUMERS),
                           Long.valueOf(opsPerSec),
                           this.getClass().getSimpleName());
+        histogram.snapshot().printSummary(System.out, "    latency ns:");
 
         for (final Consumer consumer : consumers)
         {
@@ -85,11 +88,11 @@ public class ManyToManyQueuePerfTest
 
     private static class Producer implements Runnable
     {
-        private final Queue<Integer> queue;
+        private final Queue<Number> queue;
         private final Integer id;
         private final CyclicBarrier barrier;
 
-        private Producer(final Queue<Integer> queue, final int id, final CyclicBarrier barrier)
+        private Producer(final Queue<Number> queue, final int id, final CyclicBarrier barrier)
         {
             this.queue = queue;
             this.id = Integer.valueOf(id);
@@ -106,10 +109,15 @@ public class ManyToManyQueuePerfTest
             {
             }
 
-            Integer value = id;
             int i = REPETITIONS + 1;
             while (0 != --i)
             {
+                Number value = id;
+                if (0 == i % SAMPLE_INTERVAL)
+                {
+                    value = Long.valueOf(System.nanoTime());
+                }
+
                 while (!queue.offer(value))
                 {
                     Thread.yield();
@@ -120,12 +128,14 @@ public class ManyToManyQueuePerfTest
 
     private static class Consumer implements Runnable
     {
-        private final Queue<Integer> queue;
+        private final Queue<Number> queue;
+        private final ConcurrentHistogram histogram;
         private volatile boolean halt = false;
 
-        private Consumer(final Queue<Integer> queue)
+        private Consumer(final Queue<Number> queue, final ConcurrentHistogram histogram)
         {
             this.queue = queue;
+            this.histogram = histogram;
         }
 
         public void halt()
@@ -137,7 +147,8 @@ public class ManyToManyQueuePerfTest
         {
             while (true)
             {
-                while (null == queue.poll())
+                Number value;
+                while (null == (value = queue.poll()))
                 {
                     if (halt)
                     {
@@ -146,6 +157,11 @@ public class ManyToManyQueuePerfTest
 
                     Thread.yield();
                 }
+
+                if (value instanceof Long)
+                {
+                    histogram.recordValue(System.nanoTime() - value.longValue());
+                }
             }
         }
     }
@@ -0,0 +1,114 @@
+package uk.co.real_logic;
+
+import java.util.concurrent.CyclicBarrier;
+
+public class OneToOneLongQueuePerfTest
+{
+    public static final long TEST_ELEMENT = 777L;
+    public static final int REPETITIONS = 100 * 1000 * 1000;
+    public static final int QUEUE_SIZE = 64 * 1024;
+    public static final int SAMPLE_INTERVAL = 1000;
+
+    public static void main(final String[] args)
+        throws Exception
+    {
+        OneToOneLongQueuePerfTest test = new OneToOneLongQueuePerfTest();
+        test.shouldPerformanceTestOfferAndPoll();
+    }
+
+    private void shouldPerformanceTestOfferAndPoll()
+        throws Exception
+    {
+        final OneToOneConcurrentLongArrayQueue queue = new OneToOneConcurrentLongArrayQueue(QUEUE_SIZE);
+
+        for (int i  = 0; i < 5; i++)
+        {
+            System.gc();
+            Thread.sleep(1000);
+            testRun(i, queue);
+        }
+    }
+
+    private void testRun(final int runNumber, final OneToOneConcurrentLongArrayQueue queue)
+        throws Exception
+    {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        Runnable runner = new Producer(barrier, queue);
+        Thread t = new Thread(runner);
+        t.start();
+
+        barrier.await();
+        final long start = System.nanoTime();
+
+        int i = REPETITIONS + 1;
+        while (0 != --i)
+        {
+            long value;
+            while (queue.nullValue() == (value = queue.poll()))
+            {
+                Thread.yield();
+            }
+
+            if (TEST_ELEMENT != value)
+            {
+                histogram.recordValue(System.nanoTime() - value);
+            }
+        }
+
+        final long finish = System.nanoTime();
+        final long duration = finish - start;
+        final long ops = (REPETITIONS * 1000L * 1000L * 1000L) / duration;
+
+        System.out.format("%d - ops/sec=%,d - %s\n",
+                          Integer.valueOf(runNumber),
+                          Long.valueOf(ops),
+                          this.getClass().getSimpleName());
+        histogram.snapshot().printSummary(System.out, "    latency ns:");
+    }
+
+    private static class Producer implements Runnable
+    {
+        private final CyclicBarrier barrier;
+        private final OneToOneConcurrentLongArrayQueue queue;
+
+        public Producer(final CyclicBarrier barrier, final OneToOneConcurrentLongArrayQueue queue)
+        {
+            this.barrier = barrier;
+            this.queue = queue;
+        }
+
+        public void run()
+        {
+            try
+            {
+                barrier.await();
+            }
+            catch (Exception ignore)
+            {
+            }
+
+            try
+            {
+                int i = REPETITIONS + 1;
+                while (0 != --i)
+                {
+                    long value = TEST_ELEMENT;
+                    if (0 == i % SAMPLE_INTERVAL)
+                    {
+                        value = System.nanoTime();
+                    }
+
+                    while (!queue.offer(value))
+                    {
+                        Thread.yield();
+                    }
+                }
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -8,6 +8,7 @@ public class OneToOneQueuePerfTest
     public static final Integer TEST_ELEMENT = Integer.valueOf(777);
     public static final int REPETITIONS = 100 * 1000 * 1000;
     public static final int QUEUE_SIZE = 64 * 1024;
+    public static final int SAMPLE_INTERVAL = 1000;
 
     public static void main(final String[] args)
         throws Exception
@@ -19,10 +20,10 @@ public class OneToOneQueuePerfTest
     private void shouldPerformanceTestOfferAndPoll()
         throws Exception
     {
-        //final Queue<Integer> queue = new java.util.concurrent.ConcurrentLinkedQueue<Integer>();
-        //final Queue<Integer> queue = new java.util.concurrent.LinkedBlockingQueue<Integer>(QUEUE_SIZE);
-        //final Queue<Integer> queue = new java.util.concurrent.ArrayBlockingQueue<Integer>(QUEUE_SIZE);
-        final Queue<Integer> queue = new OneToOneConcurrentArrayQueue<Integer>(QUEUE_SIZE);
+        //final Queue<Number> queue = new java.util.concurrent.ConcurrentLinkedQueue<Number>();
+        //final Queue<Number> queue = new java.util.concurrent.LinkedBlockingQueue<Number>(QUEUE_SIZE);
+        //final Queue<Number> queue = new java.util.concurrent.ArrayBlockingQueue<Number>(QUEUE_SIZE);
+        final Queue<Number> queue = new OneToOneConcurrentArrayQueue<Number>(QUEUE_SIZE);
 
         for (int i  = 0; i < 5; i++)
         {
@@ -32,9 +33,10 @@ public class OneToOneQueuePerfTest
         }
     }
 
-    private void testRun(final int runNumber, final Queue<Integer> queue)
+    private void testRun(final int runNumber, final Queue<Number> queue)
         throws Exception
     {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
         final CyclicBarrier barrier = new CyclicBarrier(2);
         Runnable runner = new Producer(barrier, queue);
         Thread t = new Thread(runner);
@@ -46,10 +48,16 @@ public class OneToOneQueuePerfTest
         int i = REPETITIONS + 1;
         while (0 != --i)
         {
-            while (null == queue.poll())
+            Number value;
+            while (null == (value = queue.poll()))
             {
                 Thread.yield();
             }
+
+            if (value instanceof Long)
+            {
+                histogram.recordValue(System.nanoTime() - value.longValue());
+            }
         }
 
         final long finish = System.nanoTime();
@@ -60,14 +68,15 @@ public class OneToOneQueuePerfTest
                           Integer.valueOf(runNumber),
                           Long.valueOf(ops),
                           this.getClass().getSimpleName());
+        histogram.snapshot().printSummary(System.out, "    latency ns:");
     }
 
     private static class Producer implements Runnable
     {
         private final CyclicBarrier barrier;
-        private final Queue<Integer> queue;
+        private final Queue<Number> queue;
 
-        public Producer(final CyclicBarrier barrier, final Queue<Integer> queue)
+        public Producer(final CyclicBarrier barrier, final Queue<Number> queue)
         {
             this.barrier = barrier;
             this.queue = queue;
@@ -88,7 +97,13 @@ public class OneToOneQueuePerfTest
                 int i = REPETITIONS + 1;
                 while (0 != --i)
                 {
-                    while (!queue.offer(TEST_ELEMENT))
+                    Number value = TEST_ELEMENT;
+                    if (0 == i % SAMPLE_INTERVAL)
+                    {
+                        value = Long.valueOf(System.nanoTime());
+                    }
+
+                    while (!queue.offer(value))
                     {
                         Thread.yield();
                     }
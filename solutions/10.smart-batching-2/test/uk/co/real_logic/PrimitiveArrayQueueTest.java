@@ -0,0 +1,98 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveArrayQueueTest
+{
+    private static final int CAPACITY = 4;
+
+    @Test
+    public void shouldOfferAndPollLongsInOrderOneToOne()
+    {
+        final OneToOneConcurrentLongArrayQueue queue = new OneToOneConcurrentLongArrayQueue(CAPACITY);
+
+        Assert.assertEquals(OneToOneConcurrentLongArrayQueue.DEFAULT_NULL_VALUE, queue.poll());
+        for (long i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.offer(CAPACITY));
+        Assert.assertEquals(CAPACITY, queue.size());
+        Assert.assertEquals(0L, queue.peek());
+
+        for (long i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertEquals(i, queue.poll());
+        }
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(queue.nullValue(), queue.peek());
+    }
+
+    @Test
+    public void shouldOfferAndPollIntsInOrderOneToOne()
+    {
+        final OneToOneConcurrentIntArrayQueue queue = new OneToOneConcurrentIntArrayQueue(CAPACITY, -1);
+
+        Assert.assertEquals(-1, queue.poll());
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.offer(CAPACITY));
+
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertEquals(i, queue.poll());
+        }
+        Assert.assertEquals(-1, queue.poll());
+    }
+
+    @Test
+    public void shouldOfferAndPollLongsInOrderManyToMany()
+    {
+        final ManyToManyConcurrentLongArrayQueue queue = new ManyToManyConcurrentLongArrayQueue(CAPACITY);
+
+        Assert.assertEquals(ManyToManyConcurrentLongArrayQueue.DEFAULT_NULL_VALUE, queue.poll());
+        for (int lap = 0; lap < 3; lap++)
+        {
+            for (long i = 0; i < CAPACITY; i++)
+            {
+                Assert.assertTrue(queue.offer(i));
+            }
+            Assert.assertFalse(queue.offer(CAPACITY));
+
+            for (long i = 0; i < CAPACITY; i++)
+            {
+                Assert.assertEquals(i, queue.poll());
+            }
+            Assert.assertEquals(queue.nullValue(), queue.poll());
+        }
+    }
+
+    @Test
+    public void shouldOfferAndPollIntsInOrderManyToMany()
+    {
+        final ManyToManyConcurrentIntArrayQueue queue = new ManyToManyConcurrentIntArrayQueue(CAPACITY, 0);
+
+        for (int i = 1; i <= CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.offer(CAPACITY + 1));
+        Assert.assertEquals(1, queue.peek());
+
+        for (int i = 1; i <= CAPACITY; i++)
+        {
+            Assert.assertEquals(i, queue.poll());
+        }
+        Assert.assertEquals(0, queue.poll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullValue()
+    {
+        final ManyToManyConcurrentLongArrayQueue queue = new ManyToManyConcurrentLongArrayQueue(CAPACITY);
+        queue.offer(queue.nullValue());
+    }
+}
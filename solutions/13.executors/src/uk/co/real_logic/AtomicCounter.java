@@ -15,7 +15,8 @@
  */
 package uk.co.real_logic;
 
-import sun.misc.Unsafe;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
  * Pad out a cacheline to the left of a value to prevent false sharing.
@@ -53,15 +54,13 @@ public class AtomicCounter extends RhsPadding
      */
     public static final long INITIAL_VALUE = 0;
 
-    private static final Unsafe unsafe;
-    private static final long valueOffset;
+    private static final VarHandle VALUE;
 
     static
     {
         try
         {
-            unsafe = Util.getUnsafe();
-            valueOffset = unsafe.objectFieldOffset(Value.class.getDeclaredField("value"));
+            VALUE = MethodHandles.lookup().findVarHandle(Value.class, "value", long.class);
         }
         catch (final Exception ex)
         {
@@ -109,7 +108,7 @@ public class AtomicCounter extends RhsPadding
      */
     public void setOrdered(final long value)
     {
-        unsafe.putOrderedLong(this, valueOffset, value);
+        VALUE.setRelease(this, value);
     }
 
     /**
@@ -126,6 +125,50 @@ public class AtomicCounter extends RhsPadding
         setOrdered(get() + delta);
     }
 
+    /**
+     * Get the value with acquire semantics so later loads and stores cannot be reordered before it, the same as
+     * VarHandle.getAcquire. On weakly ordered processors such as ARM this is cheaper than a volatile load.
+     *
+     * @return the current value.
+     */
+    public long getAcquire()
+    {
+        return (long)VALUE.getAcquire(this);
+    }
+
+    /**
+     * Set the value with release semantics so earlier loads and stores cannot be reordered after it, the same as
+     * VarHandle.setRelease. This is the same operation as {@link #setOrdered(long)}.
+     *
+     * @param value to which the AtomicCounter should be set.
+     */
+    public void setRelease(final long value)
+    {
+        VALUE.setRelease(this, value);
+    }
+
+    /**
+     * Get the value with opaque semantics, the same as VarHandle.getOpaque, so a polling loop sees each change
+     * without ordering any other memory access.
+     *
+     * @return the current value.
+     */
+    public long getOpaque()
+    {
+        return (long)VALUE.getOpaque(this);
+    }
+
+    /**
+     * Set the value with opaque semantics, the same as VarHandle.setOpaque, so the store becomes visible to other
+     * threads without ordering any other memory access.
+     *
+     * @param value to which the AtomicCounter should be set.
+     */
+    public void setOpaque(final long value)
+    {
+        VALUE.setOpaque(this, value);
+    }
+
     /**
      * Set the value of the AtomicCounter using the same semantics as a volatile store.
      *
@@ -145,7 +188,7 @@ public class AtomicCounter extends RhsPadding
      */
     public boolean compareAndSet(final long expectedValue, final long updateValue)
     {
-        return unsafe.compareAndSwapLong(this, valueOffset, expectedValue, updateValue);
+        return VALUE.compareAndSet(this, expectedValue, updateValue);
     }
 
     /**
@@ -171,20 +214,15 @@ public class AtomicCounter extends RhsPadding
     /**
      * Perform an atomic increment by a delta and return the value before increment.
      *
+     * This uses a single fetch-and-add instruction, e.g. lock xadd on x86, rather than a CAS retry loop so it does not
+     * degrade as contention increases.
+     *
      * @param delta to be applied to the current AtomicCounter.
      * @return the value prior to the successful increment operation.
      */
     public long getAndAdd(final long delta)
     {
-        long currentValue;
-
-        do
-        {
-            currentValue = get();
-        }
-        while (!compareAndSet(currentValue, currentValue + delta));
-
-        return currentValue;
+        return (long)VALUE.getAndAdd(this, delta);
     }
 
     /**
@@ -195,17 +233,18 @@ public class AtomicCounter extends RhsPadding
      */
     public long addAndGet(final long delta)
     {
-        long currentValue;
-        long newValue;
-
-        do
-        {
-            currentValue = get();
-            newValue = currentValue + delta;
-        }
-        while (!compareAndSet(currentValue, newValue));
+        return (long)VALUE.getAndAdd(this, delta) + delta;
+    }
 
-        return newValue;
+    /**
+     * Atomically set a new value and return the value it replaced, e.g. with xchg on x86.
+     *
+     * @param value to which the AtomicCounter should be set.
+     * @return the value prior to the set.
+     */
+    public long getAndSet(final long value)
+    {
+        return (long)VALUE.getAndSet(this, value);
     }
 
     /**
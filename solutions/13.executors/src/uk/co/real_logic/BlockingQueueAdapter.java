@@ -0,0 +1,302 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link BlockingQueue} wrapping a {@link SequencedContainerQueue} so the lock-free queues can be used by frameworks,
+ * such as {@link java.util.concurrent.ThreadPoolExecutor}, which require a {@link BlockingQueue}.
+ *
+ * Rather than blocking on a lock and condition, threads waiting in {@link #put(Object)}, {@link #take()} and the timed
+ * {@link #offer(Object, long, TimeUnit)} and {@link #poll(long, TimeUnit)} retry the operation and call an
+ * {@link IdleStrategy} between attempts. {@link #drainTo(Collection)} uses the batch drain of the wrapped queue.
+ *
+ * A {@link java.util.concurrent.ThreadPoolExecutor} calls {@link #remove(Object)}, {@link #iterator()} and
+ * {@link #toArray()} when shutting down or purging cancelled tasks, so the wrapped queue must support them as
+ * {@link ManyToManyConcurrentArrayQueue} and {@link ShardedConcurrentArrayQueue} do.
+ *
+ * @param <E> type of the element to be held in this collection.
+ */
+public class BlockingQueueAdapter<E>
+    implements BlockingQueue<E>, SequencedContainerQueue<E>
+{
+    private final SequencedContainerQueue<E> queue;
+    private final IdleStrategy idleStrategy;
+
+    /**
+     * Wrap a queue using a {@link ProgressiveBackoffStrategy} while waiting.
+     *
+     * @param queue to be wrapped.
+     */
+    public BlockingQueueAdapter(final SequencedContainerQueue<E> queue)
+    {
+        this(queue, new ProgressiveBackoffStrategy());
+    }
+
+    /**
+     * Wrap a queue using the given {@link IdleStrategy} while waiting.
+     *
+     * @param queue to be wrapped.
+     * @param idleStrategy to be called between attempts while waiting.
+     */
+    public BlockingQueueAdapter(final SequencedContainerQueue<E> queue, final IdleStrategy idleStrategy)
+    {
+        if (null == queue)
+        {
+            throw new NullPointerException("queue cannot be null");
+        }
+
+        if (null == idleStrategy)
+        {
+            throw new NullPointerException("idleStrategy cannot be null");
+        }
+
+        this.queue = queue;
+        this.idleStrategy = idleStrategy;
+    }
+
+    public boolean add(final E e)
+    {
+        return queue.add(e);
+    }
+
+    public boolean offer(final E e)
+    {
+        return queue.offer(e);
+    }
+
+    public void put(final E e) throws InterruptedException
+    {
+        int idleCount = 0;
+        while (!queue.offer(e))
+        {
+            checkInterrupted();
+            idleStrategy.idle(++idleCount);
+        }
+    }
+
+    public boolean offer(final E e, final long timeout, final TimeUnit unit) throws InterruptedException
+    {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int idleCount = 0;
+        while (!queue.offer(e))
+        {
+            checkInterrupted();
+            if (System.nanoTime() - deadline >= 0)
+            {
+                return false;
+            }
+
+            idleStrategy.idle(++idleCount);
+        }
+
+        return true;
+    }
+
+    public E take() throws InterruptedException
+    {
+        int idleCount = 0;
+        E e;
+        while (null == (e = queue.poll()))
+        {
+            checkInterrupted();
+            idleStrategy.idle(++idleCount);
+        }
+
+        return e;
+    }
+
+    public E poll(final long timeout, final TimeUnit unit) throws InterruptedException
+    {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int idleCount = 0;
+        E e;
+        while (null == (e = queue.poll()))
+        {
+            checkInterrupted();
+            if (System.nanoTime() - deadline >= 0)
+            {
+                return null;
+            }
+
+            idleStrategy.idle(++idleCount);
+        }
+
+        return e;
+    }
+
+    public E poll()
+    {
+        return queue.poll();
+    }
+
+    public E remove()
+    {
+        return queue.remove();
+    }
+
+    public E element()
+    {
+        return queue.element();
+    }
+
+    public E peek()
+    {
+        return queue.peek();
+    }
+
+    public int remainingCapacity()
+    {
+        return queue.getRemainingCapacity();
+    }
+
+    public int drainTo(final Collection<? super E> c)
+    {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    public int drainTo(final Collection<? super E> c, final int maxElements)
+    {
+        if (null == c)
+        {
+            throw new NullPointerException("collection cannot be null");
+        }
+
+        if (this == c || queue == c)
+        {
+            throw new IllegalArgumentException("cannot drain a queue to itself");
+        }
+
+        final ElementHandler<E> elementHandler = new ElementHandler<E>()
+        {
+            public void onElement(final E element)
+            {
+                c.add(element);
+            }
+        };
+
+        int drainCount = 0;
+        int batchCount;
+        while (drainCount < maxElements && 0 != (batchCount = queue.drain(elementHandler, maxElements - drainCount)))
+        {
+            drainCount += batchCount;
+        }
+
+        return drainCount;
+    }
+
+    public int drain(final ElementHandler<E> elementHandler)
+    {
+        return queue.drain(elementHandler);
+    }
+
+    public int drain(final ElementHandler<E> elementHandler, final int limit)
+    {
+        return queue.drain(elementHandler, limit);
+    }
+
+    public int size()
+    {
+        return queue.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return queue.isEmpty();
+    }
+
+    public boolean contains(final Object o)
+    {
+        return queue.contains(o);
+    }
+
+    public Iterator<E> iterator()
+    {
+        return queue.iterator();
+    }
+
+    public Object[] toArray()
+    {
+        return queue.toArray();
+    }
+
+    public <T> T[] toArray(final T[] a)
+    {
+        return queue.toArray(a);
+    }
+
+    public boolean remove(final Object o)
+    {
+        return queue.remove(o);
+    }
+
+    public boolean containsAll(final Collection<?> c)
+    {
+        return queue.containsAll(c);
+    }
+
+    public boolean addAll(final Collection<? extends E> c)
+    {
+        return queue.addAll(c);
+    }
+
+    public boolean removeAll(final Collection<?> c)
+    {
+        return queue.removeAll(c);
+    }
+
+    public boolean retainAll(final Collection<?> c)
+    {
+        return queue.retainAll(c);
+    }
+
+    public void clear()
+    {
+        queue.clear();
+    }
+
+    public long getAddedCount()
+    {
+        return queue.getAddedCount();
+    }
+
+    public long getRemovedCount()
+    {
+        return queue.getRemovedCount();
+    }
+
+    public int getCapacity()
+    {
+        return queue.getCapacity();
+    }
+
+    public int getRemainingCapacity()
+    {
+        return queue.getRemainingCapacity();
+    }
+
+    private static void checkInterrupted() throws InterruptedException
+    {
+        if (Thread.interrupted())
+        {
+            throw new InterruptedException();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+/**
+ * How a {@link BroadcastQueue} treats subscribers that fall behind.
+ */
+public enum BroadcastMode
+{
+    /**
+     * Offers fail rather than overwrite an element until the slowest subscriber has received it.
+     */
+    BACK_PRESSURE,
+
+    /**
+     * Offers never fail. Subscribers that have been lapped detect it and skip forward to the latest element.
+     */
+    LOSSY
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A bounded concurrent queue in which every element offered is delivered to every {@link BroadcastSubscriber}.
+ *
+ * Producers claim a slot by CAS on the tail as for {@link ManyToManyConcurrentArrayQueue}, then store the element and
+ * publish the sequence of the slot. Each subscriber tracks the next sequence it will receive in its own padded
+ * {@link AtomicCounter} so a producer pays the same cost however many subscribers there are.
+ *
+ * In {@link BroadcastMode#BACK_PRESSURE} mode an offer fails if it would overwrite an element the slowest subscriber
+ * has not yet received. Elements offered while there are no subscribers are not retained for later subscribers. In
+ * {@link BroadcastMode#LOSSY} mode offers never fail; a subscriber that has been lapped detects it from the sequence
+ * of the slot and skips forward to the tail.
+ *
+ * @param <E> type of the element to be held in this collection.
+ */
+public class BroadcastQueue<E>
+{
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Sequence of a slot that has not been published or is being overwritten.
+     */
+    static final long UNPUBLISHED = -1;
+
+    private final E[] buffer;
+    private final long[] sequences;
+    private final int mask;
+    private final int capacity;
+    private final BroadcastMode mode;
+
+    private final AtomicCounter tail = new AtomicCounter(0);
+    private final AtomicCounter subscriberSequenceCache = new AtomicCounter(0);
+
+    private volatile AtomicCounter[] subscriberSequences = new AtomicCounter[0];
+
+    /**
+     * Create a queue with the given capacity and mode.
+     *
+     * @param capacity of the queue which will be rounded up to the next power of 2.
+     * @param mode for treating subscribers that fall behind.
+     */
+    @SuppressWarnings("unchecked")
+    public BroadcastQueue(final int capacity, final BroadcastMode mode)
+    {
+        if (null == mode)
+        {
+            throw new NullPointerException("mode cannot be null");
+        }
+
+        final int actualCapacity = Util.findNextPositivePowerOfTwo(capacity);
+        mask = actualCapacity - 1;
+        this.capacity = actualCapacity;
+        this.mode = mode;
+        buffer = (E[])new Object[actualCapacity];
+        sequences = new long[actualCapacity];
+        for (int i = 0; i < actualCapacity; i++)
+        {
+            sequences[i] = UNPUBLISHED;
+        }
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public BroadcastMode getMode()
+    {
+        return mode;
+    }
+
+    /**
+     * Get the sequence that will be claimed by the next offer.
+     *
+     * @return the sequence that will be claimed by the next offer.
+     */
+    public long getTail()
+    {
+        return tail.get();
+    }
+
+    /**
+     * Offer an element to all subscribers.
+     *
+     * @param e element to be delivered to every subscriber.
+     * @return true if the element was offered or false if the slowest subscriber is a full lap behind in
+     * {@link BroadcastMode#BACK_PRESSURE} mode.
+     */
+    public boolean offer(final E e)
+    {
+        if (null == e)
+        {
+            throw new NullPointerException("Null is not a valid element");
+        }
+
+        final boolean backPressure = BroadcastMode.BACK_PRESSURE == mode;
+        long currentTail;
+        do
+        {
+            currentTail = tail.get();
+            if (backPressure && !hasCapacity(currentTail))
+            {
+                return false;
+            }
+        }
+        while (!tail.compareAndSet(currentTail, currentTail + 1));
+
+        final int index = (int)currentTail & mask;
+
+        // invalidate the slot before the element is replaced so a lapped subscriber cannot take the new element
+        SEQUENCES.setVolatile(sequences, index, UNPUBLISHED);
+        ELEMENTS.setRelease(buffer, index, e);
+        SEQUENCES.setRelease(sequences, index, currentTail);
+
+        return true;
+    }
+
+    /**
+     * Subscribe to receive every element offered from the current tail onwards.
+     *
+     * @return a new subscriber which must only be used by one thread at a time.
+     */
+    public synchronized BroadcastSubscriber<E> subscribe()
+    {
+        final AtomicCounter sequence = new AtomicCounter(tail.get());
+
+        final AtomicCounter[] current = subscriberSequences;
+        final AtomicCounter[] updated = new AtomicCounter[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = sequence;
+        subscriberSequences = updated;
+
+        return new BroadcastSubscriber<E>(this, sequence);
+    }
+
+    synchronized void unsubscribe(final AtomicCounter sequence)
+    {
+        final AtomicCounter[] current = subscriberSequences;
+        for (int i = 0; i < current.length; i++)
+        {
+            if (current[i] == sequence)
+            {
+                final AtomicCounter[] updated = new AtomicCounter[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriberSequences = updated;
+
+                return;
+            }
+        }
+    }
+
+    long publishedSequence(final long sequence)
+    {
+        return (long)SEQUENCES.getAcquire(sequences, (int)sequence & mask);
+    }
+
+    @SuppressWarnings("unchecked")
+    E element(final long sequence)
+    {
+        return (E)ELEMENTS.getAcquire(buffer, (int)sequence & mask);
+    }
+
+    private boolean hasCapacity(final long currentTail)
+    {
+        final long wrapPoint = currentTail - capacity;
+        if (wrapPoint < subscriberSequenceCache.get())
+        {
+            return true;
+        }
+
+        long minSequence = currentTail;
+        for (final AtomicCounter sequence : subscriberSequences)
+        {
+            minSequence = Math.min(minSequence, sequence.get());
+        }
+        subscriberSequenceCache.setOrdered(minSequence);
+
+        return wrapPoint < minSequence;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+/**
+ * Subscription to a {@link BroadcastQueue} which receives every element offered after it subscribed.
+ *
+ * A subscriber must only be used by one thread at a time. Its progress is published to its own padded
+ * {@link AtomicCounter} which gates the producers in {@link BroadcastMode#BACK_PRESSURE} mode.
+ *
+ * @param <E> type of the element to be held in the queue.
+ */
+public class BroadcastSubscriber<E>
+{
+    private final BroadcastQueue<E> queue;
+    private final AtomicCounter sequence;
+    private long lappedCount = 0;
+
+    BroadcastSubscriber(final BroadcastQueue<E> queue, final AtomicCounter sequence)
+    {
+        this.queue = queue;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Get the sequence of the next element to be received.
+     *
+     * @return the sequence of the next element to be received.
+     */
+    public long getSequence()
+    {
+        return sequence.get();
+    }
+
+    /**
+     * Number of times this subscriber has been lapped in {@link BroadcastMode#LOSSY} mode and skipped forward.
+     *
+     * @return number of times this subscriber has been lapped.
+     */
+    public long getLappedCount()
+    {
+        return lappedCount;
+    }
+
+    /**
+     * Get the number of elements available to this subscriber.
+     *
+     * @return the number of elements available to this subscriber.
+     */
+    public int size()
+    {
+        return (int)Math.min(queue.getTail() - sequence.get(), queue.getCapacity());
+    }
+
+    /**
+     * Receive the next element if available.
+     *
+     * @return the next element or null if none is available.
+     */
+    public E poll()
+    {
+        long position = sequence.get();
+        while (true)
+        {
+            final long published = queue.publishedSequence(position);
+            if (published < position)
+            {
+                return null;
+            }
+
+            final E e = queue.element(position);
+            if (published == position && queue.publishedSequence(position) == position)
+            {
+                sequence.setOrdered(position + 1);
+
+                return e;
+            }
+
+            position = skipForward();
+        }
+    }
+
+    /**
+     * Receive up to limit elements which are available and publish the sequence once for the batch.
+     *
+     * @param elementHandler to be called for each element.
+     * @param limit on the number of elements to receive.
+     * @return the number of elements received.
+     */
+    public int drain(final ElementHandler<E> elementHandler, final int limit)
+    {
+        long position = sequence.get();
+        int count = 0;
+
+        try
+        {
+            while (count < limit)
+            {
+                final long published = queue.publishedSequence(position);
+                if (published < position)
+                {
+                    break;
+                }
+
+                final E e = queue.element(position);
+                if (published != position || queue.publishedSequence(position) != position)
+                {
+                    position = skipForward();
+                    continue;
+                }
+
+                ++position;
+                ++count;
+                elementHandler.onElement(e);
+            }
+        }
+        finally
+        {
+            sequence.setOrdered(position);
+        }
+
+        return count;
+    }
+
+    /**
+     * Stop receiving elements so this subscriber no longer gates producers.
+     */
+    public void close()
+    {
+        queue.unsubscribe(sequence);
+    }
+
+    private long skipForward()
+    {
+        ++lappedCount;
+        final long position = queue.getTail();
+        sequence.setOrdered(position);
+
+        return position;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+/**
+ * Callback for events published to an {@link EventRing} and processed by an {@link EventProcessor}.
+ *
+ * @param <E> type of event held in the ring.
+ */
+public interface EventHandler<E>
+{
+    /**
+     * Called for each event in sequence. The event is owned by the ring and must not be retained after the callback
+     * returns as it will be reused once the producer wraps around.
+     *
+     * @param event published to the ring.
+     * @param sequence at which the event was published.
+     * @param endOfBatch true if this is the last event currently available, which is a good time to flush.
+     */
+    void onEvent(E event, long sequence, boolean endOfBatch);
+}
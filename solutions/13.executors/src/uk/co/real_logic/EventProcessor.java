@@ -0,0 +1,165 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+/**
+ * Processes the events of an {@link EventRing} in sequence on behalf of an {@link EventHandler}.
+ *
+ * A processor only advances as far as the ring cursor and the sequences of the processors it depends on, so stages
+ * can be arranged in a pipeline or diamond that all share the same ring. For example, journal and replicate
+ * processors can depend only on the ring while a business logic processor depends on both of their sequences.
+ * Progress is published once per batch to the processor's own {@link AtomicCounter} sequence.
+ *
+ * @param <E> type of event held in the ring.
+ */
+public class EventProcessor<E>
+    implements Runnable
+{
+    private final AtomicCounter sequence = new AtomicCounter(EventRing.INITIAL_SEQUENCE);
+    private final EventRing<E> eventRing;
+    private final EventHandler<E> eventHandler;
+    private final ExceptionHandler exceptionHandler;
+    private final IdleStrategy idleStrategy;
+    private final AtomicCounter[] dependentSequences;
+
+    private volatile boolean running = true;
+
+    /**
+     * Create a processor which ignores exceptions from the handler and yields while waiting.
+     *
+     * @param eventRing from which events are processed.
+     * @param eventHandler to be called for each event.
+     * @param dependentSequences of the processors which must have processed an event before this one, if any.
+     */
+    public EventProcessor(final EventRing<E> eventRing,
+                          final EventHandler<E> eventHandler,
+                          final AtomicCounter... dependentSequences)
+    {
+        this(eventRing, eventHandler, new NoOpExceptionHandler(), new YieldingStrategy(), dependentSequences);
+    }
+
+    /**
+     * Create a processor.
+     *
+     * @param eventRing from which events are processed.
+     * @param eventHandler to be called for each event.
+     * @param exceptionHandler to be called back when the event handler throws.
+     * @param idleStrategy to be called while no events are available.
+     * @param dependentSequences of the processors which must have processed an event before this one, if any.
+     */
+    public EventProcessor(final EventRing<E> eventRing,
+                          final EventHandler<E> eventHandler,
+                          final ExceptionHandler exceptionHandler,
+                          final IdleStrategy idleStrategy,
+                          final AtomicCounter... dependentSequences)
+    {
+        if (null == eventRing)
+        {
+            throw new NullPointerException("eventRing cannot be null");
+        }
+
+        if (null == eventHandler)
+        {
+            throw new NullPointerException("eventHandler cannot be null");
+        }
+
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException("a null ExceptionHandler is not permitted");
+        }
+
+        if (null == idleStrategy)
+        {
+            throw new NullPointerException("idleStrategy cannot be null");
+        }
+
+        this.eventRing = eventRing;
+        this.eventHandler = eventHandler;
+        this.exceptionHandler = exceptionHandler;
+        this.idleStrategy = idleStrategy;
+        this.dependentSequences = dependentSequences.clone();
+    }
+
+    /**
+     * Get the sequence of the last event processed, for gating the producer or processors downstream.
+     *
+     * @return the sequence of the last event processed.
+     */
+    public AtomicCounter getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Process the events available until {@link #halt()} is called.
+     */
+    public void run()
+    {
+        int idleCount = 0;
+        while (running)
+        {
+            if (0 == processAvailable())
+            {
+                idleStrategy.idle(++idleCount);
+            }
+            else
+            {
+                idleCount = 0;
+            }
+        }
+    }
+
+    /**
+     * Signal the processor to stop once its current batch is complete.
+     */
+    public void halt()
+    {
+        running = false;
+    }
+
+    /**
+     * Process the batch of events available from the ring and dependent processors then publish the sequence.
+     * Exceptions from the event handler are passed to the {@link ExceptionHandler} and the event is skipped.
+     *
+     * @return the number of events processed.
+     */
+    public int processAvailable()
+    {
+        final long lastSequence = sequence.get();
+        final long availableSequence = EventRing.minimumSequence(dependentSequences, eventRing.getCursor());
+        if (availableSequence <= lastSequence)
+        {
+            return 0;
+        }
+
+        for (long nextSequence = lastSequence + 1; nextSequence <= availableSequence; nextSequence++)
+        {
+            final E event = eventRing.get(nextSequence);
+            try
+            {
+                eventHandler.onEvent(event, nextSequence, nextSequence == availableSequence);
+            }
+            catch (final Throwable t)
+            {
+                exceptionHandler.handle(t, event);
+            }
+        }
+
+        sequence.setRelease(availableSequence);
+
+        return (int)(availableSequence - lastSequence);
+    }
+}
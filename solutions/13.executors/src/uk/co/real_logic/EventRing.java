@@ -0,0 +1,216 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+/**
+ * Ring of preallocated mutable events for a single producer thread.
+ *
+ * The producer claims the next sequence with {@link #next()}, fills the event returned by {@link #get(long)} in place
+ * and then makes it visible with {@link #publish(long)}. Events are never allocated after construction so messages
+ * can be exchanged without garbage.
+ *
+ * Consumers are {@link EventProcessor}s which track progress in their own {@link AtomicCounter} sequence. The
+ * sequences of the last stage of processors must be registered with {@link #addGatingSequences(AtomicCounter...)}
+ * so the producer does not wrap over events that have not yet been processed.
+ *
+ * @param <E> type of event held in the ring.
+ */
+public class EventRing<E>
+{
+    /**
+     * Sequence before the first event is published.
+     */
+    public static final long INITIAL_SEQUENCE = -1;
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] events;
+    private final IdleStrategy idleStrategy;
+    private final AtomicCounter cursor = new AtomicCounter(INITIAL_SEQUENCE);
+
+    private volatile AtomicCounter[] gatingSequences = new AtomicCounter[0];
+    private long nextSequence = INITIAL_SEQUENCE + 1;
+    private long gatingSequenceCache = INITIAL_SEQUENCE;
+
+    /**
+     * Create a ring using a {@link ProgressiveBackoffStrategy} while the producer waits for capacity.
+     *
+     * @param eventFactory to preallocate the events.
+     * @param requestedCapacity of the ring which will be rounded up to the next power of 2.
+     */
+    public EventRing(final EventFactory<E> eventFactory, final int requestedCapacity)
+    {
+        this(eventFactory, requestedCapacity, new ProgressiveBackoffStrategy());
+    }
+
+    /**
+     * Create a ring using the given {@link IdleStrategy} while the producer waits for capacity.
+     *
+     * @param eventFactory to preallocate the events.
+     * @param requestedCapacity of the ring which will be rounded up to the next power of 2.
+     * @param idleStrategy to be called while the producer waits for the gating sequences to advance.
+     */
+    public EventRing(final EventFactory<E> eventFactory, final int requestedCapacity, final IdleStrategy idleStrategy)
+    {
+        if (null == eventFactory)
+        {
+            throw new NullPointerException("eventFactory cannot be null");
+        }
+
+        if (null == idleStrategy)
+        {
+            throw new NullPointerException("idleStrategy cannot be null");
+        }
+
+        capacity = Util.findNextPositivePowerOfTwo(requestedCapacity);
+        mask = capacity - 1;
+        this.idleStrategy = idleStrategy;
+
+        events = new Object[capacity];
+        for (int i = 0; i < capacity; i++)
+        {
+            events[i] = eventFactory.newInstance();
+        }
+    }
+
+    /**
+     * Get the number of events in the ring.
+     *
+     * @return the number of events in the ring.
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Get the sequence of the last event published.
+     *
+     * @return the sequence of the last event published or {@link #INITIAL_SEQUENCE} if none have been.
+     */
+    public long getCursor()
+    {
+        return cursor.getAcquire();
+    }
+
+    /**
+     * Register the sequences of the processors the producer must not overtake. Must be called before the first
+     * event is claimed.
+     *
+     * @param sequences to be added to those gating the producer.
+     */
+    public void addGatingSequences(final AtomicCounter... sequences)
+    {
+        final AtomicCounter[] current = gatingSequences;
+        final AtomicCounter[] updated = new AtomicCounter[current.length + sequences.length];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        System.arraycopy(sequences, 0, updated, current.length, sequences.length);
+
+        gatingSequences = updated;
+    }
+
+    /**
+     * Claim the next sequence, waiting until the gating sequences have moved far enough for its event to be free.
+     *
+     * @return the claimed sequence.
+     */
+    public long next()
+    {
+        final long sequence = nextSequence;
+        final long wrapPoint = sequence - capacity;
+
+        if (wrapPoint > gatingSequenceCache)
+        {
+            int idleCount = 0;
+            long minSequence;
+            while (wrapPoint > (minSequence = minimumSequence(gatingSequences, sequence - 1)))
+            {
+                idleStrategy.idle(++idleCount);
+            }
+
+            gatingSequenceCache = minSequence;
+        }
+
+        nextSequence = sequence + 1;
+
+        return sequence;
+    }
+
+    /**
+     * Claim the next sequence if its event is free.
+     *
+     * @return the claimed sequence or {@link #INITIAL_SEQUENCE} if the ring is full.
+     */
+    public long tryNext()
+    {
+        final long sequence = nextSequence;
+        final long wrapPoint = sequence - capacity;
+
+        if (wrapPoint > gatingSequenceCache)
+        {
+            gatingSequenceCache = minimumSequence(gatingSequences, sequence - 1);
+            if (wrapPoint > gatingSequenceCache)
+            {
+                return INITIAL_SEQUENCE;
+            }
+        }
+
+        nextSequence = sequence + 1;
+
+        return sequence;
+    }
+
+    /**
+     * Get the event for a sequence so it can be filled by the producer or read by a processor.
+     *
+     * @param sequence of the event.
+     * @return the event for the sequence.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(final long sequence)
+    {
+        return (E)events[(int)sequence & mask];
+    }
+
+    /**
+     * Publish a claimed sequence so its event becomes visible to the processors. Sequences must be published in
+     * the order they were claimed.
+     *
+     * @param sequence to be published.
+     */
+    public void publish(final long sequence)
+    {
+        cursor.setRelease(sequence);
+    }
+
+    /**
+     * Find the minimum value of a group of sequences.
+     *
+     * @param sequences to be compared.
+     * @param minimum value to be returned if it is lower than any of the sequences.
+     * @return the minimum of the sequences and the given minimum.
+     */
+    public static long minimumSequence(final AtomicCounter[] sequences, final long minimum)
+    {
+        long min = minimum;
+        for (final AtomicCounter sequence : sequences)
+        {
+            min = Math.min(min, sequence.getAcquire());
+        }
+
+        return min;
+    }
+}
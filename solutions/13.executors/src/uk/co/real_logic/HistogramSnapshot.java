@@ -0,0 +1,177 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+import java.io.PrintStream;
+
+/**
+ * Immutable copy of the counts of a {@link ConcurrentHistogram} from which percentiles can be read.
+ */
+public class HistogramSnapshot
+{
+    private static final double[] SUMMARY_PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+
+    private final ConcurrentHistogram histogram;
+    private final long[] counts;
+    private final long totalCount;
+    private final long maxValue;
+
+    HistogramSnapshot(final ConcurrentHistogram histogram, final long[] counts, final long maxValue)
+    {
+        this.histogram = histogram;
+        this.counts = counts;
+
+        long total = 0;
+        for (final long count : counts)
+        {
+            total += count;
+        }
+        totalCount = total;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * Get the number of values recorded.
+     *
+     * @return the number of values recorded.
+     */
+    public long getTotalCount()
+    {
+        return totalCount;
+    }
+
+    /**
+     * Get the maximum value recorded. For an interval this is the highest value of the highest bucket counted.
+     *
+     * @return the maximum value recorded or 0 if none have been.
+     */
+    public long getMaxValue()
+    {
+        return maxValue;
+    }
+
+    /**
+     * Get the lowest value recorded to within the precision of the histogram.
+     *
+     * @return the lowest value recorded or 0 if none have been.
+     */
+    public long getMinValue()
+    {
+        for (int i = 0; i < counts.length; i++)
+        {
+            if (0 != counts[i])
+            {
+                return histogram.lowestValueAt(i);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Get the mean of the values recorded taking each value as the middle of its bucket.
+     *
+     * @return the mean of the values recorded or 0 if none have been.
+     */
+    public double getMean()
+    {
+        if (0 == totalCount)
+        {
+            return 0;
+        }
+
+        double total = 0;
+        for (int i = 0; i < counts.length; i++)
+        {
+            if (0 != counts[i])
+            {
+                final long lowest = histogram.lowestValueAt(i);
+                final long highest = histogram.highestValueAt(i);
+                total += counts[i] * (lowest + ((highest - lowest) / 2.0));
+            }
+        }
+
+        return total / totalCount;
+    }
+
+    /**
+     * Get the value at or below which the given percentage of the values recorded fall.
+     *
+     * @param percentile in the range 0 to 100.
+     * @return the highest value of the bucket containing the percentile, capped at the maximum, or 0 if no values
+     * have been recorded.
+     */
+    public long getValueAtPercentile(final double percentile)
+    {
+        if (0 == totalCount)
+        {
+            return 0;
+        }
+
+        final double clampedPercentile = Math.min(Math.max(percentile, 0.0), 100.0);
+        final long countAtPercentile = Math.max(1, (long)Math.ceil((clampedPercentile / 100.0) * totalCount));
+
+        long runningCount = 0;
+        for (int i = 0; i < counts.length; i++)
+        {
+            runningCount += counts[i];
+            if (runningCount >= countAtPercentile)
+            {
+                return Math.min(histogram.highestValueAt(i), maxValue);
+            }
+        }
+
+        return maxValue;
+    }
+
+    /**
+     * Print the count, mean, common percentiles and max on one line.
+     *
+     * @param out to print to.
+     * @param label to start the line with.
+     */
+    public void printSummary(final PrintStream out, final String label)
+    {
+        final StringBuilder sb = new StringBuilder(label);
+        sb.append(String.format(" count=%,d mean=%,.0f", Long.valueOf(totalCount), Double.valueOf(getMean())));
+        for (final double percentile : SUMMARY_PERCENTILES)
+        {
+            final long value = getValueAtPercentile(percentile);
+            sb.append(String.format(" p%s=%,d", Double.toString(percentile), Long.valueOf(value)));
+        }
+        sb.append(String.format(" max=%,d", Long.valueOf(maxValue)));
+
+        out.println(sb);
+    }
+
+    HistogramSnapshot minus(final HistogramSnapshot previous)
+    {
+        final long[] intervalCounts = new long[counts.length];
+        int highestIndex = -1;
+        for (int i = 0; i < counts.length; i++)
+        {
+            intervalCounts[i] = counts[i] - previous.counts[i];
+            if (0 != intervalCounts[i])
+            {
+                highestIndex = i;
+            }
+        }
+
+        final long intervalMax = -1 == highestIndex ? 0 : Math.min(histogram.highestValueAt(highestIndex), maxValue);
+
+        return new HistogramSnapshot(histogram, intervalCounts, intervalMax);
+    }
+}
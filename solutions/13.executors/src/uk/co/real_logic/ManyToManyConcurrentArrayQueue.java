@@ -16,10 +16,13 @@
 
 package uk.co.real_logic;
 
-import sun.misc.Unsafe;
-
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 
@@ -35,29 +38,18 @@ import java.util.Queue;
  * and providing bounded semantics on size which would have to be wrapped around {@link java.util.concurrent.ConcurrentLinkedQueue} thus
  * reducing its performance to significantly less than this queue.
  * </p>
+ * <p>
+ * {@link #remove(Object)} replaces the element with a tombstone which consumers skip, so a removed element continues
+ * to count towards the size of the queue until consumers reach it. {@link #iterator()} and {@link #toArray()} work
+ * on a weakly consistent snapshot of the elements.
+ * </p>
  *
  * @param <E> type of the element to be held in this collection.
  */
 public class ManyToManyConcurrentArrayQueue<E>
     implements SequencedContainerQueue<E>
 {
-    private static final Unsafe unsafe;
-    private static final int arrayBase;
-    private static final int shiftForScale;
-
-    static
-    {
-        try
-        {
-            unsafe = Util.getUnsafe();
-            arrayBase = unsafe.arrayBaseOffset(Object[].class);
-            shiftForScale = Util.calculateShiftForScale(unsafe.arrayIndexScale(Object[].class));
-        }
-        catch (final Exception ex)
-        {
-            throw new RuntimeException(ex);
-        }
-    }
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
 
     private final E[] buffer;
     private final int mask;
@@ -69,15 +61,39 @@ public class ManyToManyConcurrentArrayQueue<E>
     private final AtomicCounter tailCache = new AtomicCounter(0);
     private final AtomicCounter headCache = new AtomicCounter(0);
 
-    @SuppressWarnings("unchecked")
+    private final QueueMetrics metrics;
+
     public ManyToManyConcurrentArrayQueue(final int capacity)
+    {
+        this(capacity, null);
+    }
+
+    /**
+     * Create a queue which records its behaviour to a {@link QueueMetrics}.
+     *
+     * @param capacity of the queue which will be rounded up to the next power of 2.
+     * @param metrics to record to or null if metrics are not required.
+     */
+    @SuppressWarnings("unchecked")
+    public ManyToManyConcurrentArrayQueue(final int capacity, final QueueMetrics metrics)
     {
         final int actualCapacity = Util.findNextPositivePowerOfTwo(capacity);
         mask = actualCapacity - 1;
         this.capacity = actualCapacity;
+        this.metrics = metrics;
         buffer = (E[])new Object[actualCapacity];
     }
 
+    /**
+     * Get the metrics this queue records to.
+     *
+     * @return the metrics this queue records to or null if it does not record metrics.
+     */
+    public QueueMetrics getMetrics()
+    {
+        return metrics;
+    }
+
     public boolean add(final E e)
     {
         if (offer(e))
@@ -98,8 +114,10 @@ public class ManyToManyConcurrentArrayQueue<E>
         long currentTail;
         long currentHead = headCache.get();
         long bufferLimit = currentHead + capacity;
+        int casRetries = -1;
         do
         {
+            ++casRetries;
             currentTail = tail.get();
             if (currentTail >= bufferLimit)
             {
@@ -107,6 +125,11 @@ public class ManyToManyConcurrentArrayQueue<E>
                 bufferLimit = currentHead + capacity;
                 if (currentTail >= bufferLimit)
                 {
+                    if (null != metrics)
+                    {
+                        recordFailedOffer(casRetries);
+                    }
+
                     return false;
                 }
 
@@ -115,8 +138,13 @@ public class ManyToManyConcurrentArrayQueue<E>
         }
         while (!tail.compareAndSet(currentTail, currentTail + 1));
 
-        final long elementOffset = calculateOffset((int)currentTail & mask);
-        while (!unsafe.compareAndSwapObject(buffer,  elementOffset, null, e))
+        if (null != metrics)
+        {
+            recordOffer(casRetries, currentTail + 1);
+        }
+
+        final int index = (int)currentTail & mask;
+        while (!ELEMENTS.compareAndSet(buffer, index, null, e))
         {
             // busy spin
         }
@@ -124,42 +152,119 @@ public class ManyToManyConcurrentArrayQueue<E>
         return true;
     }
 
+    /**
+     * Offer a batch of elements by claiming a contiguous range of slots with a single CAS on the tail rather than one
+     * CAS per element. The batch is offered in its entirety or not at all. The range is copied before it is checked so
+     * a concurrent change to the array cannot put a null into the queue.
+     *
+     * @param src array holding the elements to be offered.
+     * @param offset in the array of the first element.
+     * @param length of the batch.
+     * @return true if all the elements were offered or false if there is insufficient capacity for the batch.
+     * @throws NullPointerException if any element of the batch is null.
+     * @throws IndexOutOfBoundsException if the range is not within the array.
+     * @throws IllegalArgumentException if the batch is larger than the capacity of the queue.
+     */
+    public boolean offer(final E[] src, final int offset, final int length)
+    {
+        if (offset < 0 || length < 0 || offset > src.length - length)
+        {
+            String msg = "offset=" + offset + " length=" + length + " src.length=" + src.length;
+            throw new IndexOutOfBoundsException(msg);
+        }
+
+        return offerBatch(Arrays.copyOfRange(src, offset, offset + length));
+    }
+
+    /**
+     * Offer all the elements of a collection by claiming a contiguous range of slots with a single CAS on the tail.
+     * The collection is offered in its entirety or not at all. It is snapshot once with {@link Collection#toArray()}
+     * so the elements checked are exactly those offered.
+     *
+     * @param c collection of elements to be offered in iteration order.
+     * @return true if all the elements were offered or false if there is insufficient capacity for the collection.
+     * @throws NullPointerException if any element of the collection is null.
+     * @throws IllegalArgumentException if the collection is larger than the capacity of the queue.
+     */
+    public boolean offerAll(final Collection<? extends E> c)
+    {
+        return offerBatch(c.toArray());
+    }
+
     public E poll()
     {
-        long currentTail = tailCache.get();
-        long currentHead;
+        E e;
         do
         {
-            currentHead = head.get();
-            if (currentHead >= currentTail)
+            long currentTail = tailCache.get();
+            long currentHead;
+            int casRetries = -1;
+            do
             {
-                currentTail = tail.get();
+                ++casRetries;
+                currentHead = head.get();
                 if (currentHead >= currentTail)
                 {
-                    return null;
+                    currentTail = tail.get();
+                    if (currentHead >= currentTail)
+                    {
+                        return null;
+                    }
+                    tailCache.setOrdered(currentTail);
                 }
-                tailCache.setOrdered(currentTail);
             }
+            while (!head.compareAndSet(currentHead, currentHead + 1));
+
+            if (null != metrics && casRetries > 0)
+            {
+                metrics.onHeadCasRetries(casRetries);
+            }
+
+            e = removeSequence((int)currentHead & mask);
         }
-        while (!head.compareAndSet(currentHead, currentHead + 1));
+        while (null == e);
 
-        return removeSequence(calculateOffset((int)currentHead & mask));
+        return e;
     }
 
     public int drain(final ElementHandler<E> elementHandler)
     {
         int drainCount = 0;
-        E e;
+        int batchCount;
 
-        while (null != (e = poll()))
+        while (0 != (batchCount = drain(elementHandler, capacity)))
         {
-            ++drainCount;
-            elementHandler.onElement(e);
+            drainCount += batchCount;
         }
 
         return drainCount;
     }
 
+    /**
+     * Drain up to a limit of the available elements as a batch claimed with a single CAS on the head rather than
+     * one CAS per element.
+     *
+     * Every element of a claimed batch is passed to the handler even if the handler throws for an earlier one, as
+     * the slots of the batch must be released for producers. The first exception thrown is rethrown once the batch
+     * is complete. If the handler throws an {@link Error} the remaining elements of the batch are discarded to release
+     * their slots before the error propagates.
+     *
+     * @param elementHandler to callback for processing elements
+     * @param limit on the number of elements to drain in the batch.
+     * @return the number of elements drained
+     */
+    public int drain(final ElementHandler<E> elementHandler, final int limit)
+    {
+        int drainCount;
+        do
+        {
+            drainCount = drainBatch(elementHandler, limit);
+        }
+        while (0 == drainCount);
+
+        return Math.max(drainCount, 0);
+    }
+
     public E remove()
     {
         final E e = poll();
@@ -182,10 +287,19 @@ public class ManyToManyConcurrentArrayQueue<E>
         return e;
     }
 
+    @SuppressWarnings("unchecked")
     public E peek()
     {
-        final int index = (int)head.get() & mask;
-        return getElementVolatile(index);
+        for (long i = head.get(), limit = tail.get(); i < limit; i++)
+        {
+            final Object e = getElementAcquire((int)i & mask);
+            if (!(e instanceof Tombstone))
+            {
+                return (E)e;
+            }
+        }
+
+        return null;
     }
 
     public int size()
@@ -216,8 +330,8 @@ public class ManyToManyConcurrentArrayQueue<E>
 
         for (long i = head.get(), limit = tail.get(); i < limit; i++)
         {
-            final E e = getElementVolatile((int)i & mask);
-            if (o.equals(e))
+            final Object e = getElementAcquire((int)i & mask);
+            if (!(e instanceof Tombstone) && o.equals(e))
             {
                 return true;
             }
@@ -226,24 +340,84 @@ public class ManyToManyConcurrentArrayQueue<E>
         return false;
     }
 
+    /**
+     * Iterate over a snapshot of the elements. Removing through the iterator removes an element equal to the one last
+     * returned by {@link #remove(Object)}.
+     *
+     * @return an iterator over a snapshot of the elements.
+     */
     public Iterator<E> iterator()
     {
-        throw new UnsupportedOperationException();
+        final Iterator<E> snapshot = snapshot().iterator();
+
+        return new Iterator<E>()
+        {
+            private E last;
+
+            public boolean hasNext()
+            {
+                return snapshot.hasNext();
+            }
+
+            public E next()
+            {
+                last = snapshot.next();
+                return last;
+            }
+
+            public void remove()
+            {
+                if (null == last)
+                {
+                    throw new IllegalStateException();
+                }
+
+                ManyToManyConcurrentArrayQueue.this.remove(last);
+                last = null;
+            }
+        };
     }
 
     public Object[] toArray()
     {
-        throw new UnsupportedOperationException();
+        return snapshot().toArray();
     }
 
     public <T> T[] toArray(final T[] a)
     {
-        throw new UnsupportedOperationException();
+        return snapshot().toArray(a);
     }
 
+    /**
+     * Remove the first element equal to the given object by replacing it with a tombstone which consumers skip.
+     * If the tombstone is at the head of the queue the head is advanced past it. Should a consumer claim the element
+     * while it is being replaced then the element is put back for that consumer unless it has already skipped it.
+     *
+     * @param o element to be removed.
+     * @return true if an element was removed.
+     */
     public boolean remove(final Object o)
     {
-        throw new UnsupportedOperationException();
+        if (null == o)
+        {
+            return false;
+        }
+
+        for (long i = head.get(), limit = tail.get(); i < limit; i++)
+        {
+            final int index = (int)i & mask;
+            final Object e = ELEMENTS.getAcquire(buffer, index);
+            if (null != e && !(e instanceof Tombstone) && o.equals(e))
+            {
+                final Tombstone tombstone = new Tombstone();
+                if (ELEMENTS.compareAndSet(buffer, index, e, tombstone) && isRemoved(i, index, e, tombstone))
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
     }
 
     public boolean containsAll(final Collection<?> c)
@@ -309,30 +483,303 @@ public class ManyToManyConcurrentArrayQueue<E>
         return getCapacity() - size();
     }
 
-    private static long calculateOffset(final int index)
+    /**
+     * Drain a batch claimed with a single CAS on the head.
+     *
+     * @param elementHandler to callback for processing elements
+     * @param limit on the number of elements to drain in the batch.
+     * @return the number of elements drained, which is 0 if the batch only held removed elements, or -1 if empty.
+     */
+    private int drainBatch(final ElementHandler<E> elementHandler, final int limit)
     {
-        return arrayBase + ((long)index << shiftForScale);
+        long currentHead;
+        int batchCount;
+        int casRetries = -1;
+        do
+        {
+            ++casRetries;
+            currentHead = head.get();
+            batchCount = (int)Math.min(limit, tail.get() - currentHead);
+            if (batchCount <= 0)
+            {
+                return -1;
+            }
+        }
+        while (!head.compareAndSet(currentHead, currentHead + batchCount));
+
+        if (null != metrics)
+        {
+            recordDrain(casRetries, batchCount);
+        }
+
+        RuntimeException exception = null;
+        int drainCount = 0;
+        int i = 0;
+        try
+        {
+            while (i < batchCount)
+            {
+                final E e = removeSequence((int)(currentHead + i++) & mask);
+                if (null == e)
+                {
+                    continue;
+                }
+
+                ++drainCount;
+                try
+                {
+                    elementHandler.onElement(e);
+                }
+                catch (final RuntimeException ex)
+                {
+                    if (null == exception)
+                    {
+                        exception = ex;
+                    }
+                }
+            }
+        }
+        finally
+        {
+            while (i < batchCount)
+            {
+                removeSequence((int)(currentHead + i++) & mask);
+            }
+        }
+
+        if (null != exception)
+        {
+            throw exception;
+        }
+
+        return drainCount;
     }
 
     @SuppressWarnings("unchecked")
-    private E getElementVolatile(final int index)
+    private boolean offerBatch(final Object[] batch)
     {
-        return (E)unsafe.getObjectVolatile(buffer, calculateOffset(index));
+        for (final Object e : batch)
+        {
+            if (null == e)
+            {
+                throw new NullPointerException("Null is not a valid element");
+            }
+        }
+
+        final long currentTail = claim(batch.length);
+        if (currentTail < 0)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < batch.length; i++)
+        {
+            putElement(currentTail + i, (E)batch[i]);
+        }
+
+        return true;
+    }
+
+    /**
+     * Claim a contiguous range of slots with a single CAS on the tail.
+     *
+     * @param length of the range to claim.
+     * @return the sequence of the first slot claimed or -1 if there is insufficient capacity.
+     */
+    private long claim(final int length)
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Batch length must not be negative: length=" + length);
+        }
+
+        if (length > capacity)
+        {
+            throw new IllegalArgumentException("Batch exceeds capacity: length=" + length + " capacity=" + capacity);
+        }
+
+        long currentTail;
+        long currentHead = headCache.get();
+        long bufferLimit = currentHead + capacity;
+        int casRetries = -1;
+        do
+        {
+            ++casRetries;
+            currentTail = tail.get();
+            if (currentTail + length > bufferLimit)
+            {
+                currentHead = head.get();
+                bufferLimit = currentHead + capacity;
+                if (currentTail + length > bufferLimit)
+                {
+                    if (null != metrics)
+                    {
+                        recordFailedOffer(casRetries);
+                    }
+
+                    return -1;
+                }
+
+                headCache.setOrdered(currentHead);
+            }
+        }
+        while (!tail.compareAndSet(currentTail, currentTail + length));
+
+        if (null != metrics)
+        {
+            recordOffer(casRetries, currentTail + length);
+        }
+
+        return currentTail;
+    }
+
+    private void putElement(final long sequence, final E e)
+    {
+        final int index = (int)sequence & mask;
+        while (!ELEMENTS.compareAndSet(buffer, index, null, e))
+        {
+            // busy spin
+        }
     }
 
     @SuppressWarnings("unchecked")
-    private E removeSequence(final long elementOffset)
+    private E getElementAcquire(final int index)
+    {
+        return (E)ELEMENTS.getAcquire(buffer, index);
+    }
+
+    /**
+     * Remove the element of a claimed sequence. The slot is read after the head has been claimed so a tombstone stored
+     * before the claim is always seen and the element is cleared with an ordered store. Only a tombstone is cleared
+     * with a CAS as {@link #remove(Object)} may race to put the element back.
+     *
+     * @param index of the slot for the claimed sequence.
+     * @return the element or null if it was removed by {@link #remove(Object)}.
+     */
+    @SuppressWarnings("unchecked")
+    private E removeSequence(final int index)
+    {
+        Object e = ELEMENTS.getVolatile(buffer, index);
+        if (null == e)
+        {
+            e = awaitElement(index);
+        }
+
+        while (e instanceof Tombstone)
+        {
+            final Tombstone tombstone = (Tombstone)e;
+            tombstone.skipped = true;
+            if (ELEMENTS.compareAndSet(buffer, index, tombstone, null))
+            {
+                return null;
+            }
+
+            e = ELEMENTS.getVolatile(buffer, index);
+        }
+
+        ELEMENTS.setRelease(buffer, index, null);
+
+        return (E)e;
+    }
+
+    /**
+     * Complete the removal of a sequence once its element has been replaced with a tombstone. A consumer which claims
+     * the sequence after the tombstone was stored is sure to see it. One which claimed it before may have read the
+     * element and will clear the slot with an ordered store, so the element is put back unless it has been skipped.
+     *
+     * @param sequence of the element replaced.
+     * @param index    of the slot for the sequence.
+     * @param e        element which was replaced.
+     * @param tombstone which replaced the element.
+     * @return true if the element has been removed from the queue.
+     */
+    private boolean isRemoved(final long sequence, final int index, final Object e, final Tombstone tombstone)
+    {
+        if (head.compareAndSet(sequence, sequence + 1))
+        {
+            ELEMENTS.setRelease(buffer, index, null);
+            return true;
+        }
+
+        if (head.get() <= sequence)
+        {
+            return true;
+        }
+
+        return !ELEMENTS.compareAndSet(buffer, index, tombstone, e) && tombstone.skipped;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<E> snapshot()
+    {
+        final List<E> elements = new ArrayList<E>();
+        for (long i = head.get(), limit = tail.get(); i < limit; i++)
+        {
+            final Object e = getElementAcquire((int)i & mask);
+            if (null != e && !(e instanceof Tombstone))
+            {
+                elements.add((E)e);
+            }
+        }
+
+        return elements;
+    }
+
+    private Object awaitElement(final int index)
     {
         Object e;
+        int spins = 0;
         do
         {
-            e = unsafe.getObjectVolatile(buffer, elementOffset);
+            ++spins;
+            e = ELEMENTS.getVolatile(buffer, index);
         }
         while (null == e);
 
-        unsafe.putOrderedObject(buffer, elementOffset, null);
+        if (null != metrics)
+        {
+            metrics.onInFlightSpins(spins);
+        }
 
-        return (E)e;
+        return e;
+    }
+
+    private void recordOffer(final int casRetries, final long newTail)
+    {
+        if (casRetries > 0)
+        {
+            metrics.onTailCasRetries(casRetries);
+        }
+
+        metrics.onOccupancy(newTail - head.get());
+    }
+
+    private void recordFailedOffer(final int casRetries)
+    {
+        metrics.onFailedOffer(1);
+        if (casRetries > 0)
+        {
+            metrics.onTailCasRetries(casRetries);
+        }
+    }
+
+    private void recordDrain(final int casRetries, final int batchCount)
+    {
+        if (casRetries > 0)
+        {
+            metrics.onHeadCasRetries(casRetries);
+        }
+
+        metrics.onDrainBatch(batchCount);
+    }
+
+    /**
+     * Stands in for an element removed by {@link #remove(Object)}. Each removal has its own so the remover can tell
+     * whether a consumer racing for the sequence skipped it.
+     */
+    private static final class Tombstone
+    {
+        volatile boolean skipped;
     }
 }
 
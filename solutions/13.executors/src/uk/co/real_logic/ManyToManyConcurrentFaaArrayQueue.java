@@ -0,0 +1,443 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * <p>
+ * A bounded concurrent {@link Queue} for multiple producers and multiple consumers in which producers claim slots
+ * with a fetch-and-add on the tail rather than a CAS retry loop.
+ * </p>
+ * <p>
+ * Each slot has a sequence number that says whose turn it is. A slot is free for the producer holding ticket t when
+ * its sequence is t, holds a published element when it is t + 1, and is released for the next lap by setting it to
+ * t + capacity. Because a fetch-and-add cannot be undone, an offer checks for capacity first and a producer that
+ * races past that check while the queue is full waits for a consumer to free its slot rather than failing.
+ * </p>
+ * <p>
+ * Consumers only claim a slot with a CAS on the head once its element has been published, so a poll on an empty
+ * queue returns immediately rather than waiting for a producer.
+ * </p>
+ *
+ * @param <E> type of the element to be held in this collection.
+ */
+public class ManyToManyConcurrentFaaArrayQueue<E>
+    implements SequencedContainerQueue<E>
+{
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final E[] buffer;
+    private final long[] sequences;
+    private final int mask;
+    private final int capacity;
+
+    private final AtomicCounter tail = new AtomicCounter(0);
+    private final AtomicCounter head = new AtomicCounter(0);
+
+    private final QueueMetrics metrics;
+
+    public ManyToManyConcurrentFaaArrayQueue(final int capacity)
+    {
+        this(capacity, null);
+    }
+
+    /**
+     * Create a queue which records its behaviour to a {@link QueueMetrics}.
+     *
+     * @param capacity of the queue which will be rounded up to the next power of 2, and to at least 2 as with a
+     *                 single slot the sequence of a published element would equal that of the slot freed for the next
+     *                 ticket.
+     * @param metrics to record to or null if metrics are not required.
+     */
+    @SuppressWarnings("unchecked")
+    public ManyToManyConcurrentFaaArrayQueue(final int capacity, final QueueMetrics metrics)
+    {
+        final int actualCapacity = Util.findNextPositivePowerOfTwo(Math.max(2, capacity));
+        mask = actualCapacity - 1;
+        this.capacity = actualCapacity;
+        this.metrics = metrics;
+        buffer = (E[])new Object[actualCapacity];
+        sequences = new long[actualCapacity];
+        for (int i = 0; i < actualCapacity; i++)
+        {
+            sequences[i] = i;
+        }
+    }
+
+    /**
+     * Get the metrics this queue records to.
+     *
+     * @return the metrics this queue records to or null if it does not record metrics.
+     */
+    public QueueMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    public boolean add(final E e)
+    {
+        if (offer(e))
+        {
+            return true;
+        }
+
+        throw new IllegalStateException("Queue is full");
+    }
+
+    public boolean offer(final E e)
+    {
+        if (null == e)
+        {
+            throw new NullPointerException("Null is not a valid element");
+        }
+
+        if (tail.get() - head.get() >= capacity)
+        {
+            if (null != metrics)
+            {
+                metrics.onFailedOffer(1);
+            }
+
+            return false;
+        }
+
+        final long ticket = tail.getAndIncrement();
+        final int index = (int)ticket & mask;
+        if ((long)SEQUENCES.getAcquire(sequences, index) != ticket)
+        {
+            awaitSlot(index, ticket);
+        }
+
+        ELEMENTS.set(buffer, index, e);
+        SEQUENCES.setRelease(sequences, index, ticket + 1);
+
+        if (null != metrics)
+        {
+            metrics.onOccupancy(ticket + 1 - head.get());
+        }
+
+        return true;
+    }
+
+    public E poll()
+    {
+        long currentHead;
+        int casRetries = -1;
+        do
+        {
+            ++casRetries;
+            currentHead = head.get();
+            if (!isPublished(currentHead))
+            {
+                return null;
+            }
+        }
+        while (!head.compareAndSet(currentHead, currentHead + 1));
+
+        if (null != metrics && casRetries > 0)
+        {
+            metrics.onHeadCasRetries(casRetries);
+        }
+
+        return removeSequence(currentHead);
+    }
+
+    public int drain(final ElementHandler<E> elementHandler)
+    {
+        int drainCount = 0;
+        int batchCount;
+
+        while (0 != (batchCount = drain(elementHandler, capacity)))
+        {
+            drainCount += batchCount;
+        }
+
+        return drainCount;
+    }
+
+    /**
+     * Drain up to a limit of the published elements as a batch claimed with a single CAS on the head.
+     *
+     * Every element of a claimed batch is passed to the handler even if the handler throws for an earlier one, as
+     * the slots of the batch must be released for producers. The first exception thrown is rethrown once the batch
+     * is complete. If the handler throws an {@link Error} the remaining elements of the batch are discarded to release
+     * their slots before the error propagates.
+     *
+     * @param elementHandler to callback for processing elements
+     * @param limit on the number of elements to drain in the batch.
+     * @return the number of elements drained
+     */
+    public int drain(final ElementHandler<E> elementHandler, final int limit)
+    {
+        long currentHead;
+        int batchCount;
+        int casRetries = -1;
+        do
+        {
+            ++casRetries;
+            currentHead = head.get();
+            batchCount = 0;
+            while (batchCount < limit && isPublished(currentHead + batchCount))
+            {
+                ++batchCount;
+            }
+
+            if (0 == batchCount)
+            {
+                return 0;
+            }
+        }
+        while (!head.compareAndSet(currentHead, currentHead + batchCount));
+
+        if (null != metrics)
+        {
+            if (casRetries > 0)
+            {
+                metrics.onHeadCasRetries(casRetries);
+            }
+
+            metrics.onDrainBatch(batchCount);
+        }
+
+        RuntimeException exception = null;
+        int i = 0;
+        try
+        {
+            while (i < batchCount)
+            {
+                final E e = removeSequence(currentHead + i++);
+                try
+                {
+                    elementHandler.onElement(e);
+                }
+                catch (final RuntimeException ex)
+                {
+                    if (null == exception)
+                    {
+                        exception = ex;
+                    }
+                }
+            }
+        }
+        finally
+        {
+            while (i < batchCount)
+            {
+                removeSequence(currentHead + i++);
+            }
+        }
+
+        if (null != exception)
+        {
+            throw exception;
+        }
+
+        return batchCount;
+    }
+
+    public E remove()
+    {
+        final E e = poll();
+        if (null == e)
+        {
+            throw new NoSuchElementException("Queue is empty");
+        }
+
+        return e;
+    }
+
+    public E element()
+    {
+        final E e = peek();
+        if (null == e)
+        {
+            throw new NoSuchElementException("Queue is empty");
+        }
+
+        return e;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E peek()
+    {
+        final long currentHead = head.get();
+        if (!isPublished(currentHead))
+        {
+            return null;
+        }
+
+        return (E)ELEMENTS.getAcquire(buffer, (int)currentHead & mask);
+    }
+
+    public int size()
+    {
+        long currentHead;
+        long currentTail;
+        do
+        {
+            currentHead = head.get();
+            currentTail = tail.get();
+        }
+        while (currentHead != head.get());
+
+        return (int)Math.max(0, Math.min(currentTail - currentHead, capacity));
+    }
+
+    public boolean isEmpty()
+    {
+        return !isPublished(head.get());
+    }
+
+    public boolean contains(final Object o)
+    {
+        if (null == o)
+        {
+            return false;
+        }
+
+        for (long i = head.get(), limit = tail.get(); i < limit; i++)
+        {
+            if (o.equals(ELEMENTS.getAcquire(buffer, (int)i & mask)))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public Iterator<E> iterator()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Object[] toArray()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public <T> T[] toArray(final T[] a)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean remove(final Object o)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean containsAll(final Collection<?> c)
+    {
+        for (final Object o : c)
+        {
+            if (!contains(o))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public boolean addAll(final Collection<? extends E> c)
+    {
+        for (final E e : c)
+        {
+            add(e);
+        }
+
+        return true;
+    }
+
+    public boolean removeAll(final Collection<?> c)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean retainAll(final Collection<?> c)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public void clear()
+    {
+        Object value;
+        do
+        {
+            value = poll();
+        }
+        while (null != value);
+    }
+
+    public long getAddedCount()
+    {
+        return tail.get();
+    }
+
+    public long getRemovedCount()
+    {
+        return head.get();
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public int getRemainingCapacity()
+    {
+        return getCapacity() - size();
+    }
+
+    private void awaitSlot(final int index, final long ticket)
+    {
+        int spins = 0;
+        do
+        {
+            ++spins;
+        }
+        while ((long)SEQUENCES.getAcquire(sequences, index) != ticket);
+
+        if (null != metrics)
+        {
+            metrics.onInFlightSpins(spins);
+        }
+    }
+
+    private boolean isPublished(final long sequence)
+    {
+        return (long)SEQUENCES.getAcquire(sequences, (int)sequence & mask) == sequence + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E removeSequence(final long sequence)
+    {
+        final int index = (int)sequence & mask;
+        final E e = (E)ELEMENTS.get(buffer, index);
+        ELEMENTS.set(buffer, index, null);
+        SEQUENCES.setRelease(sequences, index, sequence + capacity);
+
+        return e;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link IdleStrategy} that parks the thread for a period while idle, giving up the processor at the cost of the
+ * latency of being rescheduled.
+ */
+public class ParkingStrategy
+    implements IdleStrategy
+{
+    private final long parkPeriodNs;
+
+    /**
+     * Create a strategy that parks for the given period.
+     *
+     * @param parkPeriodNs period to park for each time the thread is idle.
+     */
+    public ParkingStrategy(final long parkPeriodNs)
+    {
+        this.parkPeriodNs = parkPeriodNs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void idle(final int count)
+    {
+        LockSupport.parkNanos(parkPeriodNs);
+    }
+}
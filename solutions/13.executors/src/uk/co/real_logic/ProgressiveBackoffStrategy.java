@@ -50,8 +50,9 @@ public class ProgressiveBackoffStrategy
             {
                 Thread.sleep(1);
             }
-            catch (InterruptedException ignore)
+            catch (final InterruptedException ex)
             {
+                Thread.currentThread().interrupt();
             }
         }
     }
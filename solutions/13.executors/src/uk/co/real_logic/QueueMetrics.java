@@ -0,0 +1,280 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Optional instrumentation for the queues in this package to help tune capacity and the number of consumers.
+ *
+ * Recording is single writer. Each recording thread gets its own set of counters, padded to prevent false sharing,
+ * which it updates with plain loads and opaque stores rather than atomic instructions. Readers sum the counters of
+ * all threads with opaque loads, as no other memory access is ordered by them, so the values are a snapshot that may
+ * lag slightly behind the recording threads.
+ *
+ * When a new thread starts recording, the counters of threads which have since exited are folded into a retired total
+ * and their sets are dropped, so memory is bounded by the peak number of live recording threads rather than growing
+ * with thread churn.
+ *
+ * A queue created without a {@link QueueMetrics} records nothing, so the only cost when disabled is a branch on a
+ * final field on the slow paths.
+ */
+public class QueueMetrics
+{
+    /**
+     * Number of buckets in the drain batch size distribution. Bucket 0 counts batches of 1 element and bucket n
+     * counts batches of 2^(n-1) + 1 to 2^n elements.
+     */
+    public static final int DRAIN_BATCH_BUCKETS = 32;
+
+    private static final int FAILED_OFFERS = 0;
+    private static final int TAIL_CAS_RETRIES = 1;
+    private static final int HEAD_CAS_RETRIES = 2;
+    private static final int IN_FLIGHT_SPINS = 3;
+    private static final int HIGH_WATER_OCCUPANCY = 4;
+    private static final int DRAIN_BATCHES = 5;
+
+    private static final int PADDING = 8;
+    private static final int RECORDER_LENGTH = PADDING + DRAIN_BATCHES + DRAIN_BATCH_BUCKETS + PADDING;
+
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final ThreadLocal<long[]> threadRecorder = new ThreadLocal<long[]>()
+    {
+        protected long[] initialValue()
+        {
+            return newRecorder();
+        }
+    };
+
+    /**
+     * Counter sets summed by readers. The first holds the retired total of exited threads and is replaced rather than
+     * updated, so a reader never counts a thread both in the total and in its own set.
+     */
+    private volatile long[][] recorders = {new long[RECORDER_LENGTH]};
+    private Thread[] owners = {null};
+
+    /**
+     * Record offers that failed because the queue was full.
+     *
+     * @param count of failed offers.
+     */
+    public void onFailedOffer(final int count)
+    {
+        add(threadRecorder.get(), FAILED_OFFERS, count);
+    }
+
+    /**
+     * Record CAS operations on the tail which failed and had to be retried.
+     *
+     * @param retries number of failed CAS operations.
+     */
+    public void onTailCasRetries(final int retries)
+    {
+        add(threadRecorder.get(), TAIL_CAS_RETRIES, retries);
+    }
+
+    /**
+     * Record CAS operations on the head which failed and had to be retried.
+     *
+     * @param retries number of failed CAS operations.
+     */
+    public void onHeadCasRetries(final int retries)
+    {
+        add(threadRecorder.get(), HEAD_CAS_RETRIES, retries);
+    }
+
+    /**
+     * Record spins waiting for a claimed slot whose producer has not yet stored its element, or whose consumer has
+     * not yet released it.
+     *
+     * @param spins number of times the slot was checked without success.
+     */
+    public void onInFlightSpins(final int spins)
+    {
+        add(threadRecorder.get(), IN_FLIGHT_SPINS, spins);
+    }
+
+    /**
+     * Record the number of elements in the queue as observed after an offer.
+     *
+     * @param occupancy of the queue.
+     */
+    public void onOccupancy(final long occupancy)
+    {
+        final long[] recorder = threadRecorder.get();
+        if (occupancy > recorder[PADDING + HIGH_WATER_OCCUPANCY])
+        {
+            COUNTERS.setOpaque(recorder, PADDING + HIGH_WATER_OCCUPANCY, occupancy);
+        }
+    }
+
+    /**
+     * Record the size of a batch taken by a drain.
+     *
+     * @param batchSize number of elements in the batch.
+     */
+    public void onDrainBatch(final int batchSize)
+    {
+        if (batchSize > 0)
+        {
+            add(threadRecorder.get(), DRAIN_BATCHES + drainBatchBucket(batchSize), 1);
+        }
+    }
+
+    public long getFailedOfferCount()
+    {
+        return sum(FAILED_OFFERS);
+    }
+
+    public long getTailCasRetryCount()
+    {
+        return sum(TAIL_CAS_RETRIES);
+    }
+
+    public long getHeadCasRetryCount()
+    {
+        return sum(HEAD_CAS_RETRIES);
+    }
+
+    public long getInFlightSpinCount()
+    {
+        return sum(IN_FLIGHT_SPINS);
+    }
+
+    /**
+     * Get the highest occupancy observed after an offer by any thread.
+     *
+     * @return the highest occupancy observed.
+     */
+    public long getHighWaterOccupancy()
+    {
+        long highWater = 0;
+        for (final long[] recorder : recorders)
+        {
+            highWater = Math.max(highWater, (long)COUNTERS.getOpaque(recorder, PADDING + HIGH_WATER_OCCUPANCY));
+        }
+
+        return highWater;
+    }
+
+    /**
+     * Get the number of drain batches recorded in each bucket of batch size.
+     *
+     * @return a new array of {@link #DRAIN_BATCH_BUCKETS} counts.
+     */
+    public long[] getDrainBatchDistribution()
+    {
+        final long[] distribution = new long[DRAIN_BATCH_BUCKETS];
+        for (int i = 0; i < DRAIN_BATCH_BUCKETS; i++)
+        {
+            distribution[i] = sum(DRAIN_BATCHES + i);
+        }
+
+        return distribution;
+    }
+
+    /**
+     * Find the bucket of the drain batch size distribution for a batch size.
+     *
+     * @param batchSize greater than 0.
+     * @return the bucket counting batches of the size.
+     */
+    public static int drainBatchBucket(final int batchSize)
+    {
+        return 32 - Integer.numberOfLeadingZeros(batchSize - 1);
+    }
+
+    private synchronized long[] newRecorder()
+    {
+        final long[][] current = recorders;
+        int liveCount = 1;
+        for (int i = 1; i < current.length; i++)
+        {
+            if (owners[i].isAlive())
+            {
+                liveCount++;
+            }
+        }
+
+        final long[][] updated = new long[liveCount + 1][];
+        final Thread[] updatedOwners = new Thread[liveCount + 1];
+        updated[0] = liveCount < current.length ? current[0].clone() : current[0];
+
+        for (int i = 1, j = 1; i < current.length; i++)
+        {
+            if (owners[i].isAlive())
+            {
+                updated[j] = current[i];
+                updatedOwners[j++] = owners[i];
+            }
+            else
+            {
+                retire(updated[0], current[i]);
+            }
+        }
+
+        final long[] recorder = new long[RECORDER_LENGTH];
+        updated[liveCount] = recorder;
+        updatedOwners[liveCount] = Thread.currentThread();
+        owners = updatedOwners;
+        recorders = updated;
+
+        return recorder;
+    }
+
+    /**
+     * Fold the counters of a thread which has exited, and so made all its stores visible, into the retired total.
+     */
+    private static void retire(final long[] retired, final long[] recorder)
+    {
+        for (int i = PADDING, limit = RECORDER_LENGTH - PADDING; i < limit; i++)
+        {
+            if (PADDING + HIGH_WATER_OCCUPANCY == i)
+            {
+                retired[i] = Math.max(retired[i], recorder[i]);
+            }
+            else
+            {
+                retired[i] += recorder[i];
+            }
+        }
+    }
+
+    int recorderCount()
+    {
+        return recorders.length - 1;
+    }
+
+    private long sum(final int counter)
+    {
+        final int index = PADDING + counter;
+        long sum = 0;
+        for (final long[] recorder : recorders)
+        {
+            sum += (long)COUNTERS.getOpaque(recorder, index);
+        }
+
+        return sum;
+    }
+
+    private static void add(final long[] recorder, final int counter, final long delta)
+    {
+        final int index = PADDING + counter;
+        COUNTERS.setOpaque(recorder, index, recorder[index] + delta);
+    }
+}
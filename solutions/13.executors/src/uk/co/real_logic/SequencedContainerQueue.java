@@ -34,4 +34,15 @@ public interface SequencedContainerQueue<E>
      * @return the number of elements drained
      */
     int drain(ElementHandler<E> elementHandler);
+
+    /**
+     * Invoke a {@link ElementHandler} callback on each element available up to a limit.
+     *
+     * If possible, implementations should take the elements as a single batch.
+     *
+     * @param elementHandler to callback for processing elements
+     * @param limit on the number of elements to drain
+     * @return the number of elements drained
+     */
+    int drain(ElementHandler<E> elementHandler, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * <p>
+ * A bounded concurrent {@link Queue} for multiple producers and multiple consumers made of a number of
+ * {@link ManyToManyConcurrentArrayQueue} shards, so producers contend on the tail of their own shard rather than
+ * all on one tail.
+ * </p>
+ * <p>
+ * Each thread has a home shard chosen from its id. Producers offer to their home shard first and only move on to
+ * the other shards when it is full. Consumers poll their home shard first and then steal from the other shards.
+ * Elements are ordered within a shard but not across shards. Sizes and counts are the sum over all shards.
+ * </p>
+ *
+ * @param <E> type of the element to be held in this collection.
+ */
+public class ShardedConcurrentArrayQueue<E>
+    implements SequencedContainerQueue<E>
+{
+    private final ManyToManyConcurrentArrayQueue<E>[] shards;
+    private final int shardMask;
+    private final int capacity;
+
+    /**
+     * Create a queue with a shard for each available processor.
+     *
+     * @param capacity of the queue which will be divided between the shards and rounded up so each shard has the
+     *                 same power of 2 capacity.
+     */
+    public ShardedConcurrentArrayQueue(final int capacity)
+    {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a queue with the given number of shards.
+     *
+     * @param capacity of the queue which will be divided between the shards and rounded up so each shard has the
+     *                 same power of 2 capacity.
+     * @param shardCount number of shards which will be rounded up to the next power of 2.
+     */
+    public ShardedConcurrentArrayQueue(final int capacity, final int shardCount)
+    {
+        this(capacity, shardCount, null);
+    }
+
+    /**
+     * Create a queue with the given number of shards which all record to a {@link QueueMetrics}.
+     *
+     * Metrics are recorded by each shard, so a failed offer is counted for every full shard tried and occupancy is
+     * that of a single shard.
+     *
+     * @param capacity of the queue which will be divided between the shards and rounded up so each shard has the
+     *                 same power of 2 capacity.
+     * @param shardCount number of shards which will be rounded up to the next power of 2.
+     * @param metrics to record to or null if metrics are not required.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ShardedConcurrentArrayQueue(final int capacity, final int shardCount, final QueueMetrics metrics)
+    {
+        if (shardCount < 1)
+        {
+            throw new IllegalArgumentException("shardCount must be at least 1: shardCount=" + shardCount);
+        }
+
+        final int actualShardCount = Util.findNextPositivePowerOfTwo(shardCount);
+        final int shardCapacity = Util.findNextPositivePowerOfTwo(Math.max(1, (capacity - 1) / actualShardCount + 1));
+
+        shardMask = actualShardCount - 1;
+        this.capacity = shardCapacity * actualShardCount;
+        shards = new ManyToManyConcurrentArrayQueue[actualShardCount];
+        for (int i = 0; i < actualShardCount; i++)
+        {
+            shards[i] = new ManyToManyConcurrentArrayQueue<E>(shardCapacity, metrics);
+        }
+    }
+
+    /**
+     * Get the number of shards the queue is divided into.
+     *
+     * @return the number of shards.
+     */
+    public int getShardCount()
+    {
+        return shards.length;
+    }
+
+    public boolean add(final E e)
+    {
+        if (offer(e))
+        {
+            return true;
+        }
+
+        throw new IllegalStateException("Queue is full");
+    }
+
+    public boolean offer(final E e)
+    {
+        final int homeShard = homeShard();
+        for (int i = 0; i < shards.length; i++)
+        {
+            if (shards[(homeShard + i) & shardMask].offer(e))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public E poll()
+    {
+        final int homeShard = homeShard();
+        for (int i = 0; i < shards.length; i++)
+        {
+            final E e = shards[(homeShard + i) & shardMask].poll();
+            if (null != e)
+            {
+                return e;
+            }
+        }
+
+        return null;
+    }
+
+    public int drain(final ElementHandler<E> elementHandler)
+    {
+        final int homeShard = homeShard();
+        int drainCount = 0;
+        for (int i = 0; i < shards.length; i++)
+        {
+            drainCount += shards[(homeShard + i) & shardMask].drain(elementHandler);
+        }
+
+        return drainCount;
+    }
+
+    public int drain(final ElementHandler<E> elementHandler, final int limit)
+    {
+        final int homeShard = homeShard();
+        int drainCount = 0;
+        for (int i = 0; i < shards.length && drainCount < limit; i++)
+        {
+            drainCount += shards[(homeShard + i) & shardMask].drain(elementHandler, limit - drainCount);
+        }
+
+        return drainCount;
+    }
+
+    public E remove()
+    {
+        final E e = poll();
+        if (null == e)
+        {
+            throw new NoSuchElementException("Queue is empty");
+        }
+
+        return e;
+    }
+
+    public E element()
+    {
+        final E e = peek();
+        if (null == e)
+        {
+            throw new NoSuchElementException("Queue is empty");
+        }
+
+        return e;
+    }
+
+    public E peek()
+    {
+        final int homeShard = homeShard();
+        for (int i = 0; i < shards.length; i++)
+        {
+            final E e = shards[(homeShard + i) & shardMask].peek();
+            if (null != e)
+            {
+                return e;
+            }
+        }
+
+        return null;
+    }
+
+    public int size()
+    {
+        long size = 0;
+        for (final ManyToManyConcurrentArrayQueue<E> shard : shards)
+        {
+            size += shard.size();
+        }
+
+        return (int)Math.min(size, capacity);
+    }
+
+    public boolean isEmpty()
+    {
+        for (final ManyToManyConcurrentArrayQueue<E> shard : shards)
+        {
+            if (!shard.isEmpty())
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public boolean contains(final Object o)
+    {
+        for (final ManyToManyConcurrentArrayQueue<E> shard : shards)
+        {
+            if (shard.contains(o))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Iterate over a snapshot of the elements of each shard in turn.
+     *
+     * @return an iterator over a snapshot of the elements.
+     * @see ManyToManyConcurrentArrayQueue#iterator()
+     */
+    public Iterator<E> iterator()
+    {
+        final Iterator<E> snapshot = snapshot().iterator();
+
+        return new Iterator<E>()
+        {
+            private E last;
+
+            public boolean hasNext()
+            {
+                return snapshot.hasNext();
+            }
+
+            public E next()
+            {
+                last = snapshot.next();
+                return last;
+            }
+
+            public void remove()
+            {
+                if (null == last)
+                {
+                    throw new IllegalStateException();
+                }
+
+                ShardedConcurrentArrayQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    public Object[] toArray()
+    {
+        return snapshot().toArray();
+    }
+
+    public <T> T[] toArray(final T[] a)
+    {
+        return snapshot().toArray(a);
+    }
+
+    public boolean remove(final Object o)
+    {
+        for (final ManyToManyConcurrentArrayQueue<E> shard : shards)
+        {
+            if (shard.remove(o))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean containsAll(final Collection<?> c)
+    {
+        for (final Object o : c)
+        {
+            if (!contains(o))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public boolean addAll(final Collection<? extends E> c)
+    {
+        for (final E e : c)
+        {
+            add(e);
+        }
+
+        return true;
+    }
+
+    public boolean removeAll(final Collection<?> c)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean retainAll(final Collection<?> c)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public void clear()
+    {
+        for (final ManyToManyConcurrentArrayQueue<E> shard : shards)
+        {
+            shard.clear();
+        }
+    }
+
+    public long getAddedCount()
+    {
+        long addedCount = 0;
+        for (final ManyToManyConcurrentArrayQueue<E> shard : shards)
+        {
+            addedCount += shard.getAddedCount();
+        }
+
+        return addedCount;
+    }
+
+    public long getRemovedCount()
+    {
+        long removedCount = 0;
+        for (final ManyToManyConcurrentArrayQueue<E> shard : shards)
+        {
+            removedCount += shard.getRemovedCount();
+        }
+
+        return removedCount;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public int getRemainingCapacity()
+    {
+        return getCapacity() - size();
+    }
+
+    private List<E> snapshot()
+    {
+        final List<E> elements = new ArrayList<E>();
+        for (final ManyToManyConcurrentArrayQueue<E> shard : shards)
+        {
+            for (final E e : shard)
+            {
+                elements.add(e);
+            }
+        }
+
+        return elements;
+    }
+
+    private int homeShard()
+    {
+        return (int)Thread.currentThread().getId() & shardMask;
+    }
+}
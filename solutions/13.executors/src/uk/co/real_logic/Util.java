@@ -15,12 +15,6 @@
  */
 package uk.co.real_logic;
 
-import sun.misc.Unsafe;
-
-import java.lang.reflect.Field;
-import java.security.AccessController;
-import java.security.PrivilegedExceptionAction;
-
 /**
  * Miscellaneous useful functions.
  */
@@ -46,40 +40,6 @@ public class Util
     /** Size of a double in bytes */
     public static final int SIZE_OF_DOUBLE = 8;
 
-    private static final Unsafe unsafe;
-
-    static
-    {
-        try
-        {
-            final PrivilegedExceptionAction<Unsafe> action = new PrivilegedExceptionAction<Unsafe>()
-            {
-                public Unsafe run() throws Exception
-                {
-                    final Field f = Unsafe.class.getDeclaredField("theUnsafe");
-                    f.setAccessible(true);
-                    return (Unsafe)f.get(null);
-                }
-            };
-
-            unsafe = AccessController.doPrivileged(action);
-        }
-        catch (Exception e)
-        {
-            throw new RuntimeException(e);
-        }
-    }
-
-    /**
-     * Get the instance of {@link sun.misc.Unsafe}.
-     *
-     * @return the instance of Unsafe
-     */
-    public static Unsafe getUnsafe()
-    {
-        return unsafe;
-    }
-
     /**
      * Fast method of finding the next power of 2 from a given value, including the value.
      *
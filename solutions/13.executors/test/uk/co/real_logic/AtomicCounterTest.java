@@ -94,6 +94,32 @@ public class AtomicCounterTest
         Assert.assertEquals(INITIAL_VALUE, existingValue);
         Assert.assertEquals(INITIAL_VALUE + increment, counter.get());
     }
-}
 
+    @Test
+    public void shouldGetAndSet()
+    {
+        AtomicCounter counter = new AtomicCounter(INITIAL_VALUE);
+        final long testValue = 9L;
+        long existingValue = counter.getAndSet(testValue);
+        Assert.assertEquals(INITIAL_VALUE, existingValue);
+        Assert.assertEquals(testValue, counter.get());
+    }
+
+    @Test
+    public void shouldSetReleaseAndGetAcquire()
+    {
+        AtomicCounter counter = new AtomicCounter(INITIAL_VALUE);
+        final long testValue = 9L;
+        counter.setRelease(testValue);
+        Assert.assertEquals(testValue, counter.getAcquire());
+    }
 
+    @Test
+    public void shouldSetOpaqueAndGetOpaque()
+    {
+        AtomicCounter counter = new AtomicCounter(INITIAL_VALUE);
+        final long testValue = 9L;
+        counter.setOpaque(testValue);
+        Assert.assertEquals(testValue, counter.getOpaque());
+    }
+}
@@ -0,0 +1,173 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class BlockingQueueAdapterTest
+{
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final BlockingQueueAdapter<Integer> queue =
+        new BlockingQueueAdapter<Integer>(new ManyToManyConcurrentArrayQueue<Integer>(QUEUE_CAPACITY),
+                                          new ParkingStrategy(TimeUnit.MICROSECONDS.toNanos(100)));
+
+    @Test
+    public void shouldTimeoutOfferWhenFullAndPollWhenEmpty() throws Exception
+    {
+        Assert.assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+
+        for (int i = 0; i < QUEUE_CAPACITY; i++)
+        {
+            queue.put(Integer.valueOf(i));
+        }
+        Assert.assertEquals(0, queue.remainingCapacity());
+        Assert.assertFalse(queue.offer(Integer.valueOf(QUEUE_CAPACITY), 1, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(Integer.valueOf(0), queue.poll(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldPutAndTakeBetweenThreads() throws Exception
+    {
+        final BlockingQueueAdapter<Integer> yieldingQueue =
+            new BlockingQueueAdapter<Integer>(new ManyToManyConcurrentArrayQueue<Integer>(QUEUE_CAPACITY),
+                                              new YieldingStrategy());
+        final int count = 10 * 1000;
+        final Thread producer = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    for (int i = 0; i < count; i++)
+                    {
+                        yieldingQueue.put(Integer.valueOf(i));
+                    }
+                }
+                catch (final InterruptedException ignore)
+                {
+                }
+            }
+        });
+        producer.start();
+
+        for (int i = 0; i < count; i++)
+        {
+            Assert.assertEquals(Integer.valueOf(i), yieldingQueue.take());
+        }
+
+        producer.join();
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void shouldThrowWhenInterruptedWhileTaking() throws Exception
+    {
+        Thread.currentThread().interrupt();
+        queue.take();
+    }
+
+    @Test
+    public void shouldDrainToCollectionUpToMaxElements()
+    {
+        queue.addAll(Arrays.asList(1, 2, 3, 4));
+
+        final List<Integer> drained = new ArrayList<Integer>();
+        Assert.assertEquals(3, queue.drainTo(drained, 3));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), drained);
+
+        Assert.assertEquals(1, queue.drainTo(drained));
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4), drained);
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldServeAsWorkQueueForJucThreadPoolExecutor() throws Exception
+    {
+        final BlockingQueueAdapter<Runnable> workQueue =
+            new BlockingQueueAdapter<Runnable>(new ManyToManyConcurrentArrayQueue<Runnable>(1024));
+        final java.util.concurrent.ThreadPoolExecutor executor =
+            new java.util.concurrent.ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, workQueue);
+
+        final int taskCount = 100;
+        final CountDownLatch latch = new CountDownLatch(taskCount);
+        for (int i = 0; i < taskCount; i++)
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    latch.countDown();
+                }
+            });
+        }
+
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldSupportRemoveAndPurgeAndShutdownNowOfJucThreadPoolExecutor() throws Exception
+    {
+        final BlockingQueueAdapter<Runnable> workQueue =
+            new BlockingQueueAdapter<Runnable>(new ManyToManyConcurrentArrayQueue<Runnable>(16));
+        final java.util.concurrent.ThreadPoolExecutor executor =
+            new java.util.concurrent.ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, workQueue);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(new Runnable()
+        {
+            public void run()
+            {
+                started.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch (final InterruptedException ignore)
+                {
+                }
+            }
+        });
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < 4; i++)
+        {
+            final Runnable task = new Runnable()
+            {
+                public void run()
+                {
+                }
+            };
+            tasks.add(task);
+            executor.execute(task);
+        }
+
+        Assert.assertTrue(executor.remove(tasks.get(0)));
+        Assert.assertFalse(executor.remove(tasks.get(0)));
+
+        final Future<?> cancelled = executor.submit(new Runnable()
+        {
+            public void run()
+            {
+            }
+        });
+        Assert.assertTrue(cancelled.cancel(false));
+        executor.purge();
+        Assert.assertEquals(3, executor.getQueue().toArray().length);
+
+        final List<Runnable> pending = executor.shutdownNow();
+        Assert.assertEquals(tasks.subList(1, 4), pending);
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertTrue(workQueue.isEmpty());
+    }
+}
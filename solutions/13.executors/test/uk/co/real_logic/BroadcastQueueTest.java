@@ -0,0 +1,172 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BroadcastQueueTest
+{
+    private static final int CAPACITY = 4;
+
+    @Test
+    public void shouldDeliverEveryElementToEverySubscriber()
+    {
+        final BroadcastQueue<Integer> queue = new BroadcastQueue<Integer>(CAPACITY, BroadcastMode.BACK_PRESSURE);
+        final BroadcastSubscriber<Integer> subscriberOne = queue.subscribe();
+        final BroadcastSubscriber<Integer> subscriberTwo = queue.subscribe();
+
+        Assert.assertTrue(queue.offer(Integer.valueOf(1)));
+        Assert.assertTrue(queue.offer(Integer.valueOf(2)));
+
+        Assert.assertEquals(2, subscriberOne.size());
+        Assert.assertEquals(Integer.valueOf(1), subscriberOne.poll());
+        Assert.assertEquals(Integer.valueOf(2), subscriberOne.poll());
+        Assert.assertNull(subscriberOne.poll());
+
+        final List<Integer> received = new ArrayList<Integer>();
+        Assert.assertEquals(2, subscriberTwo.drain(newCollectingHandler(received), Integer.MAX_VALUE));
+        Assert.assertEquals(Integer.valueOf(1), received.get(0));
+        Assert.assertEquals(Integer.valueOf(2), received.get(1));
+    }
+
+    @Test
+    public void shouldApplyBackPressureFromSlowestSubscriber()
+    {
+        final BroadcastQueue<Integer> queue = new BroadcastQueue<Integer>(CAPACITY, BroadcastMode.BACK_PRESSURE);
+        final BroadcastSubscriber<Integer> fast = queue.subscribe();
+        final BroadcastSubscriber<Integer> slow = queue.subscribe();
+
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+            Assert.assertEquals(Integer.valueOf(i), fast.poll());
+        }
+
+        Assert.assertFalse(queue.offer(Integer.valueOf(CAPACITY)));
+
+        Assert.assertEquals(Integer.valueOf(0), slow.poll());
+        Assert.assertTrue(queue.offer(Integer.valueOf(CAPACITY)));
+        Assert.assertFalse(queue.offer(Integer.valueOf(CAPACITY + 1)));
+
+        slow.close();
+        Assert.assertTrue(queue.offer(Integer.valueOf(CAPACITY + 1)));
+    }
+
+    @Test
+    public void shouldDetectLappedSubscriberAndSkipForwardWhenLossy()
+    {
+        final BroadcastQueue<Integer> queue = new BroadcastQueue<Integer>(CAPACITY, BroadcastMode.LOSSY);
+        final BroadcastSubscriber<Integer> subscriber = queue.subscribe();
+
+        for (int i = 0; i < CAPACITY * 2 + 1; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+        }
+
+        Assert.assertNull(subscriber.poll());
+        Assert.assertEquals(1, subscriber.getLappedCount());
+        Assert.assertEquals(queue.getTail(), subscriber.getSequence());
+
+        Assert.assertTrue(queue.offer(Integer.valueOf(100)));
+        Assert.assertEquals(Integer.valueOf(100), subscriber.poll());
+    }
+
+    @Test
+    public void shouldOnlyReceiveElementsOfferedAfterSubscribing()
+    {
+        final BroadcastQueue<Integer> queue = new BroadcastQueue<Integer>(CAPACITY, BroadcastMode.BACK_PRESSURE);
+        Assert.assertTrue(queue.offer(Integer.valueOf(1)));
+
+        final BroadcastSubscriber<Integer> subscriber = queue.subscribe();
+        Assert.assertNull(subscriber.poll());
+
+        Assert.assertTrue(queue.offer(Integer.valueOf(2)));
+        Assert.assertEquals(Integer.valueOf(2), subscriber.poll());
+    }
+
+    @Test
+    public void shouldBroadcastFromManyProducersToManySubscribers() throws Exception
+    {
+        final int numProducers = 2;
+        final int numSubscribers = 2;
+        final int repetitions = 10 * 1000;
+        final BroadcastQueue<Integer> queue = new BroadcastQueue<Integer>(64, BroadcastMode.BACK_PRESSURE);
+
+        final long[] sums = new long[numSubscribers];
+        final Thread[] subscriberThreads = new Thread[numSubscribers];
+        for (int i = 0; i < numSubscribers; i++)
+        {
+            final int id = i;
+            final BroadcastSubscriber<Integer> subscriber = queue.subscribe();
+            subscriberThreads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    int received = 0;
+                    while (received < numProducers * repetitions)
+                    {
+                        final Integer value = subscriber.poll();
+                        if (null == value)
+                        {
+                            Thread.yield();
+                            continue;
+                        }
+
+                        sums[id] += value.intValue();
+                        ++received;
+                    }
+                }
+            });
+            subscriberThreads[i].start();
+        }
+
+        final Thread[] producerThreads = new Thread[numProducers];
+        for (int i = 0; i < numProducers; i++)
+        {
+            producerThreads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    for (int j = 0; j < repetitions; j++)
+                    {
+                        final Integer value = Integer.valueOf(j);
+                        while (!queue.offer(value))
+                        {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            producerThreads[i].start();
+        }
+
+        for (final Thread thread : producerThreads)
+        {
+            thread.join();
+        }
+
+        for (final Thread thread : subscriberThreads)
+        {
+            thread.join();
+        }
+
+        final long expectedSum = numProducers * (((long)repetitions * (repetitions - 1)) / 2);
+        for (final long sum : sums)
+        {
+            Assert.assertEquals(expectedSum, sum);
+        }
+    }
+
+    private static ElementHandler<Integer> newCollectingHandler(final List<Integer> received)
+    {
+        return new ElementHandler<Integer>()
+        {
+            public void onElement(final Integer element)
+            {
+                received.add(element);
+            }
+        };
+    }
+}
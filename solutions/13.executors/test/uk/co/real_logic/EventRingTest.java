@@ -0,0 +1,161 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EventRingTest
+{
+    private static final int CAPACITY = 16;
+
+    private static final EventFactory<ValueEvent> EVENT_FACTORY = new EventFactory<ValueEvent>()
+    {
+        public ValueEvent newInstance()
+        {
+            return new ValueEvent();
+        }
+    };
+
+    private final EventRing<ValueEvent> eventRing =
+        new EventRing<ValueEvent>(EVENT_FACTORY, CAPACITY, new YieldingStrategy());
+
+    @Test
+    public void shouldReuseTheSamePreallocatedEvents()
+    {
+        final ValueEvent first = eventRing.get(0);
+        Assert.assertSame(first, eventRing.get(CAPACITY));
+        Assert.assertNotSame(first, eventRing.get(1));
+    }
+
+    @Test
+    public void shouldGateDependentProcessorOnUpstreamSequence()
+    {
+        final RecordingHandler journalHandler = new RecordingHandler();
+        final RecordingHandler logicHandler = new RecordingHandler();
+        final EventProcessor<ValueEvent> journal = new EventProcessor<ValueEvent>(eventRing, journalHandler);
+        final EventProcessor<ValueEvent> logic =
+            new EventProcessor<ValueEvent>(eventRing, logicHandler, journal.getSequence());
+        eventRing.addGatingSequences(logic.getSequence());
+
+        publish(3);
+
+        Assert.assertEquals(0, logic.processAvailable());
+        Assert.assertEquals(3, journal.processAvailable());
+        Assert.assertEquals(3, logic.processAvailable());
+        Assert.assertEquals(2L, logic.getSequence().get());
+        Assert.assertEquals(3, logicHandler.count);
+        Assert.assertEquals(3L, logicHandler.sum);
+    }
+
+    @Test
+    public void shouldNotWrapOverUnprocessedEvents()
+    {
+        final EventProcessor<ValueEvent> processor = new EventProcessor<ValueEvent>(eventRing, new RecordingHandler());
+        eventRing.addGatingSequences(processor.getSequence());
+
+        publish(CAPACITY);
+        Assert.assertEquals(EventRing.INITIAL_SEQUENCE, eventRing.tryNext());
+
+        Assert.assertEquals(CAPACITY, processor.processAvailable());
+        Assert.assertEquals(CAPACITY, eventRing.tryNext());
+    }
+
+    @Test
+    public void shouldPassExceptionsToHandlerAndContinue()
+    {
+        final Object[] failedEvent = new Object[1];
+        final EventProcessor<ValueEvent> processor = new EventProcessor<ValueEvent>(
+            eventRing,
+            new EventHandler<ValueEvent>()
+            {
+                public void onEvent(final ValueEvent event, final long sequence, final boolean endOfBatch)
+                {
+                    if (1 == sequence)
+                    {
+                        throw new IllegalStateException("bad event");
+                    }
+                }
+            },
+            new ExceptionHandler()
+            {
+                public void handle(final Throwable t, final Object event)
+                {
+                    failedEvent[0] = event;
+                }
+            },
+            new YieldingStrategy());
+
+        publish(3);
+
+        Assert.assertEquals(3, processor.processAvailable());
+        Assert.assertSame(eventRing.get(1), failedEvent[0]);
+    }
+
+    @Test
+    public void shouldProcessEventsThroughDiamondOfProcessors() throws Exception
+    {
+        final int count = 10 * 1000;
+        final RecordingHandler journalHandler = new RecordingHandler();
+        final RecordingHandler replicateHandler = new RecordingHandler();
+        final RecordingHandler logicHandler = new RecordingHandler();
+
+        final EventProcessor<ValueEvent> journal = new EventProcessor<ValueEvent>(eventRing, journalHandler);
+        final EventProcessor<ValueEvent> replicate = new EventProcessor<ValueEvent>(eventRing, replicateHandler);
+        final EventProcessor<ValueEvent> logic = new EventProcessor<ValueEvent>(
+            eventRing, logicHandler, journal.getSequence(), replicate.getSequence());
+        eventRing.addGatingSequences(logic.getSequence());
+
+        final Thread[] threads = {new Thread(journal), new Thread(replicate), new Thread(logic)};
+        for (final Thread thread : threads)
+        {
+            thread.start();
+        }
+
+        publish(count);
+
+        while (logic.getSequence().get() < count - 1)
+        {
+            Thread.yield();
+        }
+
+        journal.halt();
+        replicate.halt();
+        logic.halt();
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        final long expectedSum = ((long)count * (count - 1)) / 2;
+        Assert.assertEquals(expectedSum, journalHandler.sum);
+        Assert.assertEquals(expectedSum, replicateHandler.sum);
+        Assert.assertEquals(expectedSum, logicHandler.sum);
+        Assert.assertEquals(count, logicHandler.count);
+    }
+
+    private void publish(final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final long sequence = eventRing.next();
+            eventRing.get(sequence).value = i;
+            eventRing.publish(sequence);
+        }
+    }
+
+    private static final class ValueEvent
+    {
+        private long value;
+    }
+
+    private static final class RecordingHandler implements EventHandler<ValueEvent>
+    {
+        private int count;
+        private long sum;
+
+        public void onEvent(final ValueEvent event, final long sequence, final boolean endOfBatch)
+        {
+            ++count;
+            sum += event.value;
+        }
+    }
+}
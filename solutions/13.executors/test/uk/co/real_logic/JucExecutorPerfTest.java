@@ -26,6 +26,7 @@ public class JucExecutorPerfTest
     private static final int NUM_PRODUCERS = 2;
     private static final int THREAD_POOL_SIZE = 2;
     private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int SAMPLE_INTERVAL = 1000;
 
     private final LinkedBlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>();
 
@@ -64,11 +65,12 @@ public class JucExecutorPerfTest
     private void perfRun(final int runNum, final Executor executor)
         throws Exception
     {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
         final Thread[] producerThreads = new Thread[NUM_PRODUCERS];
         final CyclicBarrier barrier = new CyclicBarrier(NUM_PRODUCERS + 1);
         for (int i = 0; i < NUM_PRODUCERS; i++)
         {
-            producerThreads[i] = new Thread(new Producer(executor, barrier));
+            producerThreads[i] = new Thread(new Producer(executor, barrier, histogram));
             producerThreads[i].start();
         }
 
@@ -94,6 +96,7 @@ public class JucExecutorPerfTest
                           Integer.valueOf(THREAD_POOL_SIZE),
                           Long.valueOf(opsPerSec),
                           this.getClass().getSimpleName());
+        histogram.snapshot().printSummary(System.out, "    task latency ns:");
     }
 
     private static class NoOpTask implements Runnable
@@ -104,15 +107,33 @@ public class JucExecutorPerfTest
         }
     }
 
+    private static class LatencyTask implements Runnable
+    {
+        private final long startNs = System.nanoTime();
+        private final ConcurrentHistogram histogram;
+
+        private LatencyTask(final ConcurrentHistogram histogram)
+        {
+            this.histogram = histogram;
+        }
+
+        public void run()
+        {
+            histogram.recordValue(System.nanoTime() - startNs);
+        }
+    }
+
     private static class Producer implements Runnable
     {
         private final Executor executor;
         private final CyclicBarrier barrier;
+        private final ConcurrentHistogram histogram;
 
-        private Producer(final Executor executor, final CyclicBarrier barrier)
+        private Producer(final Executor executor, final CyclicBarrier barrier, final ConcurrentHistogram histogram)
         {
             this.executor = executor;
             this.barrier = barrier;
+            this.histogram = histogram;
         }
 
         public void run()
@@ -129,7 +150,7 @@ public class JucExecutorPerfTest
             int i = REPETITIONS + 1;
             while (0 != --i)
             {
-                executor.execute(dummyTask);
+                executor.execute(0 == i % SAMPLE_INTERVAL ? new LatencyTask(histogram) : dummyTask);
             }
         }
     }
@@ -0,0 +1,325 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+public class ManyToManyConcurrentArrayQueueTest
+{
+    private static final int QUEUE_CAPACITY = 8;
+
+    private final ManyToManyConcurrentArrayQueue<Integer> queue =
+        new ManyToManyConcurrentArrayQueue<Integer>(QUEUE_CAPACITY);
+
+    @Test
+    public void shouldOfferBatchFromArrayRange()
+    {
+        final Integer[] src = {0, 1, 2, 3, 4, 5};
+
+        Assert.assertTrue(queue.offer(src, 1, 4));
+        Assert.assertEquals(4, queue.size());
+
+        for (int i = 1; i <= 4; i++)
+        {
+            Assert.assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void shouldOfferBatchFromCollection()
+    {
+        Assert.assertTrue(queue.offer(7));
+        Assert.assertTrue(queue.offerAll(Arrays.asList(8, 9, 10)));
+
+        final List<Integer> drained = new ArrayList<Integer>();
+        queue.drain(new ElementHandler<Integer>()
+        {
+            public void onElement(final Integer element)
+            {
+                drained.add(element);
+            }
+        });
+
+        Assert.assertEquals(Arrays.asList(7, 8, 9, 10), drained);
+    }
+
+    @Test
+    public void shouldNotOfferBatchLargerThanRemainingCapacity()
+    {
+        final Integer[] src = {0, 1, 2, 3, 4, 5};
+
+        Assert.assertTrue(queue.offer(src, 0, src.length));
+        Assert.assertFalse(queue.offer(src, 0, 3));
+        Assert.assertEquals(src.length, queue.size());
+
+        queue.poll();
+        Assert.assertTrue(queue.offer(src, 0, 3));
+        Assert.assertEquals(QUEUE_CAPACITY, queue.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBatchLargerThanCapacity()
+    {
+        final Integer[] src = new Integer[QUEUE_CAPACITY + 1];
+        Arrays.fill(src, 7);
+
+        queue.offer(src, 0, src.length);
+    }
+
+    @Test
+    public void shouldRejectBatchRangeOutsideArrayWithoutClaimingSlots()
+    {
+        final Integer[] src = {0, 1, 2, 3};
+        final int[][] ranges = {{0, -1}, {-1, 2}, {3, 2}, {5, 0}};
+
+        for (final int[] range : ranges)
+        {
+            try
+            {
+                queue.offer(src, range[0], range[1]);
+                Assert.fail("expected IndexOutOfBoundsException");
+            }
+            catch (final IndexOutOfBoundsException ignore)
+            {
+            }
+        }
+
+        Assert.assertEquals(0, queue.getAddedCount());
+    }
+
+    @Test
+    public void shouldRejectBatchContainingNullWithoutClaimingSlots()
+    {
+        try
+        {
+            queue.offerAll(Arrays.asList(1, null, 3));
+            Assert.fail("expected NullPointerException");
+        }
+        catch (final NullPointerException ignore)
+        {
+        }
+
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(0, queue.getAddedCount());
+    }
+
+    @Test
+    public void shouldOfferTheSnapshotOfBatchThatWasChecked()
+    {
+        final Collection<Integer> changing = new AbstractCollection<Integer>()
+        {
+            private int iterations;
+
+            public Iterator<Integer> iterator()
+            {
+                // a second pass sees a shorter batch holding a null
+                return 0 == iterations++ ? Arrays.asList(1, 2, 3).iterator() : Arrays.asList(1, null).iterator();
+            }
+
+            public int size()
+            {
+                return 0 == iterations ? 3 : 2;
+            }
+        };
+
+        Assert.assertTrue(queue.offerAll(changing));
+
+        Assert.assertEquals(3, queue.getAddedCount());
+        Assert.assertEquals(Integer.valueOf(1), queue.poll());
+        Assert.assertEquals(Integer.valueOf(2), queue.poll());
+        Assert.assertEquals(Integer.valueOf(3), queue.poll());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void shouldDrainBatchUpToLimit()
+    {
+        Assert.assertTrue(queue.offerAll(Arrays.asList(1, 2, 3, 4, 5)));
+
+        final List<Integer> drained = new ArrayList<Integer>();
+        final ElementHandler<Integer> handler = new ElementHandler<Integer>()
+        {
+            public void onElement(final Integer element)
+            {
+                drained.add(element);
+            }
+        };
+
+        Assert.assertEquals(3, queue.drain(handler, 3));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), drained);
+        Assert.assertEquals(2, queue.size());
+
+        Assert.assertEquals(2, queue.drain(handler, 3));
+        Assert.assertEquals(0, queue.drain(handler, 3));
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), drained);
+    }
+
+    @Test
+    public void shouldReleaseWholeBatchWhenHandlerThrows()
+    {
+        Assert.assertTrue(queue.offerAll(Arrays.asList(1, 2, 3)));
+
+        final List<Integer> drained = new ArrayList<Integer>();
+        try
+        {
+            queue.drain(new ElementHandler<Integer>()
+            {
+                public void onElement(final Integer element)
+                {
+                    drained.add(element);
+                    if (1 == element.intValue())
+                    {
+                        throw new IllegalStateException();
+                    }
+                }
+            });
+            Assert.fail("expected IllegalStateException");
+        }
+        catch (final IllegalStateException ignore)
+        {
+        }
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3), drained);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertTrue(queue.offerAll(Arrays.asList(4, 5, 6, 7, 8, 9, 10, 11)));
+    }
+
+    @Test
+    public void shouldReleaseRemainingBatchWhenHandlerThrowsError()
+    {
+        Assert.assertTrue(queue.offerAll(Arrays.asList(1, 2, 3)));
+
+        final List<Integer> drained = new ArrayList<Integer>();
+        try
+        {
+            queue.drain(new ElementHandler<Integer>()
+            {
+                public void onElement(final Integer element)
+                {
+                    drained.add(element);
+                    throw new AssertionError();
+                }
+            });
+            Assert.fail("expected AssertionError");
+        }
+        catch (final AssertionError ignore)
+        {
+        }
+
+        Assert.assertEquals(Arrays.asList(1), drained);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertTrue(queue.offerAll(Arrays.asList(4, 5, 6, 7, 8, 9, 10, 11)));
+    }
+
+    @Test
+    public void shouldRemoveElementsAndSkipThemWhenConsuming()
+    {
+        Assert.assertTrue(queue.offerAll(Arrays.asList(1, 2, 3, 4, 5)));
+
+        Assert.assertTrue(queue.remove(Integer.valueOf(1)));
+        Assert.assertTrue(queue.remove(Integer.valueOf(3)));
+        Assert.assertFalse(queue.remove(Integer.valueOf(3)));
+        Assert.assertFalse(queue.contains(Integer.valueOf(3)));
+        Assert.assertEquals(1L, queue.getRemovedCount());
+        Assert.assertEquals(Integer.valueOf(2), queue.peek());
+        Assert.assertArrayEquals(new Object[]{2, 4, 5}, queue.toArray());
+
+        Assert.assertEquals(Integer.valueOf(2), queue.poll());
+        Assert.assertEquals(Integer.valueOf(4), queue.poll());
+
+        final List<Integer> drained = new ArrayList<Integer>();
+        Assert.assertTrue(queue.offerAll(Arrays.asList(6, 7)));
+        Assert.assertTrue(queue.remove(Integer.valueOf(5)));
+        Assert.assertTrue(queue.remove(Integer.valueOf(6)));
+        Assert.assertEquals(1, queue.drain(new ElementHandler<Integer>()
+        {
+            public void onElement(final Integer element)
+            {
+                drained.add(element);
+            }
+        }, 3));
+        Assert.assertEquals(Arrays.asList(7), drained);
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldEitherConsumeOrRemoveElementRacedFor() throws Exception
+    {
+        final int repetitions = 10000;
+        final int[] consumed = new int[1];
+        final Thread consumer = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                for (int i = 0; i < repetitions; i++)
+                {
+                    Integer e;
+                    while (null == (e = queue.poll()))
+                    {
+                        Thread.yield();
+                    }
+
+                    if (e.intValue() >= 0)
+                    {
+                        consumed[0]++;
+                    }
+                }
+            }
+        });
+
+        int removed = 0;
+        consumer.start();
+        for (int i = 0; i < repetitions; i++)
+        {
+            offer(Integer.valueOf(i));
+            if (queue.remove(Integer.valueOf(i)))
+            {
+                // keep the consumer's count of elements whole
+                removed++;
+                offer(Integer.valueOf(-1));
+            }
+        }
+
+        consumer.join();
+
+        Assert.assertEquals(repetitions, consumed[0] + removed);
+    }
+
+    private void offer(final Integer e)
+    {
+        while (!queue.offer(e))
+        {
+            Thread.yield();
+        }
+    }
+
+    @Test
+    public void shouldIterateOverSnapshotAndRemoveThroughIterator()
+    {
+        Assert.assertTrue(queue.offerAll(Arrays.asList(1, 2, 3)));
+
+        final List<Integer> iterated = new ArrayList<Integer>();
+        for (final Iterator<Integer> iterator = queue.iterator(); iterator.hasNext(); )
+        {
+            final Integer element = iterator.next();
+            iterated.add(element);
+            if (2 == element.intValue())
+            {
+                iterator.remove();
+            }
+        }
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3), iterated);
+        Assert.assertArrayEquals(new Integer[]{1, 3}, queue.toArray(new Integer[0]));
+        Assert.assertEquals(Integer.valueOf(1), queue.poll());
+        Assert.assertEquals(Integer.valueOf(3), queue.poll());
+        Assert.assertNull(queue.poll());
+    }
+}
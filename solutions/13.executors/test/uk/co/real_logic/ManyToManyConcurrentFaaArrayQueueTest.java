@@ -0,0 +1,197 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ManyToManyConcurrentFaaArrayQueueTest
+{
+    private static final int CAPACITY = 8;
+
+    private final ManyToManyConcurrentFaaArrayQueue<Integer> queue =
+        new ManyToManyConcurrentFaaArrayQueue<Integer>(CAPACITY);
+
+    @Test
+    public void shouldOfferAndPollInOrder()
+    {
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+        }
+
+        Assert.assertFalse(queue.offer(Integer.valueOf(CAPACITY)));
+        Assert.assertEquals(CAPACITY, queue.size());
+        Assert.assertEquals(Integer.valueOf(0), queue.peek());
+
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertEquals(Integer.valueOf(i), queue.poll());
+        }
+
+        Assert.assertNull(queue.poll());
+        Assert.assertEquals(CAPACITY, queue.getAddedCount());
+        Assert.assertEquals(CAPACITY, queue.getRemovedCount());
+    }
+
+    @Test
+    public void shouldReuseSlotsOnTheNextLap()
+    {
+        for (int lap = 0; lap < 3; lap++)
+        {
+            for (int i = 0; i < CAPACITY; i++)
+            {
+                Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+            }
+
+            for (int i = 0; i < CAPACITY; i++)
+            {
+                Assert.assertEquals(Integer.valueOf(i), queue.poll());
+            }
+        }
+    }
+
+    @Test
+    public void shouldRoundCapacityOfOneUpToTwo()
+    {
+        final ManyToManyConcurrentFaaArrayQueue<Integer> queue = new ManyToManyConcurrentFaaArrayQueue<Integer>(1);
+        Assert.assertEquals(2, queue.getCapacity());
+
+        for (int lap = 0; lap < 3; lap++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(lap)));
+            Assert.assertTrue(queue.offer(Integer.valueOf(lap + 1)));
+            Assert.assertFalse(queue.offer(Integer.valueOf(lap + 2)));
+
+            Assert.assertEquals(Integer.valueOf(lap), queue.poll());
+            Assert.assertEquals(Integer.valueOf(lap + 1), queue.poll());
+            Assert.assertNull(queue.poll());
+        }
+    }
+
+    @Test
+    public void shouldDrainUpToLimit()
+    {
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            queue.offer(Integer.valueOf(i));
+        }
+
+        final AtomicLong sum = new AtomicLong();
+        final ElementHandler<Integer> handler = new ElementHandler<Integer>()
+        {
+            public void onElement(final Integer element)
+            {
+                sum.addAndGet(element.intValue());
+            }
+        };
+
+        Assert.assertEquals(3, queue.drain(handler, 3));
+        Assert.assertEquals(3L, sum.get());
+        Assert.assertEquals(CAPACITY - 3, queue.drain(handler));
+        Assert.assertEquals((CAPACITY * (CAPACITY - 1)) / 2, sum.get());
+        Assert.assertEquals(0, queue.drain(handler));
+    }
+
+    @Test
+    public void shouldExchangeElementsBetweenManyProducersAndConsumers() throws Exception
+    {
+        final int numProducers = 3;
+        final int numConsumers = 2;
+        final int repetitions = 10 * 1000;
+        final int total = numProducers * repetitions;
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong received = new AtomicLong();
+
+        final Thread[] threads = new Thread[numProducers + numConsumers];
+        for (int i = 0; i < numProducers; i++)
+        {
+            threads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    for (int j = 0; j < repetitions; j++)
+                    {
+                        final Integer value = Integer.valueOf(j);
+                        while (!queue.offer(value))
+                        {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+        }
+
+        for (int i = numProducers; i < threads.length; i++)
+        {
+            threads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    while (received.get() < total)
+                    {
+                        final Integer value = queue.poll();
+                        if (null == value)
+                        {
+                            Thread.yield();
+                            continue;
+                        }
+
+                        sum.addAndGet(value.intValue());
+                        received.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.start();
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        Assert.assertEquals(total, received.get());
+        Assert.assertEquals(numProducers * (((long)repetitions * (repetitions - 1)) / 2), sum.get());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldReleaseRemainingBatchWhenHandlerThrowsError()
+    {
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+        }
+
+        final AtomicLong delivered = new AtomicLong();
+        try
+        {
+            queue.drain(new ElementHandler<Integer>()
+            {
+                public void onElement(final Integer element)
+                {
+                    delivered.incrementAndGet();
+                    throw new AssertionError();
+                }
+            });
+            Assert.fail("expected AssertionError");
+        }
+        catch (final AssertionError ignore)
+        {
+        }
+
+        Assert.assertEquals(1L, delivered.get());
+        Assert.assertNull(queue.poll());
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+        }
+    }
+}
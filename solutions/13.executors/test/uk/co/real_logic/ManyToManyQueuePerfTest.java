@@ -0,0 +1,145 @@
+package uk.co.real_logic;
+
+import java.util.Queue;
+import java.util.concurrent.CyclicBarrier;
+
+public class ManyToManyQueuePerfTest
+{
+    private static final int REPETITIONS = 20 * 1000 * 1000;
+    private static final int NUM_PRODUCERS = 2;
+    private static final int NUM_CONSUMERS = 2;
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int SAMPLE_INTERVAL = 1000;
+    private static final Integer TEST_VALUE = Integer.valueOf(777);
+
+    public static void main(final String[] args)
+        throws Exception
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            System.gc();
+            perfRun(i, new ManyToManyConcurrentArrayQueue<Number>(QUEUE_CAPACITY));
+
+            System.gc();
+            perfRun(i, new ManyToManyConcurrentFaaArrayQueue<Number>(QUEUE_CAPACITY));
+        }
+    }
+
+    private static void perfRun(final int runNum, final Queue<Number> queue)
+        throws Exception
+    {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
+        final CyclicBarrier barrier = new CyclicBarrier(NUM_PRODUCERS + NUM_CONSUMERS + 1);
+        final Thread[] threads = new Thread[NUM_PRODUCERS + NUM_CONSUMERS];
+        for (int i = 0; i < NUM_PRODUCERS; i++)
+        {
+            threads[i] = new Thread(new Producer(queue, barrier));
+        }
+
+        for (int i = NUM_PRODUCERS; i < threads.length; i++)
+        {
+            threads[i] = new Thread(new Consumer(queue, barrier, histogram));
+        }
+
+        for (final Thread t : threads)
+        {
+            t.start();
+        }
+
+        barrier.await();
+        final long start = System.nanoTime();
+
+        for (final Thread t : threads)
+        {
+            t.join();
+        }
+
+        final long duration = System.nanoTime() - start;
+        final long opsPerSec = (REPETITIONS * NUM_PRODUCERS * 1000L * 1000L * 1000L) / duration;
+        System.out.printf("%d - %d producers %d consumers: %,d ops/sec - %s\n",
+                          Integer.valueOf(runNum),
+                          Integer.valueOf(NUM_PRODUCERS),
+                          Integer.valueOf(NUM_CONSUMERS),
+                          Long.valueOf(opsPerSec),
+                          queue.getClass().getSimpleName());
+        histogram.snapshot().printSummary(System.out, "    latency ns:");
+    }
+
+    private static class Producer implements Runnable
+    {
+        private final Queue<Number> queue;
+        private final CyclicBarrier barrier;
+
+        private Producer(final Queue<Number> queue, final CyclicBarrier barrier)
+        {
+            this.queue = queue;
+            this.barrier = barrier;
+        }
+
+        public void run()
+        {
+            try
+            {
+                barrier.await();
+            }
+            catch (Exception ignore)
+            {
+            }
+
+            int i = REPETITIONS + 1;
+            while (0 != --i)
+            {
+                Number value = TEST_VALUE;
+                if (0 == i % SAMPLE_INTERVAL)
+                {
+                    value = Long.valueOf(System.nanoTime());
+                }
+
+                while (!queue.offer(value))
+                {
+                    Thread.yield();
+                }
+            }
+        }
+    }
+
+    private static class Consumer implements Runnable
+    {
+        private final Queue<Number> queue;
+        private final CyclicBarrier barrier;
+        private final ConcurrentHistogram histogram;
+
+        private Consumer(final Queue<Number> queue, final CyclicBarrier barrier, final ConcurrentHistogram histogram)
+        {
+            this.queue = queue;
+            this.barrier = barrier;
+            this.histogram = histogram;
+        }
+
+        public void run()
+        {
+            try
+            {
+                barrier.await();
+            }
+            catch (Exception ignore)
+            {
+            }
+
+            int i = ((REPETITIONS * NUM_PRODUCERS) / NUM_CONSUMERS) + 1;
+            while (0 != --i)
+            {
+                Number value;
+                while (null == (value = queue.poll()))
+                {
+                    Thread.yield();
+                }
+
+                if (value instanceof Long)
+                {
+                    histogram.recordValue(System.nanoTime() - value.longValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueueMetricsTest
+{
+    private static final int CAPACITY = 8;
+
+    private static final ElementHandler<Integer> NO_OP_HANDLER = new ElementHandler<Integer>()
+    {
+        public void onElement(final Integer element)
+        {
+        }
+    };
+
+    private final QueueMetrics metrics = new QueueMetrics();
+
+    @Test
+    public void shouldBucketDrainBatchSizesByPowerOfTwo()
+    {
+        Assert.assertEquals(0, QueueMetrics.drainBatchBucket(1));
+        Assert.assertEquals(1, QueueMetrics.drainBatchBucket(2));
+        Assert.assertEquals(2, QueueMetrics.drainBatchBucket(3));
+        Assert.assertEquals(2, QueueMetrics.drainBatchBucket(4));
+        Assert.assertEquals(3, QueueMetrics.drainBatchBucket(5));
+        Assert.assertEquals(QueueMetrics.DRAIN_BATCH_BUCKETS - 1, QueueMetrics.drainBatchBucket(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldSumCountersRecordedByManyThreads() throws Exception
+    {
+        final int numThreads = 3;
+        final int repetitions = 1000;
+        final Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++)
+        {
+            final int occupancy = i + 1;
+            threads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    for (int j = 0; j < repetitions; j++)
+                    {
+                        metrics.onFailedOffer(1);
+                        metrics.onTailCasRetries(2);
+                        metrics.onHeadCasRetries(3);
+                        metrics.onInFlightSpins(4);
+                        metrics.onDrainBatch(2);
+                    }
+                    metrics.onOccupancy(occupancy);
+                }
+            });
+            threads[i].start();
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        Assert.assertEquals(numThreads * repetitions, metrics.getFailedOfferCount());
+        Assert.assertEquals(2L * numThreads * repetitions, metrics.getTailCasRetryCount());
+        Assert.assertEquals(3L * numThreads * repetitions, metrics.getHeadCasRetryCount());
+        Assert.assertEquals(4L * numThreads * repetitions, metrics.getInFlightSpinCount());
+        Assert.assertEquals(numThreads, metrics.getHighWaterOccupancy());
+        Assert.assertEquals(numThreads * repetitions, metrics.getDrainBatchDistribution()[1]);
+    }
+
+    @Test
+    public void shouldRetireCountersOfExitedThreads() throws Exception
+    {
+        final int numThreads = 50;
+        for (int i = 0; i < numThreads; i++)
+        {
+            final int occupancy = i + 1;
+            final Thread thread = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    metrics.onFailedOffer(1);
+                    metrics.onDrainBatch(2);
+                    metrics.onOccupancy(occupancy);
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+
+        Assert.assertEquals(1, metrics.recorderCount());
+        Assert.assertEquals(numThreads, metrics.getFailedOfferCount());
+        Assert.assertEquals(numThreads, metrics.getDrainBatchDistribution()[1]);
+        Assert.assertEquals(numThreads, metrics.getHighWaterOccupancy());
+    }
+
+    @Test
+    public void shouldRecordFailedOffersOccupancyAndDrainBatches()
+    {
+        final ManyToManyConcurrentArrayQueue<Integer> queue =
+            new ManyToManyConcurrentArrayQueue<Integer>(CAPACITY, metrics);
+        Assert.assertSame(metrics, queue.getMetrics());
+
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+        }
+        Assert.assertFalse(queue.offer(Integer.valueOf(CAPACITY)));
+        Assert.assertFalse(queue.offer(new Integer[]{Integer.valueOf(1)}, 0, 1));
+
+        Assert.assertEquals(3, queue.drain(NO_OP_HANDLER, 3));
+        Assert.assertEquals(CAPACITY - 3, queue.drain(NO_OP_HANDLER));
+
+        Assert.assertEquals(2L, metrics.getFailedOfferCount());
+        Assert.assertEquals(CAPACITY, metrics.getHighWaterOccupancy());
+        Assert.assertEquals(0L, metrics.getTailCasRetryCount());
+        Assert.assertEquals(0L, metrics.getHeadCasRetryCount());
+
+        final long[] distribution = metrics.getDrainBatchDistribution();
+        Assert.assertEquals(1L, distribution[QueueMetrics.drainBatchBucket(3)]);
+        Assert.assertEquals(1L, distribution[QueueMetrics.drainBatchBucket(CAPACITY - 3)]);
+    }
+
+    @Test
+    public void shouldRecordToMetricsFromFaaQueue()
+    {
+        final ManyToManyConcurrentFaaArrayQueue<Integer> queue =
+            new ManyToManyConcurrentFaaArrayQueue<Integer>(CAPACITY, metrics);
+
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+        }
+        Assert.assertFalse(queue.offer(Integer.valueOf(CAPACITY)));
+        Assert.assertEquals(CAPACITY, queue.drain(NO_OP_HANDLER, CAPACITY));
+
+        Assert.assertEquals(1L, metrics.getFailedOfferCount());
+        Assert.assertEquals(CAPACITY, metrics.getHighWaterOccupancy());
+        Assert.assertEquals(1L, metrics.getDrainBatchDistribution()[QueueMetrics.drainBatchBucket(CAPACITY)]);
+    }
+
+    @Test
+    public void shouldNotRecordWithoutMetrics()
+    {
+        final ManyToManyConcurrentArrayQueue<Integer> queue = new ManyToManyConcurrentArrayQueue<Integer>(CAPACITY);
+        Assert.assertNull(queue.getMetrics());
+        Assert.assertTrue(queue.offer(Integer.valueOf(1)));
+        Assert.assertEquals(Integer.valueOf(1), queue.poll());
+    }
+}
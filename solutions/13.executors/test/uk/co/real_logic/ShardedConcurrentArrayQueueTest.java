@@ -0,0 +1,187 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ShardedConcurrentArrayQueueTest
+{
+    private static final int SHARD_COUNT = 4;
+    private static final int CAPACITY = 16;
+
+    private final ShardedConcurrentArrayQueue<Integer> queue =
+        new ShardedConcurrentArrayQueue<Integer>(CAPACITY, SHARD_COUNT);
+
+    @Test
+    public void shouldDivideCapacityBetweenShards()
+    {
+        Assert.assertEquals(SHARD_COUNT, queue.getShardCount());
+        Assert.assertEquals(CAPACITY, queue.getCapacity());
+        Assert.assertEquals(CAPACITY, new ShardedConcurrentArrayQueue<Integer>(CAPACITY, 3).getCapacity());
+        Assert.assertEquals(2 * CAPACITY,
+                            new ShardedConcurrentArrayQueue<Integer>(CAPACITY + 1, SHARD_COUNT).getCapacity());
+    }
+
+    @Test
+    public void shouldSpillIntoOtherShardsWhenHomeShardIsFull()
+    {
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+        }
+
+        Assert.assertFalse(queue.offer(Integer.valueOf(CAPACITY)));
+        Assert.assertEquals(CAPACITY, queue.size());
+        Assert.assertEquals(0, queue.getRemainingCapacity());
+        Assert.assertEquals(CAPACITY, queue.getAddedCount());
+        Assert.assertTrue(queue.contains(Integer.valueOf(CAPACITY - 1)));
+    }
+
+    @Test
+    public void shouldStealFromOtherShardsWhenHomeShardIsEmpty() throws Exception
+    {
+        final Runnable offerToHomeShard = new Runnable()
+        {
+            public void run()
+            {
+                for (int i = 0; i < CAPACITY / SHARD_COUNT; i++)
+                {
+                    queue.offer(Integer.valueOf(i));
+                }
+            }
+        };
+
+        final long homeShard = Thread.currentThread().getId() & (SHARD_COUNT - 1);
+        Thread producer;
+        do
+        {
+            producer = new Thread(offerToHomeShard);
+        }
+        while ((producer.getId() & (SHARD_COUNT - 1)) == homeShard);
+
+        producer.start();
+        producer.join();
+
+        int count = 0;
+        while (null != queue.poll())
+        {
+            ++count;
+        }
+
+        Assert.assertEquals(CAPACITY / SHARD_COUNT, count);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(queue.getAddedCount(), queue.getRemovedCount());
+    }
+
+    @Test
+    public void shouldDrainUpToLimitAcrossShards()
+    {
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            queue.offer(Integer.valueOf(i));
+        }
+
+        final AtomicLong sum = new AtomicLong();
+        final ElementHandler<Integer> handler = new ElementHandler<Integer>()
+        {
+            public void onElement(final Integer element)
+            {
+                sum.addAndGet(element.intValue());
+            }
+        };
+
+        Assert.assertEquals(CAPACITY - 1, queue.drain(handler, CAPACITY - 1));
+        Assert.assertEquals(1, queue.drain(handler));
+        Assert.assertEquals((CAPACITY * (CAPACITY - 1)) / 2, sum.get());
+    }
+
+    @Test
+    public void shouldExchangeElementsBetweenManyProducersAndConsumers() throws Exception
+    {
+        final int numProducers = 3;
+        final int numConsumers = 2;
+        final int repetitions = 10 * 1000;
+        final int total = numProducers * repetitions;
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong received = new AtomicLong();
+
+        final Thread[] threads = new Thread[numProducers + numConsumers];
+        for (int i = 0; i < numProducers; i++)
+        {
+            threads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    for (int j = 0; j < repetitions; j++)
+                    {
+                        final Integer value = Integer.valueOf(j);
+                        while (!queue.offer(value))
+                        {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+        }
+
+        for (int i = numProducers; i < threads.length; i++)
+        {
+            threads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    while (received.get() < total)
+                    {
+                        final Integer value = queue.poll();
+                        if (null == value)
+                        {
+                            Thread.yield();
+                            continue;
+                        }
+
+                        sum.addAndGet(value.intValue());
+                        received.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.start();
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        Assert.assertEquals(total, received.get());
+        Assert.assertEquals(numProducers * (((long)repetitions * (repetitions - 1)) / 2), sum.get());
+    }
+
+    @Test
+    public void shouldRemoveFromAnyShard()
+    {
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+        }
+
+        Assert.assertEquals(CAPACITY, queue.toArray().length);
+        for (int i = 0; i < CAPACITY; i += 2)
+        {
+            Assert.assertTrue(queue.remove(Integer.valueOf(i)));
+        }
+        Assert.assertFalse(queue.remove(Integer.valueOf(0)));
+
+        long sum = 0;
+        for (final Integer element : queue)
+        {
+            Assert.assertEquals(1, element.intValue() & 1);
+            sum += element.intValue();
+        }
+        Assert.assertEquals((CAPACITY / 2) * (CAPACITY / 2), sum);
+    }
+}
@@ -1,16 +1,29 @@
 package uk.co.real_logic;
 
-import sun.misc.Unsafe;
-
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
+/**
+ * Typed access to a direct {@link ByteBuffer} at any index. Plain accessors use the native byte order unless
+ * a {@link ByteOrder} is given. Volatile, acquire, release, opaque, ordered, CAS and get-and-add operations always
+ * use the native order and require the index to be aligned to the size of the type.
+ *
+ * The acquire, release and opaque accessors are the VarHandle access modes of the same name, which on weakly ordered
+ * processors such as ARM are cheaper than full volatile accesses. Ordered stores are release stores. There is no
+ * VarHandle view of single bytes in a buffer so their volatile accessors are plain accesses bracketed by fences.
+ */
 public class AtomicBuffer
 {
-    private static final Unsafe unsafe = Util.getUnsafe();
-    private static final long BYTE_ARRAY_OFFSET = unsafe.arrayBaseOffset(byte[].class);
+    public static final ByteOrder NATIVE_BYTE_ORDER = ByteOrder.nativeOrder();
+
+    private static final VarHandle SHORT_VIEW = MethodHandles.byteBufferViewVarHandle(short[].class, NATIVE_BYTE_ORDER);
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, NATIVE_BYTE_ORDER);
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, NATIVE_BYTE_ORDER);
 
-    private final long address;
-    private final ByteBuffer buffer; // required to ensure buffer is not garbage collected
+    private final int capacity;
+    private final ByteBuffer buffer;
 
     public AtomicBuffer(final ByteBuffer buffer)
     {
@@ -19,32 +32,292 @@ public class AtomicBuffer
             throw new IllegalArgumentException("buffer must be direct");
         }
 
-        address = ((sun.nio.ch.DirectBuffer)buffer).address();
-        this.buffer = buffer;
+        capacity = buffer.capacity();
+        this.buffer = buffer.duplicate().clear().order(NATIVE_BYTE_ORDER);
+    }
+
+    public int capacity()
+    {
+        return capacity;
     }
 
     public void getBytes(final int index, final byte[] buffer, final int offset, final int length)
     {
-        unsafe.copyMemory(null, address + index, buffer, BYTE_ARRAY_OFFSET + offset, length);
+        this.buffer.get(index, buffer, offset, length);
     }
 
     public void putBytes(final int index, final byte[] buffer, final int offset, final int length)
     {
-        unsafe.copyMemory(buffer, BYTE_ARRAY_OFFSET + offset, null, address + index, length);
+        this.buffer.put(index, buffer, offset, length);
+    }
+
+    /**
+     * Copy bytes from an absolute index in a source buffer, which may be direct, heap or a read-only heap view,
+     * without changing its position.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the limit of the source buffer.
+     */
+    public void putBytes(final int index, final ByteBuffer srcBuffer, final int srcIndex, final int length)
+    {
+        if (srcIndex < 0 || length < 0 || srcIndex > srcBuffer.limit() - length)
+        {
+            String msg = "srcIndex=" + srcIndex + " length=" + length + " limit=" + srcBuffer.limit();
+            throw new IndexOutOfBoundsException(msg);
+        }
+
+        buffer.put(index, srcBuffer, srcIndex, length);
+    }
+
+    public void putBytes(final int index, final AtomicBuffer srcBuffer, final int srcIndex, final int length)
+    {
+        buffer.put(index, srcBuffer.buffer, srcIndex, length);
+    }
+
+    public void setMemory(final int index, final int length, final byte value)
+    {
+        final long word = (value & 0xFFL) * 0x0101010101010101L;
+        final int limit = index + length;
+        int i = index;
+
+        for (; i <= limit - 8; i += 8)
+        {
+            buffer.putLong(i, word);
+        }
+
+        for (; i < limit; i++)
+        {
+            buffer.put(i, value);
+        }
+    }
+
+    public byte getByte(final int index)
+    {
+        return buffer.get(index);
+    }
+
+    public void putByte(final int index, final byte value)
+    {
+        buffer.put(index, value);
+    }
+
+    public byte getByteVolatile(final int index)
+    {
+        final byte value = buffer.get(index);
+        VarHandle.acquireFence();
+
+        return value;
+    }
+
+    public void putByteVolatile(final int index, final byte value)
+    {
+        VarHandle.releaseFence();
+        buffer.put(index, value);
+        VarHandle.fullFence();
+    }
+
+    public short getShort(final int index)
+    {
+        return buffer.getShort(index);
+    }
+
+    public short getShort(final int index, final ByteOrder byteOrder)
+    {
+        final short value = buffer.getShort(index);
+
+        return NATIVE_BYTE_ORDER == byteOrder ? value : Short.reverseBytes(value);
+    }
+
+    public void putShort(final int index, final short value)
+    {
+        buffer.putShort(index, value);
+    }
+
+    public void putShort(final int index, final short value, final ByteOrder byteOrder)
+    {
+        buffer.putShort(index, NATIVE_BYTE_ORDER == byteOrder ? value : Short.reverseBytes(value));
+    }
+
+    public short getShortVolatile(final int index)
+    {
+        return (short)SHORT_VIEW.getVolatile(buffer, index);
+    }
+
+    public void putShortVolatile(final int index, final short value)
+    {
+        SHORT_VIEW.setVolatile(buffer, index, value);
+    }
+
+    public int getInt(final int index)
+    {
+        return buffer.getInt(index);
+    }
+
+    public int getInt(final int index, final ByteOrder byteOrder)
+    {
+        final int value = buffer.getInt(index);
+
+        return NATIVE_BYTE_ORDER == byteOrder ? value : Integer.reverseBytes(value);
+    }
+
+    public void putInt(final int index, final int value)
+    {
+        buffer.putInt(index, value);
+    }
+
+    public void putInt(final int index, final int value, final ByteOrder byteOrder)
+    {
+        buffer.putInt(index, NATIVE_BYTE_ORDER == byteOrder ? value : Integer.reverseBytes(value));
+    }
+
+    public int getIntVolatile(final int index)
+    {
+        return (int)INT_VIEW.getVolatile(buffer, index);
+    }
+
+    public void putIntVolatile(final int index, final int value)
+    {
+        INT_VIEW.setVolatile(buffer, index, value);
+    }
+
+    public void putOrderedInt(final int index, final int value)
+    {
+        INT_VIEW.setRelease(buffer, index, value);
+    }
+
+    public int getIntAcquire(final int index)
+    {
+        return (int)INT_VIEW.getAcquire(buffer, index);
+    }
+
+    public void putIntRelease(final int index, final int value)
+    {
+        INT_VIEW.setRelease(buffer, index, value);
+    }
+
+    public int getIntOpaque(final int index)
+    {
+        return (int)INT_VIEW.getOpaque(buffer, index);
+    }
+
+    public void putIntOpaque(final int index, final int value)
+    {
+        INT_VIEW.setOpaque(buffer, index, value);
+    }
+
+    public boolean compareAndSetInt(final int index, final int expectedValue, final int updateValue)
+    {
+        return INT_VIEW.compareAndSet(buffer, index, expectedValue, updateValue);
+    }
+
+    public int getAndAddInt(final int index, final int delta)
+    {
+        return (int)INT_VIEW.getAndAdd(buffer, index, delta);
+    }
+
+    public long getLong(final int index)
+    {
+        return buffer.getLong(index);
+    }
+
+    public long getLong(final int index, final ByteOrder byteOrder)
+    {
+        final long value = buffer.getLong(index);
+
+        return NATIVE_BYTE_ORDER == byteOrder ? value : Long.reverseBytes(value);
+    }
+
+    public void putLong(final int index, final long value)
+    {
+        buffer.putLong(index, value);
+    }
+
+    public void putLong(final int index, final long value, final ByteOrder byteOrder)
+    {
+        buffer.putLong(index, NATIVE_BYTE_ORDER == byteOrder ? value : Long.reverseBytes(value));
     }
 
     public long getLongVolatile(final int index)
     {
-        return unsafe.getLongVolatile(null, address + index);
+        return (long)LONG_VIEW.getVolatile(buffer, index);
     }
 
     public void putLongVolatile(final int index, final long value)
     {
-        unsafe.putLongVolatile(null, address + index, value);
+        LONG_VIEW.setVolatile(buffer, index, value);
     }
 
     public void putOrderedLong(final int index, final long value)
     {
-        unsafe.putOrderedLong(null, address + index, value);
+        LONG_VIEW.setRelease(buffer, index, value);
+    }
+
+    public long getLongAcquire(final int index)
+    {
+        return (long)LONG_VIEW.getAcquire(buffer, index);
+    }
+
+    public void putLongRelease(final int index, final long value)
+    {
+        LONG_VIEW.setRelease(buffer, index, value);
+    }
+
+    public long getLongOpaque(final int index)
+    {
+        return (long)LONG_VIEW.getOpaque(buffer, index);
+    }
+
+    public void putLongOpaque(final int index, final long value)
+    {
+        LONG_VIEW.setOpaque(buffer, index, value);
+    }
+
+    public boolean compareAndSetLong(final int index, final long expectedValue, final long updateValue)
+    {
+        return LONG_VIEW.compareAndSet(buffer, index, expectedValue, updateValue);
+    }
+
+    public long getAndAddLong(final int index, final long delta)
+    {
+        return (long)LONG_VIEW.getAndAdd(buffer, index, delta);
+    }
+
+    public float getFloat(final int index)
+    {
+        return buffer.getFloat(index);
+    }
+
+    public float getFloat(final int index, final ByteOrder byteOrder)
+    {
+        return Float.intBitsToFloat(getInt(index, byteOrder));
+    }
+
+    public void putFloat(final int index, final float value)
+    {
+        buffer.putFloat(index, value);
+    }
+
+    public void putFloat(final int index, final float value, final ByteOrder byteOrder)
+    {
+        putInt(index, Float.floatToRawIntBits(value), byteOrder);
+    }
+
+    public double getDouble(final int index)
+    {
+        return buffer.getDouble(index);
+    }
+
+    public double getDouble(final int index, final ByteOrder byteOrder)
+    {
+        return Double.longBitsToDouble(getLong(index, byteOrder));
+    }
+
+    public void putDouble(final int index, final double value)
+    {
+        buffer.putDouble(index, value);
+    }
+
+    public void putDouble(final int index, final double value, final ByteOrder byteOrder)
+    {
+        putLong(index, Double.doubleToRawLongBits(value), byteOrder);
     }
 }
@@ -0,0 +1,34 @@
+package uk.co.real_logic;
+
+import static uk.co.real_logic.PipeDescriptor.CACHE_LINE_SIZE;
+
+/**
+ * Trailer layout for a broadcast pipe. Each reader has its own slot, padded to a cache line, holding its read counter
+ * and connected flag.
+ *
+ * The writer sets the initialised flag last, once the mode and other constants are in the trailer, so a reader must
+ * wait for it after the file has reached its full length and before reading them.
+ */
+public class BroadcastDescriptor
+{
+    public static final int WRITE_COUNTER_TRAILER_OFFSET = CACHE_LINE_SIZE;
+    public static final int WRITE_INTENT_COUNTER_TRAILER_OFFSET = WRITE_COUNTER_TRAILER_OFFSET + 8;
+    public static final int EOF_FLAG_TRAILER_OFFSET = WRITE_COUNTER_TRAILER_OFFSET + CACHE_LINE_SIZE;
+    public static final int LOSSY_FLAG_TRAILER_OFFSET = EOF_FLAG_TRAILER_OFFSET + 8;
+    public static final int INITIALISED_FLAG_TRAILER_OFFSET = LOSSY_FLAG_TRAILER_OFFSET + 8;
+    public static final int READER_SLOTS_TRAILER_OFFSET = EOF_FLAG_TRAILER_OFFSET + CACHE_LINE_SIZE;
+
+    public static final int READ_COUNTER_SLOT_OFFSET = 0;
+    public static final int READER_CONNECTED_FLAG_SLOT_OFFSET = 8;
+    public static final int READER_SLOT_SIZE = CACHE_LINE_SIZE;
+
+    public static int readerSlotOffset(final int readerId)
+    {
+        return READER_SLOTS_TRAILER_OFFSET + (readerId * READER_SLOT_SIZE);
+    }
+
+    public static int trailerSize(final int readerCount)
+    {
+        return READER_SLOTS_TRAILER_OFFSET + ((readerCount + 1) * READER_SLOT_SIZE);
+    }
+}
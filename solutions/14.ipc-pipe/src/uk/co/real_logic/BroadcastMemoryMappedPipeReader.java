@@ -0,0 +1,228 @@
+package uk.co.real_logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+import static uk.co.real_logic.BroadcastDescriptor.*;
+import static uk.co.real_logic.PipeDescriptor.EOF;
+import static uk.co.real_logic.PipeDescriptor.TRUE;
+import static uk.co.real_logic.RecordDescriptor.*;
+
+/**
+ * One of many readers of a pipe written by a {@link BroadcastMemoryMappedPipeWriter}. Each reader sees every message
+ * and tracks its progress in its own slot of the trailer.
+ *
+ * When the pipe is {@link BroadcastMode#LOSSY} messages are copied to a private buffer and validated against the writer before being
+ * delivered. A reader that has been lapped skips forward to the latest record and counts the event in
+ * {@link #lappedCount()}.
+ */
+public class BroadcastMemoryMappedPipeReader
+    implements Closeable
+{
+    private final int mask;
+    private final int capacity;
+    private final int readCounterIndex;
+    private final int writeCounterIndex;
+    private final int writeIntentCounterIndex;
+    private final int eofIndex;
+    private final int maxRecordLength;
+    private final boolean lossy;
+
+    private long lappedCount = 0;
+    private final FileChannel channel;
+    private final AtomicBuffer atomicBuffer;
+    private final byte[] messageBuffer;
+    private final AtomicBuffer messageCopyBuffer;
+    private final CopyingMessageHandler copyingHandler = new CopyingMessageHandler();
+
+    public BroadcastMemoryMappedPipeReader(final File file, final int capacity, final int readerCount, final int readerId)
+        throws IOException
+    {
+        if (Integer.bitCount(capacity) != 1)
+        {
+            String msg = "capacity must be a power of 2 in size: capacity=" + capacity;
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (readerId < 0 || readerId >= readerCount)
+        {
+            String msg = "readerId must be in the range 0 to readerCount - 1: readerId=" + readerId;
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (!file.exists())
+        {
+            throw new IllegalStateException("file does not exist: " + file);
+        }
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+
+        final int minFileSize = capacity + trailerSize(readerCount);
+        while (randomAccessFile.length() < minFileSize)
+        {
+            LockSupport.parkNanos(1);
+        }
+
+        this.capacity = capacity;
+        channel = randomAccessFile.getChannel();
+        final MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, randomAccessFile.length());
+
+        mask = capacity - 1;
+        readCounterIndex = capacity + readerSlotOffset(readerId) + READ_COUNTER_SLOT_OFFSET;
+        writeCounterIndex = capacity + WRITE_COUNTER_TRAILER_OFFSET;
+        writeIntentCounterIndex = capacity + WRITE_INTENT_COUNTER_TRAILER_OFFSET;
+        eofIndex = capacity + EOF_FLAG_TRAILER_OFFSET;
+        final int readerConnectedIndex = capacity + readerSlotOffset(readerId) + READER_CONNECTED_FLAG_SLOT_OFFSET;
+
+        maxRecordLength = maxMessageLength(capacity) + HEADER_LENGTH;
+        messageBuffer = new byte[maxMessageLength(capacity)];
+        messageCopyBuffer = new AtomicBuffer(ByteBuffer.allocateDirect(maxMessageLength(capacity)));
+
+        atomicBuffer = new AtomicBuffer(mappedBuffer);
+        while (TRUE != atomicBuffer.getLongVolatile(capacity + INITIALISED_FLAG_TRAILER_OFFSET))
+        {
+            LockSupport.parkNanos(1);
+        }
+
+        lossy = TRUE == atomicBuffer.getLong(capacity + LOSSY_FLAG_TRAILER_OFFSET);
+        atomicBuffer.putLongVolatile(readerConnectedIndex, 1);
+    }
+
+    public void close()
+        throws IOException
+    {
+        channel.close();
+    }
+
+    public boolean isEof()
+    {
+        return TRUE == atomicBuffer.getLongVolatile(eofIndex);
+    }
+
+    /**
+     * Number of times this reader has been lapped by the writer and skipped forward.
+     *
+     * @return number of times this reader has been lapped.
+     */
+    public long lappedCount()
+    {
+        return lappedCount;
+    }
+
+    /**
+     * Read all message records available to this reader, copying each message out before passing it to the handler.
+     *
+     * @return the number of messages read or {@link PipeDescriptor#EOF} if the writer has closed the pipe.
+     */
+    public int read(final MessageHandler handler)
+    {
+        copyingHandler.delegate = handler;
+        try
+        {
+            return readInPlace(copyingHandler);
+        }
+        finally
+        {
+            copyingHandler.delegate = null;
+        }
+    }
+
+    /**
+     * Read all message records available to this reader and pass each message to the handler in place.
+     *
+     * In {@link BroadcastMode#LOSSY} mode the writer may overwrite a message while the handler is reading it, so each
+     * message is first copied to a buffer private to this reader and only delivered once validated against the writer.
+     *
+     * @return the number of messages read or {@link PipeDescriptor#EOF} if the writer has closed the pipe.
+     */
+    public int readInPlace(final BufferMessageHandler handler)
+    {
+        final boolean eof = isEof();
+        final long readCounter = atomicBuffer.getLongVolatile(readCounterIndex);
+        final long writeCounter = atomicBuffer.getLongVolatile(writeCounterIndex);
+
+        if (readCounter == writeCounter)
+        {
+            return eof ? EOF : 0;
+        }
+
+        int messagesRead = 0;
+        long position = readCounter;
+
+        try
+        {
+            while (position < writeCounter)
+            {
+                final int recordIndex = (int)position & mask;
+                final int recordLength = atomicBuffer.getInt(lengthIndex(recordIndex));
+                final int msgTypeId = atomicBuffer.getInt(typeIndex(recordIndex));
+                final int msgLength = recordLength - HEADER_LENGTH;
+
+                if (lossy)
+                {
+                    if (PADDING_MSG_TYPE_ID != msgTypeId && msgLength >= 0 && recordLength <= maxRecordLength)
+                    {
+                        messageCopyBuffer.putBytes(0, atomicBuffer, msgIndex(recordIndex), msgLength);
+                    }
+
+                    if (isLapped(position))
+                    {
+                        position = atomicBuffer.getLongVolatile(writeCounterIndex);
+                        break;
+                    }
+                }
+
+                position += align(recordLength);
+
+                if (PADDING_MSG_TYPE_ID != msgTypeId)
+                {
+                    ++messagesRead;
+                    if (lossy)
+                    {
+                        handler.onMessage(msgTypeId, messageCopyBuffer, 0, msgLength);
+                    }
+                    else
+                    {
+                        handler.onMessage(msgTypeId, atomicBuffer, msgIndex(recordIndex), msgLength);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            atomicBuffer.putOrderedLong(readCounterIndex, position);
+        }
+
+        return messagesRead;
+    }
+
+    private boolean isLapped(final long position)
+    {
+        VarHandle.acquireFence();
+        if ((atomicBuffer.getLongVolatile(writeIntentCounterIndex) - capacity) > position)
+        {
+            ++lappedCount;
+            return true;
+        }
+
+        return false;
+    }
+
+    private class CopyingMessageHandler implements BufferMessageHandler
+    {
+        private MessageHandler delegate;
+
+        public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+        {
+            buffer.getBytes(index, messageBuffer, 0, length);
+            delegate.onMessage(msgTypeId, messageBuffer, 0, length);
+        }
+    }
+}
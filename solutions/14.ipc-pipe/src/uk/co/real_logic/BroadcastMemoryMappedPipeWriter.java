@@ -0,0 +1,204 @@
+package uk.co.real_logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+import static uk.co.real_logic.BroadcastDescriptor.*;
+import static uk.co.real_logic.PipeDescriptor.INITIAL_COUNT;
+import static uk.co.real_logic.PipeDescriptor.TRUE;
+import static uk.co.real_logic.RecordDescriptor.*;
+
+/**
+ * Single writer for a pipe in which every message is delivered to each of a fixed number of
+ * {@link BroadcastMemoryMappedPipeReader}s, so a message is copied into shared memory once for all readers.
+ */
+public class BroadcastMemoryMappedPipeWriter
+    implements Closeable
+{
+    private final int capacity;
+    private final int mask;
+    private final int writeCounterIndex;
+    private final int writeIntentCounterIndex;
+    private final int eofIndex;
+    private final int maxMessageLength;
+    private final int[] readCounterIndexes;
+    private final int[] readerConnectedIndexes;
+    private final boolean lossy;
+
+    private long minReadCounterCache = INITIAL_COUNT;
+    private final FileChannel channel;
+    private final AtomicBuffer atomicBuffer;
+
+    public BroadcastMemoryMappedPipeWriter(final File file,
+                                           final int capacity,
+                                           final int readerCount,
+                                           final BroadcastMode mode)
+        throws IOException
+    {
+        this(file, capacity, readerCount, mode, IoUtil.PAGE_SIZE, false);
+    }
+
+    /**
+     * Create the pipe file and map it.
+     *
+     * @param file to be created, which must be on hugetlbfs if the pageSize is the huge page size.
+     * @param capacity of the ring which must be a power of 2.
+     * @param readerCount which will each read every message.
+     * @param mode for when the slowest reader falls a whole ring behind.
+     * @param pageSize of the mapping, to which the file size will be aligned.
+     * @param preTouch the pages of the ring so their page faults are taken now rather than on the first lap.
+     */
+    public BroadcastMemoryMappedPipeWriter(final File file,
+                                           final int capacity,
+                                           final int readerCount,
+                                           final BroadcastMode mode,
+                                           final int pageSize,
+                                           final boolean preTouch)
+        throws IOException
+    {
+        if (Integer.bitCount(capacity) != 1)
+        {
+            String msg = "capacity must be a power of 2 in size: capacity=" + capacity;
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (readerCount < 1)
+        {
+            throw new IllegalArgumentException("readerCount must be at least 1: readerCount=" + readerCount);
+        }
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+
+        final int fileSize = IoUtil.alignToPageSize(capacity + trailerSize(readerCount), pageSize);
+        IoUtil.allocate(randomAccessFile, fileSize, pageSize);
+
+        channel = randomAccessFile.getChannel();
+        final MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+
+        this.capacity = capacity;
+        mask = capacity - 1;
+        writeCounterIndex = capacity + WRITE_COUNTER_TRAILER_OFFSET;
+        writeIntentCounterIndex = capacity + WRITE_INTENT_COUNTER_TRAILER_OFFSET;
+        eofIndex = capacity + EOF_FLAG_TRAILER_OFFSET;
+        maxMessageLength = RecordDescriptor.maxMessageLength(capacity);
+        lossy = BroadcastMode.LOSSY == mode;
+
+        readCounterIndexes = new int[readerCount];
+        readerConnectedIndexes = new int[readerCount];
+        for (int i = 0; i < readerCount; i++)
+        {
+            readCounterIndexes[i] = capacity + readerSlotOffset(i) + READ_COUNTER_SLOT_OFFSET;
+            readerConnectedIndexes[i] = capacity + readerSlotOffset(i) + READER_CONNECTED_FLAG_SLOT_OFFSET;
+        }
+
+        atomicBuffer = new AtomicBuffer(mappedBuffer);
+        if (preTouch)
+        {
+            IoUtil.preTouch(atomicBuffer, capacity, pageSize);
+        }
+
+        atomicBuffer.putLong(capacity + LOSSY_FLAG_TRAILER_OFFSET, lossy ? TRUE : 0);
+        atomicBuffer.putLongVolatile(capacity + INITIALISED_FLAG_TRAILER_OFFSET, TRUE);
+    }
+
+    public void waitForReadersToConnect()
+    {
+        for (final int readerConnectedIndex : readerConnectedIndexes)
+        {
+            while (0 == atomicBuffer.getLongVolatile(readerConnectedIndex))
+            {
+                LockSupport.parkNanos(1);
+            }
+        }
+    }
+
+    public void close()
+        throws IOException
+    {
+        atomicBuffer.putLongVolatile(eofIndex, TRUE);
+        channel.close();
+    }
+
+    public int maxMessageLength()
+    {
+        return maxMessageLength;
+    }
+
+    /**
+     * Write a whole message as a single record to be read by every reader.
+     *
+     * @return true if the message was written or false if the slowest reader has not made space available when
+     * in {@link BroadcastMode#BACK_PRESSURE} mode. Always true in {@link BroadcastMode#LOSSY} mode.
+     */
+    public boolean write(final int msgTypeId, final byte[] src, final int offset, final int length)
+    {
+        if (msgTypeId < 0)
+        {
+            throw new IllegalArgumentException("msgTypeId must not be negative: msgTypeId=" + msgTypeId);
+        }
+
+        if (length > maxMessageLength)
+        {
+            String msg = "message exceeds maxMessageLength of " + maxMessageLength + ": length=" + length;
+            throw new IllegalArgumentException(msg);
+        }
+
+        final int recordLength = length + HEADER_LENGTH;
+        final int alignedRecordLength = align(recordLength);
+
+        final long writeCounter = atomicBuffer.getLongVolatile(writeCounterIndex);
+        int recordIndex = (int)writeCounter & mask;
+        final int bytesToEndOfBuffer = capacity - recordIndex;
+        final int padding = alignedRecordLength > bytesToEndOfBuffer ? bytesToEndOfBuffer : 0;
+        final int requiredCapacity = padding + alignedRecordLength;
+
+        if (lossy)
+        {
+            atomicBuffer.putOrderedLong(writeIntentCounterIndex, writeCounter + requiredCapacity);
+            VarHandle.releaseFence();
+        }
+        else if (!hasAvailableCapacity(writeCounter, requiredCapacity))
+        {
+            return false;
+        }
+
+        if (0 != padding)
+        {
+            atomicBuffer.putInt(lengthIndex(recordIndex), padding);
+            atomicBuffer.putInt(typeIndex(recordIndex), PADDING_MSG_TYPE_ID);
+            recordIndex = 0;
+        }
+
+        atomicBuffer.putInt(lengthIndex(recordIndex), recordLength);
+        atomicBuffer.putInt(typeIndex(recordIndex), msgTypeId);
+        atomicBuffer.putBytes(msgIndex(recordIndex), src, offset, length);
+        atomicBuffer.putOrderedLong(writeCounterIndex, writeCounter + requiredCapacity);
+
+        return true;
+    }
+
+    private boolean hasAvailableCapacity(final long writeCounter, final int requiredCapacity)
+    {
+        final long bufferLimit = writeCounter + requiredCapacity - capacity;
+        if (bufferLimit > minReadCounterCache)
+        {
+            long minReadCounter = Long.MAX_VALUE;
+            for (final int readCounterIndex : readCounterIndexes)
+            {
+                minReadCounter = Math.min(minReadCounter, atomicBuffer.getLongVolatile(readCounterIndex));
+            }
+
+            minReadCounterCache = minReadCounter;
+
+            return bufferLimit <= minReadCounterCache;
+        }
+
+        return true;
+    }
+}
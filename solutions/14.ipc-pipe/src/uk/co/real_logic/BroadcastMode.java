@@ -0,0 +1,17 @@
+package uk.co.real_logic;
+
+/**
+ * How a broadcast pipe writer treats readers that fall behind.
+ */
+public enum BroadcastMode
+{
+    /**
+     * The writer will not overwrite a record until the slowest reader has read it.
+     */
+    BACK_PRESSURE,
+
+    /**
+     * The writer never waits. Readers that have been lapped detect it and skip forward to the latest record.
+     */
+    LOSSY
+}
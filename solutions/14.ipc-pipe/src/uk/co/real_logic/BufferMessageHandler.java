@@ -0,0 +1,18 @@
+package uk.co.real_logic;
+
+/**
+ * Callback for whole messages read in place from the mapped region of a pipe in message mode.
+ */
+public interface BufferMessageHandler
+{
+    /**
+     * Called for each message read. The region of the buffer holding the message is only valid for the duration
+     * of the callback as the writer may reuse it once the read counter has been advanced.
+     *
+     * @param msgTypeId supplied by the writer of the message.
+     * @param buffer view over the mapped region containing the message.
+     * @param index at which the message begins in the buffer.
+     * @param length of the message in bytes.
+     */
+    void onMessage(int msgTypeId, AtomicBuffer buffer, int index, int length);
+}
@@ -0,0 +1,17 @@
+package uk.co.real_logic;
+
+/**
+ * How producers claim records in a {@link FixedRecordRingBuffer}.
+ */
+public enum ClaimMode
+{
+    /**
+     * A single producer thread claims records, so the tail can be advanced with an ordered store.
+     */
+    SINGLE_PRODUCER,
+
+    /**
+     * Many producer threads claim records concurrently by CAS on the tail.
+     */
+    MULTI_PRODUCER
+}
@@ -0,0 +1,16 @@
+package uk.co.real_logic;
+
+/**
+ * Callback for each allocated counter read from a counters file.
+ */
+public interface CounterHandler
+{
+    /**
+     * Called for each allocated counter.
+     *
+     * @param counterId identity of the counter within the file.
+     * @param label describing the counter.
+     * @param value of the counter at the time it was read.
+     */
+    void onCounter(int counterId, String label, long value);
+}
@@ -0,0 +1,47 @@
+package uk.co.real_logic;
+
+import java.io.File;
+
+/**
+ * Command line tool that prints the value and rate of change of each counter in a counters file at a fixed interval.
+ *
+ * Usage: CounterStat &lt;counters file&gt; [interval ms]
+ */
+public class CounterStat
+{
+    public static void main(final String[] args)
+        throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: CounterStat <counters file> [interval ms]");
+            System.exit(1);
+        }
+
+        final CountersReader countersReader = new CountersReader(new File(args[0]));
+        final long intervalMs = args.length > 1 ? Long.parseLong(args[1]) : 1000L;
+        final long[] lastValues = new long[countersReader.maxCounters()];
+        long lastTimestamp = System.nanoTime();
+
+        while (true)
+        {
+            Thread.sleep(intervalMs);
+
+            final long timestamp = System.nanoTime();
+            final double elapsedSeconds = (timestamp - lastTimestamp) / 1000000000.0;
+            lastTimestamp = timestamp;
+
+            System.out.println("========");
+            countersReader.forEach(new CounterHandler()
+            {
+                public void onCounter(final int counterId, final String label, final long value)
+                {
+                    final long rate = (long)((value - lastValues[counterId]) / elapsedSeconds);
+                    lastValues[counterId] = value;
+
+                    System.out.format("%3d: %,20d %,15d/s - %s%n", counterId, value, rate, label);
+                }
+            });
+        }
+    }
+}
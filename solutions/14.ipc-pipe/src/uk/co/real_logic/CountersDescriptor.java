@@ -0,0 +1,44 @@
+package uk.co.real_logic;
+
+import static uk.co.real_logic.PipeDescriptor.CACHE_LINE_SIZE;
+
+/**
+ * Layout of a counters file. A header holding the maximum number of counters is followed by a metadata section
+ * with a record per counter and then a values section with each counter value padded to its own cache line.
+ *
+ * A metadata record holds the length of the label followed by its bytes. The length is written last, so a reader
+ * treats a counter as allocated once it sees a non-zero label length. A counter whose value is a long already held
+ * in another file, such as a counter in the trailer of a pipe, also records the index of the value and the path of
+ * that file, in which case its slot in the values section is unused.
+ */
+public class CountersDescriptor
+{
+    public static final int MAX_COUNTERS_OFFSET = 0;
+    public static final int HEADER_LENGTH = CACHE_LINE_SIZE;
+
+    public static final int LABEL_LENGTH_OFFSET = 0;
+    public static final int LABEL_OFFSET = 4;
+    public static final int MAX_LABEL_LENGTH = 124;
+    public static final int VALUE_INDEX_OFFSET = LABEL_OFFSET + MAX_LABEL_LENGTH;
+    public static final int VALUE_FILE_LENGTH_OFFSET = VALUE_INDEX_OFFSET + 4;
+    public static final int VALUE_FILE_OFFSET = VALUE_FILE_LENGTH_OFFSET + 4;
+    public static final int METADATA_LENGTH = 512;
+    public static final int MAX_VALUE_FILE_LENGTH = METADATA_LENGTH - VALUE_FILE_OFFSET;
+
+    public static final int COUNTER_LENGTH = CACHE_LINE_SIZE;
+
+    public static int metadataOffset(final int counterId)
+    {
+        return HEADER_LENGTH + (counterId * METADATA_LENGTH);
+    }
+
+    public static int valueOffset(final int maxCounters, final int counterId)
+    {
+        return HEADER_LENGTH + (maxCounters * METADATA_LENGTH) + (counterId * COUNTER_LENGTH);
+    }
+
+    public static int fileSize(final int maxCounters)
+    {
+        return valueOffset(maxCounters, maxCounters);
+    }
+}
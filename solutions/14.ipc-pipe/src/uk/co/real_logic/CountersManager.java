@@ -0,0 +1,133 @@
+package uk.co.real_logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import static uk.co.real_logic.CountersDescriptor.*;
+
+/**
+ * Allocates labelled counters in a memory-mapped counters file which a {@link CountersReader} in another process
+ * can read while the counters are updated. Allocation is not on the hot path so it is simply synchronized.
+ */
+public class CountersManager
+{
+    public static final Charset LABEL_CHARSET = Charset.forName("UTF-8");
+
+    private final int maxCounters;
+    private final AtomicBuffer atomicBuffer;
+    private int nextCounterId = 0;
+
+    /**
+     * Create the counters file and map it.
+     *
+     * @param file to be created or truncated.
+     * @param maxCounters that can be allocated.
+     */
+    public CountersManager(final File file, final int maxCounters)
+        throws IOException
+    {
+        this(new AtomicBuffer(IoUtil.mapNewFile(file, fileSize(maxCounters))), maxCounters);
+    }
+
+    /**
+     * Allocate counters in a zeroed buffer laid out as described by {@link CountersDescriptor}.
+     *
+     * @param atomicBuffer to hold the counters.
+     * @param maxCounters that can be allocated.
+     */
+    public CountersManager(final AtomicBuffer atomicBuffer, final int maxCounters)
+    {
+        if (maxCounters < 1)
+        {
+            throw new IllegalArgumentException("maxCounters must be at least 1: maxCounters=" + maxCounters);
+        }
+
+        if (atomicBuffer.capacity() < fileSize(maxCounters))
+        {
+            String msg = "buffer too small for " + maxCounters + " counters: capacity=" + atomicBuffer.capacity();
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.atomicBuffer = atomicBuffer;
+        this.maxCounters = maxCounters;
+        atomicBuffer.putIntVolatile(MAX_COUNTERS_OFFSET, maxCounters);
+    }
+
+    public int maxCounters()
+    {
+        return maxCounters;
+    }
+
+    /**
+     * Allocate a counter with a label describing it. Labels longer than {@link CountersDescriptor#MAX_LABEL_LENGTH}
+     * bytes are truncated.
+     *
+     * @param label describing the counter.
+     * @return the newly allocated counter which has a value of 0.
+     * @throws IllegalStateException if all counters have been allocated.
+     */
+    public synchronized MappedCounter newCounter(final String label)
+    {
+        final int counterId = allocate(label, null, 0);
+
+        return new MappedCounter(counterId, atomicBuffer, valueOffset(maxCounters, counterId));
+    }
+
+    /**
+     * Allocate a counter whose value is a long already held at an index in another file, such as a counter in the
+     * trailer of a pipe, so it can be monitored without being copied into this file each time it is updated.
+     *
+     * @param label describing the counter.
+     * @param valueFile holding the value, which must remain mapped at the same path while it is monitored.
+     * @param valueIndex of the value within the file, which must be aligned to 8 bytes.
+     * @return the id of the newly allocated counter.
+     * @throws IllegalArgumentException if the path of the file is longer than
+     * {@link CountersDescriptor#MAX_VALUE_FILE_LENGTH} bytes.
+     * @throws IllegalStateException if all counters have been allocated.
+     */
+    public synchronized int newCounter(final String label, final File valueFile, final int valueIndex)
+    {
+        return allocate(label, valueFile, valueIndex);
+    }
+
+    private int allocate(final String label, final File valueFile, final int valueIndex)
+    {
+        if (label.isEmpty())
+        {
+            throw new IllegalArgumentException("label must not be empty");
+        }
+
+        if (nextCounterId >= maxCounters)
+        {
+            throw new IllegalStateException("all counters allocated: maxCounters=" + maxCounters);
+        }
+
+        byte[] valueFileBytes = null;
+        if (null != valueFile)
+        {
+            valueFileBytes = valueFile.getAbsolutePath().getBytes(LABEL_CHARSET);
+            if (valueFileBytes.length > MAX_VALUE_FILE_LENGTH)
+            {
+                throw new IllegalArgumentException("path of value file too long: " + valueFile);
+            }
+        }
+
+        final int counterId = nextCounterId++;
+        final int metadataOffset = metadataOffset(counterId);
+        final byte[] labelBytes = label.getBytes(LABEL_CHARSET);
+        final int labelLength = Math.min(labelBytes.length, MAX_LABEL_LENGTH);
+
+        if (null != valueFileBytes)
+        {
+            atomicBuffer.putInt(metadataOffset + VALUE_INDEX_OFFSET, valueIndex);
+            atomicBuffer.putBytes(metadataOffset + VALUE_FILE_OFFSET, valueFileBytes, 0, valueFileBytes.length);
+            atomicBuffer.putInt(metadataOffset + VALUE_FILE_LENGTH_OFFSET, valueFileBytes.length);
+        }
+
+        atomicBuffer.putBytes(metadataOffset + LABEL_OFFSET, labelBytes, 0, labelLength);
+        atomicBuffer.putOrderedInt(metadataOffset + LABEL_LENGTH_OFFSET, labelLength);
+
+        return counterId;
+    }
+}
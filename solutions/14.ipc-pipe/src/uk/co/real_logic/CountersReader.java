@@ -0,0 +1,171 @@
+package uk.co.real_logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static uk.co.real_logic.CountersDescriptor.*;
+
+/**
+ * Reads the counters in a counters file written by a {@link CountersManager}, typically from a monitoring process.
+ * Reading takes no locks and never writes to the file, so it has no effect on the processes updating the counters.
+ * A counter whose value is held in another file is read from that file, which is mapped when first seen.
+ */
+public class CountersReader
+{
+    private final int maxCounters;
+    private final AtomicBuffer atomicBuffer;
+    private final String[] labels;
+    private final AtomicBuffer[] valueBuffers;
+    private final int[] valueIndices;
+    private final Map<String, AtomicBuffer> valueFileBuffers = new HashMap<String, AtomicBuffer>();
+
+    public CountersReader(final File file)
+        throws IOException
+    {
+        this(file, Long.MAX_VALUE);
+    }
+
+    /**
+     * Map a counters file, waiting up to a timeout for its {@link CountersManager} to size it and write the header.
+     *
+     * @param file of counters created by a {@link CountersManager}.
+     * @param timeoutMs to wait for each of the file to be sized and the header to be written.
+     * @throws IllegalStateException if the file does not exist or is not initialised within the timeout.
+     */
+    public CountersReader(final File file, final long timeoutMs)
+        throws IOException
+    {
+        this(mapCountersFile(file, timeoutMs), timeoutMs);
+    }
+
+    public CountersReader(final AtomicBuffer atomicBuffer)
+    {
+        this(atomicBuffer, Long.MAX_VALUE);
+    }
+
+    /**
+     * Read counters in a buffer, waiting up to a timeout for its {@link CountersManager} to write the header.
+     *
+     * @param atomicBuffer holding the counters.
+     * @param timeoutMs to wait for the header to be written.
+     * @throws IllegalStateException if the header is not written within the timeout.
+     */
+    public CountersReader(final AtomicBuffer atomicBuffer, final long timeoutMs)
+    {
+        this.atomicBuffer = atomicBuffer;
+        maxCounters = awaitMaxCounters(atomicBuffer, timeoutMs);
+        labels = new String[maxCounters];
+        valueBuffers = new AtomicBuffer[maxCounters];
+        valueIndices = new int[maxCounters];
+    }
+
+    public int maxCounters()
+    {
+        return maxCounters;
+    }
+
+    /**
+     * Pass each allocated counter to the handler in order of counter id.
+     *
+     * @return the number of allocated counters.
+     * @throws IllegalStateException if the file holding the value of a counter no longer exists.
+     */
+    public int forEach(final CounterHandler handler)
+        throws IOException
+    {
+        int counterId = 0;
+        while (counterId < maxCounters && isAllocated(counterId))
+        {
+            final long value = valueBuffers[counterId].getLongVolatile(valueIndices[counterId]);
+            handler.onCounter(counterId, labels[counterId], value);
+            ++counterId;
+        }
+
+        return counterId;
+    }
+
+    private boolean isAllocated(final int counterId)
+        throws IOException
+    {
+        if (null != labels[counterId])
+        {
+            return true;
+        }
+
+        final int metadataOffset = metadataOffset(counterId);
+        final int labelLength = atomicBuffer.getIntVolatile(metadataOffset + LABEL_LENGTH_OFFSET);
+        if (0 == labelLength)
+        {
+            return false;
+        }
+
+        final int valueFileLength = atomicBuffer.getInt(metadataOffset + VALUE_FILE_LENGTH_OFFSET);
+        if (0 == valueFileLength)
+        {
+            valueBuffers[counterId] = atomicBuffer;
+            valueIndices[counterId] = valueOffset(maxCounters, counterId);
+        }
+        else
+        {
+            final int valueIndex = atomicBuffer.getInt(metadataOffset + VALUE_INDEX_OFFSET);
+            final String valueFile = getString(metadataOffset + VALUE_FILE_OFFSET, valueFileLength);
+            valueBuffers[counterId] = valueFileBuffer(valueFile, valueIndex + 8);
+            valueIndices[counterId] = valueIndex;
+        }
+
+        labels[counterId] = getString(metadataOffset + LABEL_OFFSET, labelLength);
+
+        return true;
+    }
+
+    private AtomicBuffer valueFileBuffer(final String path, final int minLength)
+        throws IOException
+    {
+        AtomicBuffer valueFileBuffer = valueFileBuffers.get(path);
+        if (null == valueFileBuffer)
+        {
+            valueFileBuffer = new AtomicBuffer(IoUtil.mapExistingFile(new File(path), minLength, 0));
+            valueFileBuffers.put(path, valueFileBuffer);
+        }
+
+        return valueFileBuffer;
+    }
+
+    private String getString(final int index, final int length)
+    {
+        final byte[] bytes = new byte[length];
+        atomicBuffer.getBytes(index, bytes, 0, length);
+
+        return new String(bytes, CountersManager.LABEL_CHARSET);
+    }
+
+    private static AtomicBuffer mapCountersFile(final File file, final long timeoutMs)
+        throws IOException
+    {
+        // the file may still be being zeroed when the header is first visible, so map it again at its full size
+        final AtomicBuffer header = new AtomicBuffer(IoUtil.mapExistingFile(file, HEADER_LENGTH, timeoutMs));
+        final int maxCounters = awaitMaxCounters(header, timeoutMs);
+
+        return new AtomicBuffer(IoUtil.mapExistingFile(file, fileSize(maxCounters), timeoutMs));
+    }
+
+    private static int awaitMaxCounters(final AtomicBuffer atomicBuffer, final long timeoutMs)
+    {
+        final long startMs = System.currentTimeMillis();
+        int maxCounters;
+        while (0 == (maxCounters = atomicBuffer.getIntVolatile(MAX_COUNTERS_OFFSET)))
+        {
+            if (System.currentTimeMillis() - startMs > timeoutMs)
+            {
+                throw new IllegalStateException("timed out waiting for counters header to be written");
+            }
+
+            LockSupport.parkNanos(1);
+        }
+
+        return maxCounters;
+    }
+}
@@ -0,0 +1,31 @@
+package uk.co.real_logic;
+
+import static uk.co.real_logic.PipeDescriptor.TRAILER_SIZE;
+
+/**
+ * Layout of a duplex channel file holding a request ring followed by a response ring, each with its own trailer.
+ *
+ * Every request and response message begins with the correlation id that matches a response to its request.
+ */
+public class DuplexChannelDescriptor
+{
+    public static final int CORRELATION_ID_OFFSET = 0;
+    public static final int PAYLOAD_OFFSET = 8;
+
+    public static final int REQUEST_RING_OFFSET = 0;
+
+    public static int responseRingOffset(final int capacity)
+    {
+        return capacity + TRAILER_SIZE;
+    }
+
+    public static int fileSize(final int capacity)
+    {
+        return 2 * (capacity + TRAILER_SIZE);
+    }
+
+    public static int ringSize(final int capacity)
+    {
+        return capacity + TRAILER_SIZE;
+    }
+}
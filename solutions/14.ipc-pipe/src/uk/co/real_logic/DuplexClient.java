@@ -0,0 +1,153 @@
+package uk.co.real_logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static uk.co.real_logic.DuplexChannelDescriptor.*;
+import static uk.co.real_logic.PipeDescriptor.INSUFFICIENT_CAPACITY;
+
+/**
+ * Client end of a request/response channel created by a {@link DuplexServer}. Requests are tagged with a correlation
+ * id which the server returns with the matching response.
+ *
+ * A channel has a single client. The client holds the writer lock of the request ring, as a
+ * {@link MemoryMappedPipeWriter} opened on a file does, until it is closed or its process dies, so a second client
+ * is refused rather than corrupting the requests of the first.
+ */
+public class DuplexClient
+    implements Closeable
+{
+    private final FileChannel channel;
+    private final MemoryMappedPipeWriter requestWriter;
+    private final MemoryMappedPipeReader responseReader;
+    private final AtomicBuffer requestBuffer;
+    private final ResponseDecoder responseDecoder = new ResponseDecoder();
+    private long nextCorrelationId = 1;
+
+    /**
+     * Connect to the channel in a file created by a {@link DuplexServer}, waiting for the server to size it.
+     *
+     * @param file of the channel.
+     * @param capacity of each ring which must be a power of 2.
+     * @throws IllegalStateException if another client is connected to the channel.
+     */
+    public DuplexClient(final File file, final int capacity)
+        throws IOException
+    {
+        this(IoUtil.openExistingFile(file, fileSize(capacity), Long.MAX_VALUE), capacity);
+    }
+
+    private DuplexClient(final FileChannel channel, final int capacity)
+        throws IOException
+    {
+        MemoryMappedPipeWriter.lockWriter(channel, REQUEST_RING_OFFSET + capacity);
+        this.channel = channel;
+
+        final MappedByteBuffer mappedBuffer = IoUtil.map(channel);
+        final int ringSize = ringSize(capacity);
+
+        requestBuffer = new AtomicBuffer(IoUtil.slice(mappedBuffer, REQUEST_RING_OFFSET, ringSize));
+        requestWriter = new MemoryMappedPipeWriter(requestBuffer, capacity);
+
+        final int responseRingOffset = responseRingOffset(capacity);
+        final AtomicBuffer responseBuffer = new AtomicBuffer(IoUtil.slice(mappedBuffer, responseRingOffset, ringSize));
+        responseReader = new MemoryMappedPipeReader(responseBuffer, capacity);
+    }
+
+    public void close()
+        throws IOException
+    {
+        requestWriter.close();
+        responseReader.close();
+        channel.close();
+    }
+
+    /**
+     * Send a request without waiting for the response.
+     *
+     * @return the correlation id of the request or {@link PipeDescriptor#INSUFFICIENT_CAPACITY} if the request ring
+     * is full.
+     */
+    public long send(final int msgTypeId, final byte[] src, final int offset, final int length)
+    {
+        final int msgIndex = requestWriter.claim(msgTypeId, length + PAYLOAD_OFFSET);
+        if (INSUFFICIENT_CAPACITY == msgIndex)
+        {
+            return INSUFFICIENT_CAPACITY;
+        }
+
+        final long correlationId = nextCorrelationId++;
+        requestBuffer.putLong(msgIndex + CORRELATION_ID_OFFSET, correlationId);
+        requestBuffer.putBytes(msgIndex + PAYLOAD_OFFSET, src, offset, length);
+        requestWriter.commit();
+
+        return correlationId;
+    }
+
+    /**
+     * Read the responses available and pass each to the handler.
+     *
+     * @return the number of responses read or {@link PipeDescriptor#EOF} if the server has closed the channel.
+     */
+    public int poll(final ResponseHandler responseHandler)
+    {
+        responseDecoder.responseHandler = responseHandler;
+
+        return responseReader.readInPlace(responseDecoder);
+    }
+
+    /**
+     * Send a request and busy spin until its response has been passed to the handler. Responses to earlier
+     * requests sent with {@link #send} are also passed to the handler while waiting.
+     *
+     * @return the correlation id of the request.
+     */
+    public long call(final int msgTypeId,
+                     final byte[] src,
+                     final int offset,
+                     final int length,
+                     final ResponseHandler responseHandler)
+    {
+        long correlationId;
+        while (INSUFFICIENT_CAPACITY == (correlationId = send(msgTypeId, src, offset, length)))
+        {
+            poll(responseHandler);
+        }
+
+        responseDecoder.awaitedCorrelationId = correlationId;
+        responseDecoder.awaitedResponseReceived = false;
+        while (!responseDecoder.awaitedResponseReceived)
+        {
+            if (PipeDescriptor.EOF == poll(responseHandler))
+            {
+                String msg = "server closed the channel before responding: correlationId=" + correlationId;
+                throw new IllegalStateException(msg);
+            }
+        }
+
+        return correlationId;
+    }
+
+    private static class ResponseDecoder implements BufferMessageHandler
+    {
+        private ResponseHandler responseHandler;
+        private long awaitedCorrelationId;
+        private boolean awaitedResponseReceived;
+
+        public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+        {
+            final long correlationId = buffer.getLong(index + CORRELATION_ID_OFFSET);
+            if (correlationId == awaitedCorrelationId)
+            {
+                awaitedResponseReceived = true;
+            }
+
+            final int payloadLength = length - PAYLOAD_OFFSET;
+
+            responseHandler.onResponse(correlationId, msgTypeId, buffer, index + PAYLOAD_OFFSET, payloadLength);
+        }
+    }
+}
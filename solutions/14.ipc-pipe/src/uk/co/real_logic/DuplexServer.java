@@ -0,0 +1,102 @@
+package uk.co.real_logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+
+import static uk.co.real_logic.DuplexChannelDescriptor.*;
+import static uk.co.real_logic.PipeDescriptor.INSUFFICIENT_CAPACITY;
+
+/**
+ * Server end of a request/response channel over two rings in a single memory-mapped file. The server creates the
+ * file and drains requests in batches, publishing all responses to a batch with a single commit.
+ */
+public class DuplexServer
+    implements Closeable
+{
+    private final MemoryMappedPipeReader requestReader;
+    private final MemoryMappedPipeWriter responseWriter;
+    private final AtomicBuffer responseBuffer;
+    private final RequestDecoder requestDecoder = new RequestDecoder();
+
+    public DuplexServer(final File file, final int capacity)
+        throws IOException
+    {
+        final MappedByteBuffer mappedBuffer = IoUtil.mapNewFile(file, fileSize(capacity));
+        final int ringSize = ringSize(capacity);
+
+        responseBuffer = new AtomicBuffer(IoUtil.slice(mappedBuffer, responseRingOffset(capacity), ringSize));
+        responseWriter = new MemoryMappedPipeWriter(responseBuffer, capacity);
+
+        final AtomicBuffer requestBuffer = new AtomicBuffer(IoUtil.slice(mappedBuffer, REQUEST_RING_OFFSET, ringSize));
+        requestReader = new MemoryMappedPipeReader(requestBuffer, capacity);
+    }
+
+    public void close()
+        throws IOException
+    {
+        responseWriter.close();
+        requestReader.close();
+    }
+
+    public void waitForClientToConnect()
+    {
+        responseWriter.waitForReaderToConnect();
+    }
+
+    /**
+     * Read the batch of requests available and pass each to the handler, then publish the responses written.
+     *
+     * @return the number of requests read or {@link PipeDescriptor#EOF} if the client has closed the channel.
+     */
+    public int poll(final RequestHandler requestHandler)
+    {
+        requestDecoder.requestHandler = requestHandler;
+
+        final int requestsRead = requestReader.readInPlace(requestDecoder);
+        if (requestsRead > 0)
+        {
+            responseWriter.commit();
+        }
+
+        return requestsRead;
+    }
+
+    /**
+     * Write the response to a request. Should be called from {@link RequestHandler#onRequest} as the response is
+     * published once the batch of requests has been handled. Waits for the client to make space if the response
+     * ring is full.
+     */
+    public void respond(final long correlationId,
+                        final int msgTypeId,
+                        final byte[] src,
+                        final int offset,
+                        final int length)
+    {
+        int msgIndex;
+        while (INSUFFICIENT_CAPACITY == (msgIndex = responseWriter.claim(msgTypeId, length + PAYLOAD_OFFSET)))
+        {
+            responseWriter.commit();
+            Thread.yield();
+        }
+
+        responseBuffer.putLong(msgIndex + CORRELATION_ID_OFFSET, correlationId);
+        responseBuffer.putBytes(msgIndex + PAYLOAD_OFFSET, src, offset, length);
+    }
+
+    private class RequestDecoder implements BufferMessageHandler
+    {
+        private RequestHandler requestHandler;
+
+        public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+        {
+            final long correlationId = buffer.getLong(index + CORRELATION_ID_OFFSET);
+            final int payloadLength = length - PAYLOAD_OFFSET;
+
+            final int payloadIndex = index + PAYLOAD_OFFSET;
+
+            requestHandler.onRequest(correlationId, msgTypeId, buffer, payloadIndex, payloadLength, DuplexServer.this);
+        }
+    }
+}
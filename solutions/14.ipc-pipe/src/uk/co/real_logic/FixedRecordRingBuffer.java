@@ -0,0 +1,256 @@
+package uk.co.real_logic;
+
+import java.nio.ByteBuffer;
+
+import static uk.co.real_logic.PipeDescriptor.*;
+import static uk.co.real_logic.RecordDescriptor.*;
+
+/**
+ * In-process ring of fixed length records held in a direct {@link ByteBuffer} for a single consumer.
+ *
+ * Records are encoded and decoded in place with a {@link Flyweight} rather than as objects, so the ring holds no
+ * references for the garbage collector to mark or retain. Each slot has the same header as a pipe record and a
+ * record is only visible to the consumer once the length has been committed. Consumed slots are zeroed before the
+ * head is advanced. The head and tail counters live in a trailer laid out as for a pipe.
+ */
+public class FixedRecordRingBuffer
+{
+    private final int capacity;
+    private final int mask;
+    private final int recordLength;
+    private final int slotLength;
+    private final int headCounterIndex;
+    private final int tailCounterIndex;
+    private final ClaimMode claimMode;
+
+    private long headCounterCache = INITIAL_COUNT;
+    private final AtomicBuffer atomicBuffer;
+
+    public FixedRecordRingBuffer(final int capacity, final int recordLength, final ClaimMode claimMode)
+    {
+        if (Integer.bitCount(capacity) != 1)
+        {
+            String msg = "capacity must be a power of 2 in size: capacity=" + capacity;
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (recordLength <= 0)
+        {
+            throw new IllegalArgumentException("recordLength must be positive: recordLength=" + recordLength);
+        }
+
+        this.capacity = capacity;
+        this.recordLength = recordLength;
+        this.claimMode = claimMode;
+        mask = capacity - 1;
+        slotLength = align(recordLength + HEADER_LENGTH);
+
+        final int ringLength = capacity * slotLength;
+        headCounterIndex = ringLength + READ_COUNTER_TRAILER_OFFSET;
+        tailCounterIndex = ringLength + WRITE_COUNTER_TRAILER_OFFSET;
+
+        atomicBuffer = new AtomicBuffer(ByteBuffer.allocateDirect(ringLength + TRAILER_SIZE));
+    }
+
+    /**
+     * @return the number of records the ring can hold.
+     */
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    public int recordLength()
+    {
+        return recordLength;
+    }
+
+    public ClaimMode claimMode()
+    {
+        return claimMode;
+    }
+
+    /**
+     * Buffer over the ring into which claimed records are encoded.
+     */
+    public AtomicBuffer buffer()
+    {
+        return atomicBuffer;
+    }
+
+    public int size()
+    {
+        long head;
+        long tail;
+        do
+        {
+            head = atomicBuffer.getLongVolatile(headCounterIndex);
+            tail = atomicBuffer.getLongVolatile(tailCounterIndex);
+        }
+        while (head != atomicBuffer.getLongVolatile(headCounterIndex));
+
+        return (int)(tail - head);
+    }
+
+    /**
+     * Claim the next record so it can be encoded in place. The record must be passed to {@link #commit(int)} once
+     * encoded, otherwise the consumer will stall on it.
+     *
+     * @param msgTypeId to be passed to the consumer with the record.
+     * @return the index in the buffer at which to encode the record, or {@link PipeDescriptor#INSUFFICIENT_CAPACITY}
+     * if the ring is full.
+     */
+    public int claim(final int msgTypeId)
+    {
+        if (msgTypeId < 0)
+        {
+            throw new IllegalArgumentException("msgTypeId must not be negative: msgTypeId=" + msgTypeId);
+        }
+
+        final long tail = ClaimMode.SINGLE_PRODUCER == claimMode ? claimSingle() : claimMulti();
+        if (tail < 0)
+        {
+            return INSUFFICIENT_CAPACITY;
+        }
+
+        final int slotIndex = ((int)tail & mask) * slotLength;
+        atomicBuffer.putInt(typeIndex(slotIndex), msgTypeId);
+
+        return msgIndex(slotIndex);
+    }
+
+    /**
+     * Make a record returned by {@link #claim(int)} visible to the consumer.
+     *
+     * @param index returned from the claim of the record.
+     */
+    public void commit(final int index)
+    {
+        atomicBuffer.putIntRelease(lengthIndex(index - HEADER_LENGTH), recordLength + HEADER_LENGTH);
+    }
+
+    /**
+     * Claim, copy in and commit a record from a byte array.
+     *
+     * @return true if the record was written or false if the ring is full.
+     */
+    public boolean write(final int msgTypeId, final byte[] src, final int offset, final int length)
+    {
+        if (length > recordLength)
+        {
+            String msg = "message exceeds recordLength of " + recordLength + ": length=" + length;
+            throw new IllegalArgumentException(msg);
+        }
+
+        final int index = claim(msgTypeId);
+        if (INSUFFICIENT_CAPACITY == index)
+        {
+            return false;
+        }
+
+        atomicBuffer.putBytes(index, src, offset, length);
+        commit(index);
+
+        return true;
+    }
+
+    /**
+     * Read the committed records available and pass each to the handler in place. Only one thread may read.
+     *
+     * @return the number of records read.
+     */
+    public int read(final BufferMessageHandler handler)
+    {
+        return read(handler, capacity);
+    }
+
+    /**
+     * Read up to limit committed records and pass each to the handler in place. Only one thread may read.
+     *
+     * The slots read are zeroed and then released to the producers together once the handler has returned or thrown,
+     * so a record whose handler throws is still consumed.
+     *
+     * @return the number of records read.
+     */
+    public int read(final BufferMessageHandler handler, final int limit)
+    {
+        final long head = atomicBuffer.getLong(headCounterIndex);
+        final int recordsLimit = Math.min(limit, capacity);
+        int recordsRead = 0;
+
+        try
+        {
+            while (recordsRead < recordsLimit)
+            {
+                final int slotIndex = ((int)(head + recordsRead) & mask) * slotLength;
+                if (0 == atomicBuffer.getIntAcquire(lengthIndex(slotIndex)))
+                {
+                    break;
+                }
+
+                final int msgTypeId = atomicBuffer.getInt(typeIndex(slotIndex));
+
+                ++recordsRead;
+                handler.onMessage(msgTypeId, atomicBuffer, msgIndex(slotIndex), recordLength);
+            }
+        }
+        finally
+        {
+            if (0 != recordsRead)
+            {
+                final int firstSlot = (int)head & mask;
+                final int slotsToEnd = Math.min(recordsRead, capacity - firstSlot);
+                atomicBuffer.setMemory(firstSlot * slotLength, slotsToEnd * slotLength, (byte)0);
+                if (recordsRead > slotsToEnd)
+                {
+                    atomicBuffer.setMemory(0, (recordsRead - slotsToEnd) * slotLength, (byte)0);
+                }
+
+                atomicBuffer.putLongRelease(headCounterIndex, head + recordsRead);
+            }
+        }
+
+        return recordsRead;
+    }
+
+    private long claimSingle()
+    {
+        final long tail = atomicBuffer.getLong(tailCounterIndex);
+        if (!hasAvailableCapacity(tail))
+        {
+            return -1;
+        }
+
+        atomicBuffer.putLongRelease(tailCounterIndex, tail + 1);
+
+        return tail;
+    }
+
+    private long claimMulti()
+    {
+        long tail;
+        do
+        {
+            tail = atomicBuffer.getLongVolatile(tailCounterIndex);
+            if (tail - atomicBuffer.getLongVolatile(headCounterIndex) >= capacity)
+            {
+                return -1;
+            }
+        }
+        while (!atomicBuffer.compareAndSetLong(tailCounterIndex, tail, tail + 1));
+
+        return tail;
+    }
+
+    private boolean hasAvailableCapacity(final long tail)
+    {
+        if (tail - headCounterCache >= capacity)
+        {
+            headCounterCache = atomicBuffer.getLongAcquire(headCounterIndex);
+
+            return tail - headCounterCache < capacity;
+        }
+
+        return true;
+    }
+}
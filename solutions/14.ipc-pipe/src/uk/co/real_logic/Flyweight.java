@@ -0,0 +1,40 @@
+package uk.co.real_logic;
+
+import java.nio.ByteOrder;
+
+/**
+ * Base for codecs that encode and decode fixed-layout messages in place over an {@link AtomicBuffer}.
+ *
+ * A flyweight holds no message state of its own; it is wrapped over the region of the buffer holding a message
+ * and reused for each message so that encoding and decoding allocate nothing.
+ */
+public abstract class Flyweight
+{
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    protected AtomicBuffer buffer;
+    protected int offset;
+
+    protected void wrapBuffer(final AtomicBuffer buffer, final int offset)
+    {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public AtomicBuffer buffer()
+    {
+        return buffer;
+    }
+
+    public int offset()
+    {
+        return offset;
+    }
+
+    /**
+     * The number of bytes the encoded message occupies in the buffer.
+     *
+     * @return the number of bytes the encoded message occupies in the buffer.
+     */
+    public abstract int length();
+}
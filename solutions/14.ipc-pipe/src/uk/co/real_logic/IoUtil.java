@@ -0,0 +1,278 @@
+package uk.co.real_logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Helpers for creating the files backing memory-mapped pipes and journals.
+ */
+public class IoUtil
+{
+    public static final int PAGE_SIZE = 4 * 1024;
+    public static final int HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+
+    private static final int ALLOCATION_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Size a file to the given length with all bytes zero, discarding any existing content. The zeros are written
+     * in large chunks so the file system allocates every block now, and running out of space fails here rather than
+     * as a SIGBUS when a page of the mapping is first written.
+     *
+     * @param randomAccessFile to be sized.
+     * @param length of the file in bytes.
+     */
+    public static void allocate(final RandomAccessFile randomAccessFile, final long length)
+        throws IOException
+    {
+        randomAccessFile.setLength(0);
+
+        final byte[] zeros = new byte[(int)Math.min(length, ALLOCATION_CHUNK_SIZE)];
+        long remaining = length;
+        while (remaining > 0)
+        {
+            final int chunkLength = (int)Math.min(remaining, zeros.length);
+            randomAccessFile.write(zeros, 0, chunkLength);
+            remaining -= chunkLength;
+        }
+    }
+
+    /**
+     * Size a file to the given length with all bytes zero, discarding any existing content, by only setting its
+     * length. The file is sparse so blocks are allocated as pages are first written. Required on hugetlbfs, which
+     * does not support write calls and reserves its huge pages when the file is mapped.
+     *
+     * @param randomAccessFile to be sized.
+     * @param length of the file in bytes.
+     */
+    public static void allocateSparse(final RandomAccessFile randomAccessFile, final long length)
+        throws IOException
+    {
+        randomAccessFile.setLength(0);
+        randomAccessFile.setLength(length);
+    }
+
+    /**
+     * Size a file to be mapped with the given page size, sparsely if the page size is larger than {@link #PAGE_SIZE}
+     * as the file must then be on hugetlbfs.
+     *
+     * @param randomAccessFile to be sized.
+     * @param length of the file in bytes.
+     * @param pageSize of the mapping.
+     */
+    public static void allocate(final RandomAccessFile randomAccessFile, final long length, final int pageSize)
+        throws IOException
+    {
+        if (pageSize > PAGE_SIZE)
+        {
+            allocateSparse(randomAccessFile, length);
+        }
+        else
+        {
+            allocate(randomAccessFile, length);
+        }
+    }
+
+    /**
+     * Round a length up to a multiple of the page size, as required for mappings of files on hugetlbfs.
+     *
+     * @param length to be rounded up.
+     * @param pageSize which must be a power of 2.
+     * @return the length rounded up to the next multiple of the page size.
+     */
+    public static int alignToPageSize(final int length, final int pageSize)
+    {
+        if (Integer.bitCount(pageSize) != 1)
+        {
+            throw new IllegalArgumentException("pageSize must be a power of 2 in size: pageSize=" + pageSize);
+        }
+
+        return (length + (pageSize - 1)) & ~(pageSize - 1);
+    }
+
+    /**
+     * Write a zero to the first byte of each page so the page faults for a new file are taken up front rather than
+     * on the first lap of the ring. Must only be applied to a region known to still be zero.
+     *
+     * @param atomicBuffer over the mapped file.
+     * @param length of the region to touch from the start of the buffer.
+     * @param pageSize of the mapping.
+     */
+    public static void preTouch(final AtomicBuffer atomicBuffer, final int length, final int pageSize)
+    {
+        for (int i = 0; i < length; i += pageSize)
+        {
+            atomicBuffer.putByte(i, (byte)0);
+        }
+    }
+
+    /**
+     * Create a file of the given length with all bytes zero and map it. The file is closed once mapped as the
+     * mapping remains valid until the buffer is garbage collected.
+     *
+     * @param file to be created or truncated.
+     * @param length of the file in bytes.
+     * @return the mapped file.
+     */
+    public static MappedByteBuffer mapNewFile(final File file, final int length)
+        throws IOException
+    {
+        return mapNewFile(file, length, PAGE_SIZE);
+    }
+
+    /**
+     * Create a file with all bytes zero, of the given length aligned to the page size, and map it. The file is
+     * closed once mapped as the mapping remains valid until the buffer is garbage collected.
+     *
+     * @param file to be created or truncated, which must be on hugetlbfs if the page size is larger than
+     *             {@link #PAGE_SIZE}.
+     * @param length of the file in bytes before alignment.
+     * @param pageSize of the mapping.
+     * @return the mapped file.
+     */
+    public static MappedByteBuffer mapNewFile(final File file, final int length, final int pageSize)
+        throws IOException
+    {
+        final FileChannel channel = openNewFile(file, length, pageSize);
+        try
+        {
+            return map(channel);
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Create a file with all bytes zero, of the given length aligned to the page size, and open it for the caller
+     * to map and close.
+     *
+     * @param file to be created or truncated, which must be on hugetlbfs if the page size is larger than
+     *             {@link #PAGE_SIZE}.
+     * @param length of the file in bytes before alignment.
+     * @param pageSize of the mapping.
+     * @return the channel for the open file.
+     */
+    public static FileChannel openNewFile(final File file, final int length, final int pageSize)
+        throws IOException
+    {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try
+        {
+            allocate(randomAccessFile, alignToPageSize(length, pageSize), pageSize);
+        }
+        catch (final IOException ex)
+        {
+            randomAccessFile.close();
+            throw ex;
+        }
+
+        return randomAccessFile.getChannel();
+    }
+
+    /**
+     * Map the whole of an existing file, waiting for its creator to size it to at least the given length.
+     *
+     * @param file to be mapped.
+     * @param minLength the file must reach before it is mapped.
+     * @return the mapped file.
+     */
+    public static MappedByteBuffer mapExistingFile(final File file, final int minLength)
+        throws IOException
+    {
+        return mapExistingFile(file, minLength, Long.MAX_VALUE);
+    }
+
+    /**
+     * Map the whole of an existing file, waiting up to a timeout for its creator to size it to at least the given
+     * length so a creator that dies before sizing the file does not leave the caller waiting forever.
+     *
+     * @param file to be mapped.
+     * @param minLength the file must reach before it is mapped.
+     * @param timeoutMs to wait for the file to reach the minimum length.
+     * @return the mapped file.
+     * @throws IllegalStateException if the file does not exist or does not reach the minimum length in time.
+     */
+    public static MappedByteBuffer mapExistingFile(final File file, final int minLength, final long timeoutMs)
+        throws IOException
+    {
+        final FileChannel channel = openExistingFile(file, minLength, timeoutMs);
+        try
+        {
+            return map(channel);
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Open an existing file for the caller to map and close, waiting up to a timeout for its creator to size it to
+     * at least the given length.
+     *
+     * @param file to be opened.
+     * @param minLength the file must reach before it is returned.
+     * @param timeoutMs to wait for the file to reach the minimum length.
+     * @return the channel for the open file.
+     * @throws IllegalStateException if the file does not exist or does not reach the minimum length in time.
+     */
+    public static FileChannel openExistingFile(final File file, final int minLength, final long timeoutMs)
+        throws IOException
+    {
+        if (!file.exists())
+        {
+            throw new IllegalStateException("file does not exist: " + file);
+        }
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        final long startMs = System.currentTimeMillis();
+        while (randomAccessFile.length() < minLength)
+        {
+            if (System.currentTimeMillis() - startMs > timeoutMs)
+            {
+                randomAccessFile.close();
+
+                String msg = "timed out waiting for file to reach length " + minLength + ": " + file;
+                throw new IllegalStateException(msg);
+            }
+
+            LockSupport.parkNanos(1);
+        }
+
+        return randomAccessFile.getChannel();
+    }
+
+    /**
+     * Map the whole of an open file for reading and writing.
+     *
+     * @param channel for the open file.
+     * @return the mapped file.
+     */
+    public static MappedByteBuffer map(final FileChannel channel)
+        throws IOException
+    {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    }
+
+    /**
+     * Get a view over a region of a buffer, for example one of several rings held in a single mapped file.
+     *
+     * @param buffer to take the view from.
+     * @param offset at which the region begins.
+     * @param length of the region.
+     * @return a buffer sharing the content of the region.
+     */
+    public static ByteBuffer slice(final ByteBuffer buffer, final int offset, final int length)
+    {
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(offset + length).position(offset);
+
+        return duplicate.slice();
+    }
+}
@@ -0,0 +1,52 @@
+package uk.co.real_logic;
+
+import java.io.File;
+
+/**
+ * Layout of a journal as a directory of fixed size segment files each named after the journal position at which
+ * it begins. Records use the {@link RecordDescriptor} layout and a padding record fills the end of a segment when
+ * the next record does not fit.
+ */
+public class JournalDescriptor
+{
+    public static final String SEGMENT_SUFFIX = ".journal";
+
+    public static void checkSegmentSize(final int segmentSize)
+    {
+        if (Integer.bitCount(segmentSize) != 1)
+        {
+            String msg = "segmentSize must be a power of 2 in size: segmentSize=" + segmentSize;
+            throw new IllegalArgumentException(msg);
+        }
+    }
+
+    public static long segmentBasePosition(final long position, final int segmentSize)
+    {
+        return position & ~((long)segmentSize - 1);
+    }
+
+    public static File segmentFile(final File directory, final long basePosition)
+    {
+        return new File(directory, String.format("%020d%s", Long.valueOf(basePosition), SEGMENT_SUFFIX));
+    }
+
+    public static long lastSegmentBasePosition(final File directory)
+    {
+        long lastBasePosition = -1;
+
+        final String[] fileNames = directory.list();
+        if (null != fileNames)
+        {
+            for (final String fileName : fileNames)
+            {
+                if (fileName.endsWith(SEGMENT_SUFFIX))
+                {
+                    final String basePosition = fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length());
+                    lastBasePosition = Math.max(lastBasePosition, Long.parseLong(basePosition));
+                }
+            }
+        }
+
+        return lastBasePosition;
+    }
+}
@@ -0,0 +1,127 @@
+package uk.co.real_logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static uk.co.real_logic.JournalDescriptor.*;
+import static uk.co.real_logic.RecordDescriptor.*;
+
+/**
+ * Reader of a journal written by a {@link JournalWriter}, starting from any record position to replay history and
+ * continuing to tail the live end as new messages are committed.
+ *
+ * Any number of readers can read a journal independently as they do not publish their position to the writer.
+ */
+public class JournalReader
+    implements Closeable
+{
+    private final File directory;
+    private final int segmentSize;
+
+    private long position;
+    private FileChannel channel;
+    private AtomicBuffer atomicBuffer;
+
+    public JournalReader(final File directory, final int segmentSize, final long position)
+    {
+        checkSegmentSize(segmentSize);
+
+        if (0 != (position & (RECORD_ALIGNMENT - 1)))
+        {
+            throw new IllegalArgumentException("position must be aligned to a record: position=" + position);
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.position = position;
+    }
+
+    public void close()
+        throws IOException
+    {
+        if (null != channel)
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * The position in the journal of the next message to be read.
+     *
+     * @return the position of the next message to be read.
+     */
+    public long position()
+    {
+        return position;
+    }
+
+    /**
+     * Read the committed messages available from the current position up to the end of its segment and pass each
+     * message to the handler in place.
+     *
+     * @return the number of messages read.
+     */
+    public int read(final BufferMessageHandler handler)
+        throws IOException
+    {
+        if (null == atomicBuffer && !mapSegment())
+        {
+            return 0;
+        }
+
+        final long segmentBasePosition = segmentBasePosition(position, segmentSize);
+        int recordIndex = (int)(position - segmentBasePosition);
+        int messagesRead = 0;
+
+        while (recordIndex < segmentSize)
+        {
+            final int recordLength = atomicBuffer.getIntVolatile(lengthIndex(recordIndex));
+            if (0 == recordLength)
+            {
+                break;
+            }
+
+            final int msgTypeId = atomicBuffer.getInt(typeIndex(recordIndex));
+            final int msgIndex = msgIndex(recordIndex);
+
+            recordIndex += align(recordLength);
+            position = segmentBasePosition + recordIndex;
+
+            if (PADDING_MSG_TYPE_ID != msgTypeId)
+            {
+                ++messagesRead;
+                handler.onMessage(msgTypeId, atomicBuffer, msgIndex, recordLength - HEADER_LENGTH);
+            }
+        }
+
+        if (recordIndex == segmentSize)
+        {
+            channel.close();
+            channel = null;
+            atomicBuffer = null;
+        }
+
+        return messagesRead;
+    }
+
+    private boolean mapSegment()
+        throws IOException
+    {
+        final File file = segmentFile(directory, segmentBasePosition(position, segmentSize));
+        if (!file.exists())
+        {
+            return false;
+        }
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+        final MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        atomicBuffer = new AtomicBuffer(mappedBuffer);
+
+        return true;
+    }
+}
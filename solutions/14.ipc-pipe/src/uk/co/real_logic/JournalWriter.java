@@ -0,0 +1,179 @@
+package uk.co.real_logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static uk.co.real_logic.JournalDescriptor.*;
+import static uk.co.real_logic.RecordDescriptor.*;
+
+/**
+ * Single writer appending messages to a persistent journal of memory-mapped segment files.
+ *
+ * Unlike a pipe the journal is never reused, so any position written can be replayed by a {@link JournalReader}.
+ * On construction the writer recovers its position by scanning the last segment for the first uncommitted record.
+ */
+public class JournalWriter
+    implements Closeable
+{
+    private final File directory;
+    private final int segmentSize;
+    private final int maxMessageLength;
+
+    private long position;
+    private FileChannel channel;
+    private AtomicBuffer atomicBuffer;
+
+    public JournalWriter(final File directory, final int segmentSize)
+        throws IOException
+    {
+        checkSegmentSize(segmentSize);
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IllegalStateException("cannot create directory: " + directory);
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        maxMessageLength = RecordDescriptor.maxMessageLength(segmentSize);
+
+        final long lastBasePosition = lastSegmentBasePosition(directory);
+        if (-1 == lastBasePosition)
+        {
+            position = 0;
+            mapSegment(position, true);
+        }
+        else
+        {
+            mapSegment(lastBasePosition, false);
+            position = lastBasePosition + scanForEndOfSegment();
+            if (position == lastBasePosition + segmentSize)
+            {
+                rollSegment();
+            }
+        }
+    }
+
+    public void close()
+        throws IOException
+    {
+        channel.close();
+    }
+
+    public int maxMessageLength()
+    {
+        return maxMessageLength;
+    }
+
+    /**
+     * The position in the journal at which the next message will be written.
+     *
+     * @return the position at which the next message will be written.
+     */
+    public long position()
+    {
+        return position;
+    }
+
+    /**
+     * Append a whole message to the journal, rolling to a new segment if it does not fit in the current one.
+     *
+     * @return the position in the journal at which the message was written.
+     */
+    public long write(final int msgTypeId, final byte[] src, final int offset, final int length)
+        throws IOException
+    {
+        if (msgTypeId < 0)
+        {
+            throw new IllegalArgumentException("msgTypeId must not be negative: msgTypeId=" + msgTypeId);
+        }
+
+        if (length > maxMessageLength)
+        {
+            String msg = "message exceeds maxMessageLength of " + maxMessageLength + ": length=" + length;
+            throw new IllegalArgumentException(msg);
+        }
+
+        final int recordLength = length + HEADER_LENGTH;
+        final int alignedRecordLength = align(recordLength);
+
+        int recordIndex = (int)(position - segmentBasePosition(position, segmentSize));
+        final int bytesToEndOfSegment = segmentSize - recordIndex;
+        if (alignedRecordLength > bytesToEndOfSegment)
+        {
+            atomicBuffer.putInt(typeIndex(recordIndex), PADDING_MSG_TYPE_ID);
+            atomicBuffer.putOrderedInt(lengthIndex(recordIndex), bytesToEndOfSegment);
+
+            position += bytesToEndOfSegment;
+            rollSegment();
+            recordIndex = 0;
+        }
+
+        final long recordPosition = position;
+
+        atomicBuffer.putInt(typeIndex(recordIndex), msgTypeId);
+        atomicBuffer.putBytes(msgIndex(recordIndex), src, offset, length);
+        atomicBuffer.putOrderedInt(lengthIndex(recordIndex), recordLength);
+
+        position += alignedRecordLength;
+        if (position == segmentBasePosition(position, segmentSize))
+        {
+            rollSegment();
+        }
+
+        return recordPosition;
+    }
+
+    private void rollSegment()
+        throws IOException
+    {
+        channel.close();
+        mapSegment(position, true);
+    }
+
+    private void mapSegment(final long basePosition, final boolean create)
+        throws IOException
+    {
+        final File file = segmentFile(directory, basePosition);
+
+        if (create)
+        {
+            // zero fill under a temporary name so readers never map a partially created segment
+            final File tmpFile = new File(directory, file.getName() + ".tmp");
+            final RandomAccessFile tmpRandomAccessFile = new RandomAccessFile(tmpFile, "rw");
+            IoUtil.allocate(tmpRandomAccessFile, segmentSize);
+            tmpRandomAccessFile.close();
+
+            if (!tmpFile.renameTo(file))
+            {
+                throw new IllegalStateException("cannot create segment: " + file);
+            }
+        }
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+        final MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        atomicBuffer = new AtomicBuffer(mappedBuffer);
+    }
+
+    private int scanForEndOfSegment()
+    {
+        int recordIndex = 0;
+        while (recordIndex < segmentSize)
+        {
+            final int recordLength = atomicBuffer.getIntVolatile(lengthIndex(recordIndex));
+            if (0 == recordLength)
+            {
+                break;
+            }
+
+            recordIndex += align(recordLength);
+        }
+
+        return recordIndex;
+    }
+}
@@ -0,0 +1,140 @@
+package uk.co.real_logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static uk.co.real_logic.PipeDescriptor.*;
+import static uk.co.real_logic.RecordDescriptor.*;
+
+/**
+ * Single reader for a pipe written to by many {@link ManyToOneMemoryMappedPipeWriter}s.
+ *
+ * The reader creates the pipe file. A record is only visible once its writer has committed the length. Consumed
+ * records are zeroed before the read counter is advanced so uncommitted records can be detected on the next lap.
+ */
+public class ManyToOneMemoryMappedPipeReader
+    implements Closeable
+{
+    private final int mask;
+    private final int capacity;
+    private final int readCounterIndex;
+    private final int writeCounterIndex;
+
+    private final FileChannel channel;
+    private final AtomicBuffer atomicBuffer;
+
+    public ManyToOneMemoryMappedPipeReader(final File file, final int capacity)
+        throws IOException
+    {
+        this(file, capacity, IoUtil.PAGE_SIZE, false);
+    }
+
+    /**
+     * Create the pipe file and map it.
+     *
+     * @param file to be created, which must be on hugetlbfs if the pageSize is the huge page size.
+     * @param capacity of the ring which must be a power of 2.
+     * @param pageSize of the mapping, to which the file size will be aligned.
+     * @param preTouch the pages of the ring so their page faults are taken now rather than on the first lap.
+     */
+    public ManyToOneMemoryMappedPipeReader(final File file,
+                                           final int capacity,
+                                           final int pageSize,
+                                           final boolean preTouch)
+        throws IOException
+    {
+        if (Integer.bitCount(capacity) != 1)
+        {
+            String msg = "capacity must be a power of 2 in size: capacity=" + capacity;
+            throw new IllegalArgumentException(msg);
+        }
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+
+        final int fileSize = IoUtil.alignToPageSize(capacity + TRAILER_SIZE, pageSize);
+        IoUtil.allocate(randomAccessFile, fileSize, pageSize);
+
+        channel = randomAccessFile.getChannel();
+        final MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+
+        this.capacity = capacity;
+        mask = capacity - 1;
+        readCounterIndex = capacity + READ_COUNTER_TRAILER_OFFSET;
+        writeCounterIndex = capacity + WRITE_COUNTER_TRAILER_OFFSET;
+        final int readerConnectedIndex = capacity + READER_CONNECTED_FLAG_TRAILER_OFFSET;
+
+        atomicBuffer = new AtomicBuffer(mappedBuffer);
+        if (preTouch)
+        {
+            IoUtil.preTouch(atomicBuffer, capacity, pageSize);
+        }
+
+        atomicBuffer.putLongVolatile(readerConnectedIndex, 1);
+    }
+
+    public void close()
+        throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Read the committed message records available up to the end of the ring and pass each message to the handler
+     * in place.
+     *
+     * @return the number of messages read.
+     */
+    public int read(final BufferMessageHandler handler)
+    {
+        final long readCounter = atomicBuffer.getLongVolatile(readCounterIndex);
+        final long writeCounter = atomicBuffer.getLongVolatile(writeCounterIndex);
+
+        if (readCounter == writeCounter)
+        {
+            return 0;
+        }
+
+        final int readIndex = (int)readCounter & mask;
+        final int contiguousBlockLength = (int)Math.min(writeCounter - readCounter, capacity - readIndex);
+
+        int messagesRead = 0;
+        int bytesRead = 0;
+
+        try
+        {
+            while (bytesRead < contiguousBlockLength)
+            {
+                final int recordIndex = readIndex + bytesRead;
+                final int recordLength = atomicBuffer.getIntVolatile(lengthIndex(recordIndex));
+                if (0 == recordLength)
+                {
+                    break;
+                }
+
+                final int msgTypeId = atomicBuffer.getInt(typeIndex(recordIndex));
+
+                bytesRead += align(recordLength);
+
+                if (PADDING_MSG_TYPE_ID != msgTypeId)
+                {
+                    ++messagesRead;
+                    handler.onMessage(msgTypeId, atomicBuffer, msgIndex(recordIndex), recordLength - HEADER_LENGTH);
+                }
+            }
+        }
+        finally
+        {
+            if (0 != bytesRead)
+            {
+                atomicBuffer.setMemory(readIndex, bytesRead, (byte)0);
+                atomicBuffer.putOrderedLong(readCounterIndex, readCounter + bytesRead);
+            }
+        }
+
+        return messagesRead;
+    }
+}
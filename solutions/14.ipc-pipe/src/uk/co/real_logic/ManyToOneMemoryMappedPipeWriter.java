@@ -0,0 +1,146 @@
+package uk.co.real_logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import static uk.co.real_logic.PipeDescriptor.*;
+import static uk.co.real_logic.RecordDescriptor.*;
+
+/**
+ * Writer for a pipe that many writers, in the same or different processes, can append messages to concurrently.
+ *
+ * Writers claim space by CAS on the write counter in the trailer and then commit a record by an ordered store of
+ * its length. The pipe file is created by the {@link ManyToOneMemoryMappedPipeReader}.
+ */
+public class ManyToOneMemoryMappedPipeWriter
+    implements Closeable
+{
+    private final int capacity;
+    private final int mask;
+    private final int readCounterIndex;
+    private final int writeCounterIndex;
+    private final int maxMessageLength;
+
+    private long readCounterCache = INITIAL_COUNT;
+    private final FileChannel channel;
+    private final AtomicBuffer atomicBuffer;
+
+    public ManyToOneMemoryMappedPipeWriter(final File file, final int capacity)
+        throws IOException
+    {
+        this(file, capacity, Long.MAX_VALUE);
+    }
+
+    /**
+     * Map an existing pipe file, waiting up to a timeout for the reader to create and size it so a reader that dies
+     * before sizing the file does not leave the writer waiting forever.
+     *
+     * @param file of the pipe created by the reader.
+     * @param capacity of the ring which must be a power of 2.
+     * @param timeoutMs to wait for the reader to size the file.
+     * @throws IllegalStateException if the file does not exist or is not sized within the timeout.
+     */
+    public ManyToOneMemoryMappedPipeWriter(final File file, final int capacity, final long timeoutMs)
+        throws IOException
+    {
+        this(IoUtil.openExistingFile(file, capacity + TRAILER_SIZE, timeoutMs), capacity);
+    }
+
+    private ManyToOneMemoryMappedPipeWriter(final FileChannel channel, final int capacity)
+        throws IOException
+    {
+        if (Integer.bitCount(capacity) != 1)
+        {
+            channel.close();
+
+            String msg = "capacity must be a power of 2 in size: capacity=" + capacity;
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.capacity = capacity;
+        mask = capacity - 1;
+        readCounterIndex = capacity + READ_COUNTER_TRAILER_OFFSET;
+        writeCounterIndex = capacity + WRITE_COUNTER_TRAILER_OFFSET;
+        maxMessageLength = RecordDescriptor.maxMessageLength(capacity);
+
+        this.channel = channel;
+        atomicBuffer = new AtomicBuffer(IoUtil.map(channel));
+    }
+
+    public void close()
+        throws IOException
+    {
+        channel.close();
+    }
+
+    public int maxMessageLength()
+    {
+        return maxMessageLength;
+    }
+
+    /**
+     * Write a whole message as a single record. Safe to call concurrently from many threads and processes.
+     *
+     * @return true if the message was written or false if there is insufficient space available.
+     */
+    public boolean write(final int msgTypeId, final byte[] src, final int offset, final int length)
+    {
+        if (msgTypeId < 0)
+        {
+            throw new IllegalArgumentException("msgTypeId must not be negative: msgTypeId=" + msgTypeId);
+        }
+
+        if (length > maxMessageLength)
+        {
+            String msg = "message exceeds maxMessageLength of " + maxMessageLength + ": length=" + length;
+            throw new IllegalArgumentException(msg);
+        }
+
+        final int recordLength = length + HEADER_LENGTH;
+        final int alignedRecordLength = align(recordLength);
+
+        long writeCounter;
+        int padding;
+        do
+        {
+            writeCounter = atomicBuffer.getLongVolatile(writeCounterIndex);
+            final int bytesToEndOfBuffer = capacity - ((int)writeCounter & mask);
+            padding = alignedRecordLength > bytesToEndOfBuffer ? bytesToEndOfBuffer : 0;
+
+            if (!hasAvailableCapacity(writeCounter, padding + alignedRecordLength))
+            {
+                return false;
+            }
+        }
+        while (!atomicBuffer.compareAndSetLong(writeCounterIndex, writeCounter, writeCounter + padding + alignedRecordLength));
+
+        int recordIndex = (int)writeCounter & mask;
+        if (0 != padding)
+        {
+            atomicBuffer.putInt(typeIndex(recordIndex), PADDING_MSG_TYPE_ID);
+            atomicBuffer.putOrderedInt(lengthIndex(recordIndex), padding);
+            recordIndex = 0;
+        }
+
+        atomicBuffer.putInt(typeIndex(recordIndex), msgTypeId);
+        atomicBuffer.putBytes(msgIndex(recordIndex), src, offset, length);
+        atomicBuffer.putOrderedInt(lengthIndex(recordIndex), recordLength);
+
+        return true;
+    }
+
+    private boolean hasAvailableCapacity(final long writeCounter, final int requiredCapacity)
+    {
+        final long bufferLimit = writeCounter + requiredCapacity - capacity;
+        if (bufferLimit > readCounterCache)
+        {
+            readCounterCache = atomicBuffer.getLongVolatile(readCounterIndex);
+
+            return bufferLimit <= readCounterCache;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package uk.co.real_logic;
+
+/**
+ * Counter held in a counters file so its value can be read by another process without touching the code that
+ * updates it. Offers the same operations as an in-heap AtomicCounter.
+ */
+public class MappedCounter
+{
+    private final int id;
+    private final int index;
+    private final AtomicBuffer atomicBuffer;
+
+    MappedCounter(final int id, final AtomicBuffer atomicBuffer, final int index)
+    {
+        this.id = id;
+        this.atomicBuffer = atomicBuffer;
+        this.index = index;
+    }
+
+    /**
+     * Identity of the counter within the counters file.
+     *
+     * @return identity of the counter within the counters file.
+     */
+    public int id()
+    {
+        return id;
+    }
+
+    public long get()
+    {
+        return atomicBuffer.getLongVolatile(index);
+    }
+
+    /**
+     * Set the value without a volatile store. Sufficient when the counter has a single writer.
+     *
+     * @param value to which the counter should be set.
+     */
+    public void setOrdered(final long value)
+    {
+        atomicBuffer.putOrderedLong(index, value);
+    }
+
+    /**
+     * Add to the value without an atomic instruction. Only safe when the counter has a single writer.
+     *
+     * @param delta to be added to the counter.
+     */
+    public void addOrdered(final long delta)
+    {
+        atomicBuffer.putOrderedLong(index, atomicBuffer.getLong(index) + delta);
+    }
+
+    public void setVolatile(final long value)
+    {
+        atomicBuffer.putLongVolatile(index, value);
+    }
+
+    public boolean compareAndSet(final long expectedValue, final long updateValue)
+    {
+        return atomicBuffer.compareAndSetLong(index, expectedValue, updateValue);
+    }
+
+    public long incrementAndGet()
+    {
+        return atomicBuffer.getAndAddLong(index, 1L) + 1L;
+    }
+
+    public long getAndIncrement()
+    {
+        return atomicBuffer.getAndAddLong(index, 1L);
+    }
+
+    public long getAndAdd(final long delta)
+    {
+        return atomicBuffer.getAndAddLong(index, delta);
+    }
+
+    public long addAndGet(final long delta)
+    {
+        return atomicBuffer.getAndAddLong(index, delta) + delta;
+    }
+
+    public String toString()
+    {
+        return Long.toString(get());
+    }
+}
@@ -3,12 +3,10 @@ package uk.co.real_logic;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.concurrent.locks.LockSupport;
 
 import static uk.co.real_logic.PipeDescriptor.*;
+import static uk.co.real_logic.RecordDescriptor.*;
 
 public class MemoryMappedPipeReader
     implements Closeable
@@ -18,50 +16,145 @@ public class MemoryMappedPipeReader
     private final int readCounterIndex;
     private final int writeCounterIndex;
     private final int eofIndex;
+    private final int readerConnectedIndex;
+    private final int readerHeartbeatIndex;
+    private final int writerHeartbeatIndex;
+    private final int writerPidIndex;
 
+    private final File file;
     private final FileChannel channel;
     private final AtomicBuffer atomicBuffer;
+    private final byte[] messageBuffer;
+    private final CopyingMessageHandler copyingHandler = new CopyingMessageHandler();
 
     public MemoryMappedPipeReader(final File file, final int capacity)
         throws IOException
     {
-        if (Integer.bitCount(capacity) != 1)
-        {
-            String msg = "capacity must be a power of 2 in size: capacity=" + capacity;
-            throw new IllegalArgumentException(msg);
-        }
+        this(file, capacity, Long.MAX_VALUE);
+    }
 
-        if (!file.exists())
-        {
-            throw new IllegalStateException("file does not exist: " + file);
-        }
+    /**
+     * Map an existing pipe file, resuming from its persisted read counter if a previous reader has been connected.
+     * The whole file is mapped, so a file the writer aligned to the huge page size on hugetlbfs needs no option here.
+     *
+     * @param file of the pipe created by the writer.
+     * @param capacity of the ring which must be a power of 2.
+     * @param timeoutMs to wait for the writer to size the file.
+     * @throws IllegalStateException if the file does not exist or is not sized within the timeout.
+     */
+    public MemoryMappedPipeReader(final File file, final int capacity, final long timeoutMs)
+        throws IOException
+    {
+        this(file, IoUtil.openExistingFile(file, capacity + TRAILER_SIZE, timeoutMs), capacity);
+    }
 
-        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    private MemoryMappedPipeReader(final File file, final FileChannel channel, final int capacity)
+        throws IOException
+    {
+        this(file, channel, new AtomicBuffer(IoUtil.map(channel)), capacity);
+    }
 
-        final int fileSize = capacity + TRAILER_SIZE;
-        while (randomAccessFile.length() != fileSize)
+    /**
+     * Read from a ring of the given capacity, followed by its trailer, held in a buffer shared with the writer.
+     * The buffer remains owned by the caller and is not released on close.
+     *
+     * @param atomicBuffer holding the ring and trailer.
+     * @param capacity of the ring which must be a power of 2.
+     */
+    public MemoryMappedPipeReader(final AtomicBuffer atomicBuffer, final int capacity)
+    {
+        this(null, null, atomicBuffer, capacity);
+    }
+
+    private MemoryMappedPipeReader(final File file,
+                                   final FileChannel channel,
+                                   final AtomicBuffer atomicBuffer,
+                                   final int capacity)
+    {
+        if (Integer.bitCount(capacity) != 1)
         {
-            LockSupport.parkNanos(1);
+            String msg = "capacity must be a power of 2 in size: capacity=" + capacity;
+            throw new IllegalArgumentException(msg);
         }
 
         this.capacity = capacity;
-        channel = randomAccessFile.getChannel();
-        final MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
-
         mask = capacity - 1;
         readCounterIndex = capacity + READ_COUNTER_TRAILER_OFFSET;
         writeCounterIndex = capacity + WRITE_COUNTER_TRAILER_OFFSET;
         eofIndex = capacity + EOF_FLAG_TRAILER_OFFSET;
-        final int readerConnectedIndex = capacity + READER_CONNECTED_FLAG_TRAILER_OFFSET;
+        readerConnectedIndex = capacity + READER_CONNECTED_FLAG_TRAILER_OFFSET;
+        readerHeartbeatIndex = capacity + READER_HEARTBEAT_TRAILER_OFFSET;
+        writerHeartbeatIndex = capacity + WRITER_HEARTBEAT_TRAILER_OFFSET;
+        writerPidIndex = capacity + WRITER_PID_TRAILER_OFFSET;
 
-        atomicBuffer = new AtomicBuffer(mappedBuffer);
+        messageBuffer = new byte[maxMessageLength(capacity)];
+
+        this.file = file;
+        this.channel = channel;
+        this.atomicBuffer = atomicBuffer;
+        atomicBuffer.putLongVolatile(capacity + READER_PID_TRAILER_OFFSET, Util.getPid());
+        heartbeat();
         atomicBuffer.putLongVolatile(readerConnectedIndex, 1);
     }
 
     public void close()
         throws IOException
     {
-        channel.close();
+        atomicBuffer.putLongVolatile(readerConnectedIndex, 0);
+        if (null != channel)
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Record that the reader is alive. The read operations do not read the clock, so a reader should heartbeat
+     * from its duty cycle more often than the timeout its writer uses to check for liveness.
+     */
+    public void heartbeat()
+    {
+        atomicBuffer.putOrderedLong(readerHeartbeatIndex, System.currentTimeMillis());
+    }
+
+    /**
+     * Is the writer still open and has it heartbeated within the timeout. A writer which has died leaves the pipe
+     * without EOF so this is how a reader detects it and knows to wait for the writer to reconnect.
+     *
+     * @param timeoutMs without a heartbeat after which the writer is considered dead.
+     * @return true if the writer has not closed the pipe and has heartbeated within the timeout.
+     */
+    public boolean isWriterAlive(final long timeoutMs)
+    {
+        return !isEof() && System.currentTimeMillis() - atomicBuffer.getLongVolatile(writerHeartbeatIndex) <= timeoutMs;
+    }
+
+    /**
+     * The process id of the writer last connected to the pipe.
+     *
+     * @return the process id of the writer.
+     */
+    public long writerPid()
+    {
+        return atomicBuffer.getLongVolatile(writerPidIndex);
+    }
+
+    /**
+     * Allocate a counter for this reader so the pipe can be monitored by a {@link CountersReader} from another
+     * process. "bytes read" is linked to the read counter in the trailer of the pipe file, so publishing it costs
+     * nothing more.
+     *
+     * @param countersManager in which to allocate the counter.
+     * @param name of the pipe used as a prefix for the counter label.
+     * @throws IllegalStateException if the reader was not opened on a pipe file.
+     */
+    public void addCounters(final CountersManager countersManager, final String name)
+    {
+        if (null == file)
+        {
+            throw new IllegalStateException("reader was not opened on a pipe file");
+        }
+
+        countersManager.newCounter(name + " bytes read", file, readCounterIndex);
     }
 
     public boolean isEof()
@@ -72,11 +165,12 @@ public class MemoryMappedPipeReader
     public int read(final byte[] dst, final int offset, final int count)
         throws IOException
     {
+        final boolean eof = isEof();
         final long readCounter = atomicBuffer.getLongVolatile(readCounterIndex);
         final long writeCounter = atomicBuffer.getLongVolatile(writeCounterIndex);
         final int availableBytes = (int)(writeCounter - readCounter);
 
-        if (0 == availableBytes && isEof())
+        if (0 == availableBytes && eof)
         {
             return EOF;
         }
@@ -88,8 +182,94 @@ public class MemoryMappedPipeReader
         bytesToRead = Math.min(bytesToRead, bytesToEndOfBuffer);
 
         atomicBuffer.getBytes(posInSrc, dst, offset, bytesToRead);
-        atomicBuffer.putOrderedLong(readCounterIndex, readCounter + bytesToRead);
+        publishReadCounter(readCounter + bytesToRead);
 
         return bytesToRead;
     }
+
+    /**
+     * Read all message records available in the pipe and pass each whole message to the handler, copied out of the
+     * mapped region so the handler can work with a byte array.
+     *
+     * The read counter is published once for the batch of messages read, even if the handler throws, in which case
+     * the message it threw on is consumed along with those before it.
+     *
+     * @return the number of messages read or {@link PipeDescriptor#EOF} if the writer has closed the pipe.
+     */
+    public int read(final MessageHandler handler)
+    {
+        copyingHandler.delegate = handler;
+        try
+        {
+            return readInPlace(copyingHandler);
+        }
+        finally
+        {
+            copyingHandler.delegate = null;
+        }
+    }
+
+    /**
+     * Read all message records available in the pipe and pass each message to the handler in place without copying.
+     *
+     * The read counter is published once for the batch of messages read, after the handler has returned or thrown,
+     * so the ring space of a message is never released while the handler is still using it. A message whose handler
+     * throws is consumed along with those before it, as with {@link FixedRecordRingBuffer#read(BufferMessageHandler)}.
+     *
+     * @return the number of messages read or {@link PipeDescriptor#EOF} if the writer has closed the pipe.
+     */
+    public int readInPlace(final BufferMessageHandler handler)
+    {
+        final boolean eof = isEof();
+        final long readCounter = atomicBuffer.getLongVolatile(readCounterIndex);
+        final long writeCounter = atomicBuffer.getLongVolatile(writeCounterIndex);
+
+        if (readCounter == writeCounter)
+        {
+            return eof ? EOF : 0;
+        }
+
+        int messagesRead = 0;
+        long position = readCounter;
+
+        try
+        {
+            while (position < writeCounter)
+            {
+                final int recordIndex = (int)position & mask;
+                final int recordLength = atomicBuffer.getInt(lengthIndex(recordIndex));
+                final int msgTypeId = atomicBuffer.getInt(typeIndex(recordIndex));
+
+                position += align(recordLength);
+
+                if (PADDING_MSG_TYPE_ID != msgTypeId)
+                {
+                    ++messagesRead;
+                    handler.onMessage(msgTypeId, atomicBuffer, msgIndex(recordIndex), recordLength - HEADER_LENGTH);
+                }
+            }
+        }
+        finally
+        {
+            publishReadCounter(position);
+        }
+
+        return messagesRead;
+    }
+
+    private void publishReadCounter(final long readCounter)
+    {
+        atomicBuffer.putOrderedLong(readCounterIndex, readCounter);
+    }
+
+    private class CopyingMessageHandler implements BufferMessageHandler
+    {
+        private MessageHandler delegate;
+
+        public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+        {
+            buffer.getBytes(index, messageBuffer, 0, length);
+            delegate.onMessage(msgTypeId, messageBuffer, 0, length);
+        }
+    }
 }
@@ -4,11 +4,14 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.MappedByteBuffer;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.util.concurrent.locks.LockSupport;
 
 import static uk.co.real_logic.PipeDescriptor.*;
+import static uk.co.real_logic.RecordDescriptor.*;
 
 public class MemoryMappedPipeWriter
     implements Closeable
@@ -19,30 +22,108 @@ public class MemoryMappedPipeWriter
     private final int writeCounterIndex;
     private final int eofIndex;
     private final int readerConnectedIndex;
+    private final int readerHeartbeatIndex;
+    private final int readerPidIndex;
+    private final int writerHeartbeatIndex;
+    private final int maxMessageLength;
 
     private long readCounterCache = INITIAL_COUNT;
+    private long writeCounter;
+    private MappedCounter backPressureCounter;
+    private final File file;
     private final FileChannel channel;
+    private final FileLock writerLock;
     private final AtomicBuffer atomicBuffer;
 
     public MemoryMappedPipeWriter(final File file, final int capacity)
         throws IOException
     {
-        if (Integer.bitCount(capacity) != 1)
+        this(file, capacity, IoUtil.PAGE_SIZE, false);
+    }
+
+    /**
+     * Create the pipe file and map it.
+     *
+     * @param file to be created, which can be on hugetlbfs if the pageSize is the huge page size.
+     * @param capacity of the ring which must be a power of 2.
+     * @param pageSize of the mapping, to which the file size will be aligned.
+     * @param preTouch the pages of the ring so their page faults are taken now rather than on the first lap.
+     */
+    public MemoryMappedPipeWriter(final File file, final int capacity, final int pageSize, final boolean preTouch)
+        throws IOException
+    {
+        this(file, createLocked(file, capacity, pageSize), capacity);
+
+        if (preTouch)
         {
-            String msg = "capacity must be a power of 2 in size: capacity=" + capacity;
-            throw new IllegalArgumentException(msg);
+            IoUtil.preTouch(atomicBuffer, capacity, pageSize);
         }
+    }
 
-        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    /**
+     * Reconnect to an existing pipe file, for example after the previous writer has crashed, resuming from the
+     * persisted write counter. Records the previous writer claimed but did not commit are discarded.
+     *
+     * A writer opened on a file holds a lock on it until closed, which the operating system releases if its process
+     * dies, so a writer which is alive but has stalled past the timeout is never taken over.
+     *
+     * @param file of the existing pipe.
+     * @param capacity of the ring which must be a power of 2.
+     * @param timeoutMs without a heartbeat after which the previous writer is considered dead.
+     * @return a writer which continues the pipe.
+     * @throws IllegalStateException if the previous writer still holds the pipe, or has not closed it and is still
+     * heartbeating.
+     */
+    public static MemoryMappedPipeWriter reconnect(final File file, final int capacity, final long timeoutMs)
+        throws IOException
+    {
+        final FileChannel channel = IoUtil.openExistingFile(file, capacity + TRAILER_SIZE, 0);
+        final AtomicBuffer atomicBuffer = new AtomicBuffer(IoUtil.map(channel));
+        final FileLock writerLock = tryLockWriter(channel, capacity);
 
-        final int fileSize = capacity + TRAILER_SIZE;
-        for (int i = 0; i < fileSize; i++)
+        final boolean eof = TRUE == atomicBuffer.getLongVolatile(capacity + EOF_FLAG_TRAILER_OFFSET);
+        final long writerHeartbeat = atomicBuffer.getLongVolatile(capacity + WRITER_HEARTBEAT_TRAILER_OFFSET);
+        if (null == writerLock || (!eof && System.currentTimeMillis() - writerHeartbeat <= timeoutMs))
         {
-            randomAccessFile.writeByte(0);
+            channel.close();
+
+            final long writerPid = atomicBuffer.getLongVolatile(capacity + WRITER_PID_TRAILER_OFFSET);
+            throw new IllegalStateException("pipe has an active writer: pid=" + writerPid);
         }
 
-        channel = randomAccessFile.getChannel();
-        final MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        return new MemoryMappedPipeWriter(file, channel, writerLock, atomicBuffer, capacity);
+    }
+
+    private MemoryMappedPipeWriter(final File file, final FileLock writerLock, final int capacity)
+        throws IOException
+    {
+        this(file, writerLock.channel(), writerLock, new AtomicBuffer(IoUtil.map(writerLock.channel())), capacity);
+    }
+
+    /**
+     * Write to a ring of the given capacity, followed by its trailer, held in a buffer which is either zeroed or
+     * holds a pipe left by a previous writer, in which case writing resumes from its persisted write counter.
+     * The buffer remains owned by the caller and is not released on close.
+     *
+     * @param atomicBuffer holding the ring and trailer.
+     * @param capacity of the ring which must be a power of 2.
+     */
+    public MemoryMappedPipeWriter(final AtomicBuffer atomicBuffer, final int capacity)
+    {
+        this(null, null, null, atomicBuffer, capacity);
+    }
+
+    private MemoryMappedPipeWriter(final File file,
+                                   final FileChannel channel,
+                                   final FileLock writerLock,
+                                   final AtomicBuffer atomicBuffer,
+                                   final int capacity)
+    {
+        if (Integer.bitCount(capacity) != 1)
+        {
+            String msg = "capacity must be a power of 2 in size: capacity=" + capacity;
+            throw new IllegalArgumentException(msg);
+        }
 
         this.capacity = capacity;
         mask = capacity - 1;
@@ -50,34 +131,105 @@ public class MemoryMappedPipeWriter
         writeCounterIndex = capacity + WRITE_COUNTER_TRAILER_OFFSET;
         eofIndex = capacity + EOF_FLAG_TRAILER_OFFSET;
         readerConnectedIndex = capacity + READER_CONNECTED_FLAG_TRAILER_OFFSET;
+        readerHeartbeatIndex = capacity + READER_HEARTBEAT_TRAILER_OFFSET;
+        readerPidIndex = capacity + READER_PID_TRAILER_OFFSET;
+        writerHeartbeatIndex = capacity + WRITER_HEARTBEAT_TRAILER_OFFSET;
+        maxMessageLength = RecordDescriptor.maxMessageLength(capacity);
+
+        this.file = file;
+        this.channel = channel;
+        this.writerLock = writerLock;
+        this.atomicBuffer = atomicBuffer;
+        writeCounter = atomicBuffer.getLongVolatile(writeCounterIndex);
+        readCounterCache = atomicBuffer.getLongVolatile(readCounterIndex);
 
-        atomicBuffer = new AtomicBuffer(mappedBuffer);
+        atomicBuffer.putLongVolatile(capacity + WRITER_PID_TRAILER_OFFSET, Util.getPid());
+        heartbeat();
+        atomicBuffer.putLongVolatile(eofIndex, 0);
     }
 
     public void waitForReaderToConnect()
     {
+        waitForReaderToConnect(Long.MAX_VALUE);
+    }
+
+    /**
+     * Wait for a reader to connect, heartbeating while waiting.
+     *
+     * @param timeoutMs to wait for the reader.
+     * @return true if a reader connected or false if the timeout expired first.
+     */
+    public boolean waitForReaderToConnect(final long timeoutMs)
+    {
+        final long startMs = System.currentTimeMillis();
         while (0 == atomicBuffer.getLongVolatile(readerConnectedIndex))
         {
+            final long nowMs = System.currentTimeMillis();
+            if (nowMs - startMs > timeoutMs)
+            {
+                return false;
+            }
+
+            atomicBuffer.putOrderedLong(writerHeartbeatIndex, nowMs);
             LockSupport.parkNanos(1);
         }
+
+        return true;
+    }
+
+    /**
+     * Record that the writer is alive. The write operations only heartbeat when they refresh their view of the read
+     * counter, which is at least once a lap of the ring, so a writer should also heartbeat from its duty cycle more
+     * often than the timeout its reader uses to check for liveness.
+     */
+    public void heartbeat()
+    {
+        atomicBuffer.putOrderedLong(writerHeartbeatIndex, System.currentTimeMillis());
+    }
+
+    /**
+     * Is a reader connected which has heartbeated within the timeout.
+     *
+     * @param timeoutMs without a heartbeat after which the reader is considered dead.
+     * @return true if the reader is connected and has heartbeated within the timeout.
+     */
+    public boolean isReaderAlive(final long timeoutMs)
+    {
+        return 0 != atomicBuffer.getLongVolatile(readerConnectedIndex) &&
+            System.currentTimeMillis() - atomicBuffer.getLongVolatile(readerHeartbeatIndex) <= timeoutMs;
+    }
+
+    /**
+     * The process id of the reader last connected to the pipe.
+     *
+     * @return the process id of the reader or 0 if a reader has never connected.
+     */
+    public long readerPid()
+    {
+        return atomicBuffer.getLongVolatile(readerPidIndex);
     }
 
     public void close()
         throws IOException
     {
         atomicBuffer.putLongVolatile(eofIndex, 1);
-        channel.close();
+        if (null != channel)
+        {
+            writerLock.release();
+            channel.close();
+        }
     }
 
     public int write(final byte[] src, final int offset, final int count)
         throws IOException
     {
-        final long writeCounter = atomicBuffer.getLongVolatile(writeCounterIndex);
         final long bufferLimit = writeCounter - capacity;
         if (bufferLimit >= readCounterCache)
         {
-            if (bufferLimit >= (readCounterCache = atomicBuffer.getLongVolatile(readCounterIndex)))
+            refreshReadCounterCache();
+            if (bufferLimit >= readCounterCache)
             {
+                onBackPressure();
                 return 0;
             }
         }
@@ -91,8 +243,304 @@ public class MemoryMappedPipeWriter
         bytesToWrite = Math.min(bytesToWrite, bytesToEndOfBuffer);
 
         atomicBuffer.putBytes(posInDst, src, offset, bytesToWrite);
-        atomicBuffer.putOrderedLong(writeCounterIndex, writeCounter + bytesToWrite);
+        writeCounter += bytesToWrite;
+        publishWriteCounter();
 
         return bytesToWrite;
     }
+
+    /**
+     * Gather as many bytes as there is space for from a sequence of buffers, publishing the write counter once for
+     * all of them. The position of each buffer is advanced by the number of bytes taken from it.
+     *
+     * @return the number of bytes written, which may be 0 if the pipe is full.
+     */
+    public long write(final ByteBuffer[] srcs)
+        throws IOException
+    {
+        long availableBuffer = capacity - (writeCounter - readCounterCache);
+        if (0 == availableBuffer)
+        {
+            refreshReadCounterCache();
+            availableBuffer = capacity - (writeCounter - readCounterCache);
+            if (0 == availableBuffer)
+            {
+                onBackPressure();
+                return 0;
+            }
+        }
+
+        long newWriteCounter = writeCounter;
+        for (int i = 0; i < srcs.length && availableBuffer > 0; i++)
+        {
+            final ByteBuffer src = srcs[i];
+            int remaining = src.remaining();
+            while (remaining > 0 && availableBuffer > 0)
+            {
+                final int posInDst = (int)newWriteCounter & mask;
+                final int bytesToEndOfBuffer = capacity - posInDst;
+
+                int bytesToWrite = (int)Math.min(remaining, availableBuffer);
+                bytesToWrite = Math.min(bytesToWrite, bytesToEndOfBuffer);
+
+                final int srcPosition = src.position();
+                atomicBuffer.putBytes(posInDst, src, srcPosition, bytesToWrite);
+                src.position(srcPosition + bytesToWrite);
+
+                newWriteCounter += bytesToWrite;
+                availableBuffer -= bytesToWrite;
+                remaining -= bytesToWrite;
+            }
+        }
+
+        final long bytesWritten = newWriteCounter - writeCounter;
+        if (0 != bytesWritten)
+        {
+            writeCounter = newWriteCounter;
+            publishWriteCounter();
+        }
+
+        return bytesWritten;
+    }
+
+    public int maxMessageLength()
+    {
+        return maxMessageLength;
+    }
+
+    /**
+     * Allocate counters for this writer so the pipe can be monitored by a {@link CountersReader} from another
+     * process. "bytes written" is linked to the write counter in the trailer of the pipe file, so publishing it
+     * costs nothing more, and "back pressure" counts the writes which found the pipe full. Must be called before
+     * writing begins.
+     *
+     * @param countersManager in which to allocate the counters.
+     * @param name of the pipe used as a prefix for the counter labels.
+     * @throws IllegalStateException if the writer was not opened on a pipe file.
+     */
+    public void addCounters(final CountersManager countersManager, final String name)
+    {
+        if (null == file)
+        {
+            throw new IllegalStateException("writer was not opened on a pipe file");
+        }
+
+        countersManager.newCounter(name + " bytes written", file, writeCounterIndex);
+        backPressureCounter = countersManager.newCounter(name + " back pressure");
+    }
+
+    /**
+     * Write a whole message as a single record so the reader never sees it in pieces. A message that would not
+     * fit before the end of the ring is preceded by a padding record and written from the start of the ring.
+     *
+     * Message records and raw bytes from {@link #write(byte[], int, int)} must not be mixed on the same pipe.
+     *
+     * @return true if the message was written or false if there is insufficient space available.
+     */
+    public boolean write(final int msgTypeId, final byte[] src, final int offset, final int length)
+    {
+        final int msgIndex = claim(msgTypeId, length);
+        if (INSUFFICIENT_CAPACITY == msgIndex)
+        {
+            return false;
+        }
+
+        atomicBuffer.putBytes(msgIndex, src, offset, length);
+        commit();
+
+        return true;
+    }
+
+    /**
+     * Write a whole message, waiting while the pipe is full for as long as the reader makes progress or
+     * heartbeats, so a writer is not left spinning on a pipe whose reader has died.
+     *
+     * @param timeoutMs without the reader making progress or heartbeating after which the write is abandoned.
+     * @return true if the message was written or false if the reader is considered dead.
+     */
+    public boolean write(final int msgTypeId,
+                         final byte[] src,
+                         final int offset,
+                         final int length,
+                         final long timeoutMs)
+    {
+        long lastReadCounter = readCounterCache;
+        long lastProgressMs = System.currentTimeMillis();
+
+        while (!write(msgTypeId, src, offset, length))
+        {
+            final long nowMs = System.currentTimeMillis();
+            atomicBuffer.putOrderedLong(writerHeartbeatIndex, nowMs);
+
+            if (readCounterCache != lastReadCounter)
+            {
+                lastReadCounter = readCounterCache;
+                lastProgressMs = nowMs;
+            }
+            else if (nowMs - lastProgressMs > timeoutMs && !isReaderAlive(timeoutMs))
+            {
+                return false;
+            }
+
+            LockSupport.parkNanos(1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Claim space for a message record to be encoded directly into {@link #buffer()} at the returned index.
+     *
+     * Claimed records are not visible to the reader until {@link #commit()} is called, so a batch of messages
+     * can be claimed and then published together with a single update of the write counter.
+     *
+     * @return the index in {@link #buffer()} at which to write the message or
+     * {@link PipeDescriptor#INSUFFICIENT_CAPACITY} if there is insufficient space available.
+     */
+    public int claim(final int msgTypeId, final int length)
+    {
+        if (msgTypeId < 0)
+        {
+            throw new IllegalArgumentException("msgTypeId must not be negative: msgTypeId=" + msgTypeId);
+        }
+
+        if (length > maxMessageLength)
+        {
+            String msg = "message exceeds maxMessageLength of " + maxMessageLength + ": length=" + length;
+            throw new IllegalArgumentException(msg);
+        }
+
+        final int recordLength = length + HEADER_LENGTH;
+        final int alignedRecordLength = align(recordLength);
+
+        int recordIndex = (int)writeCounter & mask;
+        final int bytesToEndOfBuffer = capacity - recordIndex;
+        final int padding = alignedRecordLength > bytesToEndOfBuffer ? bytesToEndOfBuffer : 0;
+        final int requiredCapacity = padding + alignedRecordLength;
+
+        if (!hasAvailableCapacity(writeCounter, requiredCapacity))
+        {
+            onBackPressure();
+            return INSUFFICIENT_CAPACITY;
+        }
+
+        if (0 != padding)
+        {
+            atomicBuffer.putInt(lengthIndex(recordIndex), padding);
+            atomicBuffer.putInt(typeIndex(recordIndex), PADDING_MSG_TYPE_ID);
+            recordIndex = 0;
+        }
+
+        atomicBuffer.putInt(lengthIndex(recordIndex), recordLength);
+        atomicBuffer.putInt(typeIndex(recordIndex), msgTypeId);
+        writeCounter += requiredCapacity;
+
+        return msgIndex(recordIndex);
+    }
+
+    /**
+     * Publish all records claimed since the last commit to the reader.
+     */
+    public void commit()
+    {
+        publishWriteCounter();
+    }
+
+    /**
+     * The buffer over the mapped ring into which claimed messages are written.
+     *
+     * @return the buffer over the mapped ring.
+     */
+    public AtomicBuffer buffer()
+    {
+        return atomicBuffer;
+    }
+
+    private boolean hasAvailableCapacity(final long writeCounter, final int requiredCapacity)
+    {
+        final long bufferLimit = writeCounter + requiredCapacity - capacity;
+        if (bufferLimit > readCounterCache)
+        {
+            refreshReadCounterCache();
+
+            return bufferLimit <= readCounterCache;
+        }
+
+        return true;
+    }
+
+    private void publishWriteCounter()
+    {
+        atomicBuffer.putOrderedLong(writeCounterIndex, writeCounter);
+    }
+
+    private void onBackPressure()
+    {
+        if (null != backPressureCounter)
+        {
+            backPressureCounter.addOrdered(1);
+        }
+    }
+
+    private void refreshReadCounterCache()
+    {
+        readCounterCache = atomicBuffer.getLongVolatile(readCounterIndex);
+        heartbeat();
+    }
+
+    /**
+     * Take the writer lock before sizing the file, as sizing truncates and zeroes it, so a writer refused because
+     * another still holds the pipe leaves that pipe untouched.
+     */
+    private static FileLock createLocked(final File file, final int capacity, final int pageSize)
+        throws IOException
+    {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        final FileLock writerLock = lockWriter(randomAccessFile.getChannel(), capacity);
+        try
+        {
+            IoUtil.allocate(randomAccessFile, IoUtil.alignToPageSize(capacity + TRAILER_SIZE, pageSize), pageSize);
+        }
+        catch (final IOException ex)
+        {
+            randomAccessFile.close();
+            throw ex;
+        }
+
+        return writerLock;
+    }
+
+    /**
+     * Take the writer lock of a ring held in a file, closing the file if another writer holds it.
+     *
+     * @param channel of the open file.
+     * @param trailerOffset of the trailer of the ring within the file.
+     * @return the lock which is held until it is released or the file is closed.
+     * @throws IllegalStateException if another writer holds the lock.
+     */
+    static FileLock lockWriter(final FileChannel channel, final int trailerOffset)
+        throws IOException
+    {
+        final FileLock writerLock = tryLockWriter(channel, trailerOffset);
+        if (null == writerLock)
+        {
+            channel.close();
+            throw new IllegalStateException("pipe has an active writer");
+        }
+
+        return writerLock;
+    }
+
+    private static FileLock tryLockWriter(final FileChannel channel, final int trailerOffset)
+        throws IOException
+    {
+        try
+        {
+            return channel.tryLock(trailerOffset + WRITER_PID_TRAILER_OFFSET, 8, false);
+        }
+        catch (final OverlappingFileLockException ex)
+        {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,17 @@
+package uk.co.real_logic;
+
+/**
+ * Callback for whole messages read from a pipe in message mode.
+ */
+public interface MessageHandler
+{
+    /**
+     * Called for each message read. The buffer is only valid for the duration of the callback.
+     *
+     * @param msgTypeId supplied by the writer of the message.
+     * @param buffer containing the message.
+     * @param offset at which the message begins in the buffer.
+     * @param length of the message in bytes.
+     */
+    void onMessage(int msgTypeId, byte[] buffer, int offset, int length);
+}
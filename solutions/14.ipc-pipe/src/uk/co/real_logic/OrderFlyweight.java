@@ -0,0 +1,114 @@
+package uk.co.real_logic;
+
+/**
+ * Flyweight codec for a fixed-layout order message. Fields are stored little endian so the layout is the same
+ * regardless of the platform writing it.
+ *
+ * <pre>
+ *   0                   1                   2                   3
+ *   0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+ *  +---------------------------------------------------------------+
+ *  |                           Order Id                            |
+ *  |                                                               |
+ *  +---------------------------------------------------------------+
+ *  |                             Price                             |
+ *  |                                                               |
+ *  +---------------------------------------------------------------+
+ *  |                           Quantity                            |
+ *  +---------------------------------------------------------------+
+ *  |                         Instrument Id                         |
+ *  +---------------+-----------------------------------------------+
+ *  |     Side      |
+ *  +---------------+
+ * </pre>
+ */
+public class OrderFlyweight extends Flyweight
+{
+    public static final int MSG_TYPE_ID = 1;
+
+    public static final int ORDER_ID_OFFSET = 0;
+    public static final int PRICE_OFFSET = 8;
+    public static final int QUANTITY_OFFSET = 16;
+    public static final int INSTRUMENT_ID_OFFSET = 20;
+    public static final int SIDE_OFFSET = 24;
+    public static final int LENGTH = 25;
+
+    public static final byte BUY = 'B';
+    public static final byte SELL = 'S';
+
+    public OrderFlyweight wrap(final AtomicBuffer buffer, final int offset)
+    {
+        wrapBuffer(buffer, offset);
+        return this;
+    }
+
+    public int length()
+    {
+        return LENGTH;
+    }
+
+    public long orderId()
+    {
+        return buffer.getLong(offset + ORDER_ID_OFFSET, BYTE_ORDER);
+    }
+
+    public OrderFlyweight orderId(final long orderId)
+    {
+        buffer.putLong(offset + ORDER_ID_OFFSET, orderId, BYTE_ORDER);
+        return this;
+    }
+
+    /**
+     * Price as a fixed point value in the minimum tick size of the instrument.
+     *
+     * @return price in ticks.
+     */
+    public long price()
+    {
+        return buffer.getLong(offset + PRICE_OFFSET, BYTE_ORDER);
+    }
+
+    public OrderFlyweight price(final long price)
+    {
+        buffer.putLong(offset + PRICE_OFFSET, price, BYTE_ORDER);
+        return this;
+    }
+
+    public int quantity()
+    {
+        return buffer.getInt(offset + QUANTITY_OFFSET, BYTE_ORDER);
+    }
+
+    public OrderFlyweight quantity(final int quantity)
+    {
+        buffer.putInt(offset + QUANTITY_OFFSET, quantity, BYTE_ORDER);
+        return this;
+    }
+
+    public int instrumentId()
+    {
+        return buffer.getInt(offset + INSTRUMENT_ID_OFFSET, BYTE_ORDER);
+    }
+
+    public OrderFlyweight instrumentId(final int instrumentId)
+    {
+        buffer.putInt(offset + INSTRUMENT_ID_OFFSET, instrumentId, BYTE_ORDER);
+        return this;
+    }
+
+    /**
+     * Side of the order which is either {@link #BUY} or {@link #SELL}.
+     *
+     * @return side of the order.
+     */
+    public byte side()
+    {
+        return buffer.getByte(offset + SIDE_OFFSET);
+    }
+
+    public OrderFlyweight side(final byte side)
+    {
+        buffer.putByte(offset + SIDE_OFFSET, side);
+        return this;
+    }
+}
@@ -0,0 +1,43 @@
+package uk.co.real_logic;
+
+/**
+ * Layout of the message records exchanged over a pipe in message mode.
+ *
+ * Each record starts with an 8 byte header holding the record length, including the header, followed by the
+ * message type id. Records are aligned to 8 bytes and never wrap the end of the ring; the remaining space is
+ * filled with a padding record instead.
+ */
+public class RecordDescriptor
+{
+    public static final int LENGTH_OFFSET = 0;
+    public static final int TYPE_OFFSET = 4;
+    public static final int HEADER_LENGTH = 8;
+    public static final int RECORD_ALIGNMENT = 8;
+
+    public static final int PADDING_MSG_TYPE_ID = -1;
+
+    public static int maxMessageLength(final int capacity)
+    {
+        return (capacity / 2) - HEADER_LENGTH;
+    }
+
+    public static int align(final int length)
+    {
+        return (length + (RECORD_ALIGNMENT - 1)) & ~(RECORD_ALIGNMENT - 1);
+    }
+
+    public static int lengthIndex(final int recordIndex)
+    {
+        return recordIndex + LENGTH_OFFSET;
+    }
+
+    public static int typeIndex(final int recordIndex)
+    {
+        return recordIndex + TYPE_OFFSET;
+    }
+
+    public static int msgIndex(final int recordIndex)
+    {
+        return recordIndex + HEADER_LENGTH;
+    }
+}
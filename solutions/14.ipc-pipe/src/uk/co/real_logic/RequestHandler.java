@@ -0,0 +1,20 @@
+package uk.co.real_logic;
+
+/**
+ * Callback for requests received by a {@link DuplexServer}.
+ */
+public interface RequestHandler
+{
+    /**
+     * Called for each request read. The handler should reply using {@link DuplexServer#respond} with the same
+     * correlation id. The payload is only valid for the duration of the callback.
+     *
+     * @param correlationId of the request to be used for the response.
+     * @param msgTypeId supplied by the client.
+     * @param buffer containing the request payload.
+     * @param index at which the payload begins in the buffer.
+     * @param length of the payload in bytes.
+     * @param server to which the response should be written.
+     */
+    void onRequest(long correlationId, int msgTypeId, AtomicBuffer buffer, int index, int length, DuplexServer server);
+}
@@ -0,0 +1,18 @@
+package uk.co.real_logic;
+
+/**
+ * Callback for responses received by a {@link DuplexClient}.
+ */
+public interface ResponseHandler
+{
+    /**
+     * Called for each response read. The payload is only valid for the duration of the callback.
+     *
+     * @param correlationId of the request to which this is the response.
+     * @param msgTypeId supplied by the server.
+     * @param buffer containing the response payload.
+     * @param index at which the payload begins in the buffer.
+     * @param length of the payload in bytes.
+     */
+    void onResponse(long correlationId, int msgTypeId, AtomicBuffer buffer, int index, int length);
+}
@@ -1,32 +1,29 @@
 package uk.co.real_logic;
 
-import sun.misc.Unsafe;
-
-import java.lang.reflect.Field;
+import java.lang.management.ManagementFactory;
 
 public class Util
 {
-    private static final Unsafe unsafe;
-
-    static
+    /**
+     * The id of the current process, recorded in the trailer of a pipe to identify the process at each end.
+     *
+     * @return the id of the current process or 0 if it cannot be determined.
+     */
+    public static long getPid()
     {
+        final String name = ManagementFactory.getRuntimeMXBean().getName();
+        final int index = name.indexOf('@');
+
         try
         {
-            final Field field = Unsafe.class.getDeclaredField("theUnsafe");
-            field.setAccessible(true);
-            unsafe = (Unsafe)field.get(null);
+            return Long.parseLong(index > 0 ? name.substring(0, index) : name);
         }
-        catch (final Exception ex)
+        catch (final NumberFormatException ex)
         {
-            throw new RuntimeException(ex);
+            return 0;
         }
     }
 
-    public static Unsafe getUnsafe()
-    {
-        return unsafe;
-    }
-
     public static int min(final int a, final int b)
     {
         return b + ((a - b) & (a - b) >> 31);
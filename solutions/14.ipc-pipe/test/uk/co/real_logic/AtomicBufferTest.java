@@ -0,0 +1,144 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class AtomicBufferTest
+{
+    private static final int CAPACITY = 64;
+    private static final int INDEX = 8;
+
+    private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(CAPACITY);
+    private final AtomicBuffer atomicBuffer = new AtomicBuffer(byteBuffer);
+
+    @Test
+    public void shouldReportCapacityOfUnderlyingBuffer()
+    {
+        Assert.assertEquals(CAPACITY, atomicBuffer.capacity());
+    }
+
+    @Test
+    public void shouldPutAndGetTypedValuesInNativeOrder()
+    {
+        byteBuffer.order(ByteOrder.nativeOrder());
+
+        atomicBuffer.putShort(INDEX, (short)7);
+        Assert.assertEquals(7, byteBuffer.getShort(INDEX));
+        Assert.assertEquals(7, atomicBuffer.getShort(INDEX));
+
+        atomicBuffer.putInt(INDEX, 7);
+        Assert.assertEquals(7, byteBuffer.getInt(INDEX));
+
+        atomicBuffer.putLong(INDEX, Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, byteBuffer.getLong(INDEX));
+
+        atomicBuffer.putFloat(INDEX, 7.5f);
+        Assert.assertEquals(7.5f, byteBuffer.getFloat(INDEX), 0.0f);
+
+        atomicBuffer.putDouble(INDEX, 7.25d);
+        Assert.assertEquals(7.25d, byteBuffer.getDouble(INDEX), 0.0d);
+        Assert.assertEquals(7.25d, atomicBuffer.getDouble(INDEX), 0.0d);
+
+        atomicBuffer.putByte(INDEX, (byte)-1);
+        Assert.assertEquals(-1, byteBuffer.get(INDEX));
+        Assert.assertEquals(-1, atomicBuffer.getByte(INDEX));
+    }
+
+    @Test
+    public void shouldPutAndGetTypedValuesInChosenOrder()
+    {
+        for (final ByteOrder byteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN})
+        {
+            byteBuffer.order(byteOrder);
+
+            atomicBuffer.putShort(INDEX, (short)0x0102, byteOrder);
+            Assert.assertEquals(0x0102, byteBuffer.getShort(INDEX));
+            Assert.assertEquals(0x0102, atomicBuffer.getShort(INDEX, byteOrder));
+
+            atomicBuffer.putInt(INDEX, 0x01020304, byteOrder);
+            Assert.assertEquals(0x01020304, byteBuffer.getInt(INDEX));
+            Assert.assertEquals(0x01020304, atomicBuffer.getInt(INDEX, byteOrder));
+
+            atomicBuffer.putLong(INDEX, 0x0102030405060708L, byteOrder);
+            Assert.assertEquals(0x0102030405060708L, byteBuffer.getLong(INDEX));
+            Assert.assertEquals(0x0102030405060708L, atomicBuffer.getLong(INDEX, byteOrder));
+
+            atomicBuffer.putFloat(INDEX, 3.5f, byteOrder);
+            Assert.assertEquals(3.5f, byteBuffer.getFloat(INDEX), 0.0f);
+            Assert.assertEquals(3.5f, atomicBuffer.getFloat(INDEX, byteOrder), 0.0f);
+
+            atomicBuffer.putDouble(INDEX, 3.25d, byteOrder);
+            Assert.assertEquals(3.25d, byteBuffer.getDouble(INDEX), 0.0d);
+            Assert.assertEquals(3.25d, atomicBuffer.getDouble(INDEX, byteOrder), 0.0d);
+        }
+    }
+
+    @Test
+    public void shouldCompareAndSetAndGetAndAdd()
+    {
+        atomicBuffer.putIntVolatile(INDEX, 1);
+        Assert.assertFalse(atomicBuffer.compareAndSetInt(INDEX, 2, 3));
+        Assert.assertTrue(atomicBuffer.compareAndSetInt(INDEX, 1, 3));
+        Assert.assertEquals(3, atomicBuffer.getAndAddInt(INDEX, 4));
+        Assert.assertEquals(7, atomicBuffer.getIntVolatile(INDEX));
+
+        atomicBuffer.putOrderedLong(INDEX, 1L);
+        Assert.assertFalse(atomicBuffer.compareAndSetLong(INDEX, 2L, 3L));
+        Assert.assertTrue(atomicBuffer.compareAndSetLong(INDEX, 1L, 3L));
+        Assert.assertEquals(3L, atomicBuffer.getAndAddLong(INDEX, 4L));
+        Assert.assertEquals(7L, atomicBuffer.getLongVolatile(INDEX));
+    }
+
+    @Test
+    public void shouldPutReleaseAndGetAcquireOrOpaque()
+    {
+        atomicBuffer.putIntRelease(INDEX, 7);
+        Assert.assertEquals(7, atomicBuffer.getIntAcquire(INDEX));
+        atomicBuffer.putIntOpaque(INDEX, 9);
+        Assert.assertEquals(9, atomicBuffer.getIntOpaque(INDEX));
+
+        atomicBuffer.putLongRelease(INDEX, Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, atomicBuffer.getLongAcquire(INDEX));
+        atomicBuffer.putLongOpaque(INDEX, 9L);
+        Assert.assertEquals(9L, atomicBuffer.getLongOpaque(INDEX));
+    }
+
+    @Test
+    public void shouldPutBytesFromDirectHeapAndReadOnlyBuffers()
+    {
+        final byte[] testBytes = "0123456789".getBytes();
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(testBytes.length);
+        directBuffer.put(testBytes).flip();
+
+        final ByteBuffer[] srcBuffers =
+        {
+            ByteBuffer.wrap(testBytes),
+            ByteBuffer.wrap(testBytes).asReadOnlyBuffer(),
+            directBuffer,
+            directBuffer.asReadOnlyBuffer()
+        };
+
+        for (final ByteBuffer srcBuffer : srcBuffers)
+        {
+            atomicBuffer.setMemory(0, CAPACITY, (byte)0);
+            atomicBuffer.putBytes(INDEX, srcBuffer, 2, 5);
+
+            final byte[] dst = new byte[5];
+            atomicBuffer.getBytes(INDEX, dst, 0, dst.length);
+            Assert.assertEquals("23456", new String(dst));
+            Assert.assertEquals(0, srcBuffer.position());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectPutBytesBeyondLimitOfSourceBuffer()
+    {
+        final ByteBuffer srcBuffer = ByteBuffer.wrap(new byte[16]);
+        srcBuffer.limit(8);
+
+        atomicBuffer.putBytes(0, srcBuffer, 4, 5);
+    }
+}
@@ -0,0 +1,186 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BroadcastMemoryMappedPipeTest
+{
+    private static final int PIPE_CAPACITY = 1024;
+    private static final int READER_COUNT = 2;
+
+    @Test
+    public void shouldDeliverEveryMessageToEveryReader() throws Exception
+    {
+        final byte[] testBytes = "This is a test message to exchange".getBytes();
+        final int repetitions = 1000;
+
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final BroadcastMemoryMappedPipeWriter pipeWriter =
+            new BroadcastMemoryMappedPipeWriter(file, PIPE_CAPACITY, READER_COUNT, BroadcastMode.BACK_PRESSURE);
+
+        final BroadcastMemoryMappedPipeReader[] pipeReaders = new BroadcastMemoryMappedPipeReader[READER_COUNT];
+        for (int i = 0; i < READER_COUNT; i++)
+        {
+            pipeReaders[i] = new BroadcastMemoryMappedPipeReader(file, PIPE_CAPACITY, READER_COUNT, i);
+        }
+
+        pipeWriter.waitForReadersToConnect();
+
+        final int[] counts = new int[READER_COUNT];
+        for (int i = 0; i < repetitions; i++)
+        {
+            while (!pipeWriter.write(i, testBytes, 0, testBytes.length))
+            {
+                for (int j = 0; j < READER_COUNT; j++)
+                {
+                    counts[j] += pipeReaders[j].read(new CountingHandler(testBytes.length));
+                }
+            }
+        }
+
+        pipeWriter.close();
+
+        for (int j = 0; j < READER_COUNT; j++)
+        {
+            int read;
+            while (PipeDescriptor.EOF != (read = pipeReaders[j].read(new CountingHandler(testBytes.length))))
+            {
+                counts[j] += read;
+            }
+
+            Assert.assertEquals(0L, pipeReaders[j].lappedCount());
+            Assert.assertEquals(repetitions, counts[j]);
+        }
+    }
+
+    @Test
+    public void shouldExchangeMessageOverPreTouchedPageAlignedPipe() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int pageSize = 4 * IoUtil.PAGE_SIZE;
+        final BroadcastMemoryMappedPipeWriter pipeWriter = new BroadcastMemoryMappedPipeWriter(
+            file, PIPE_CAPACITY, READER_COUNT, BroadcastMode.BACK_PRESSURE, pageSize, true);
+        final BroadcastMemoryMappedPipeReader pipeReader =
+            new BroadcastMemoryMappedPipeReader(file, PIPE_CAPACITY, READER_COUNT, 0);
+
+        Assert.assertEquals(pageSize, file.length());
+
+        final byte[] testBytes = "This is a test message to exchange".getBytes();
+        Assert.assertTrue(pipeWriter.write(7, testBytes, 0, testBytes.length));
+
+        final List<String> messages = new ArrayList<String>();
+        Assert.assertEquals(1, pipeReader.read(new CollectingHandler(messages)));
+        Assert.assertEquals("7:" + new String(testBytes), messages.get(0));
+    }
+
+    @Test
+    public void shouldNotOverwriteUnreadMessagesWhenBackPressured() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final BroadcastMemoryMappedPipeWriter pipeWriter =
+            new BroadcastMemoryMappedPipeWriter(file, PIPE_CAPACITY, READER_COUNT, BroadcastMode.BACK_PRESSURE);
+        final BroadcastMemoryMappedPipeReader fastReader =
+            new BroadcastMemoryMappedPipeReader(file, PIPE_CAPACITY, READER_COUNT, 0);
+
+        final List<String> fastMessages = new ArrayList<String>();
+        final MessageHandler fastHandler = new CollectingHandler(fastMessages);
+
+        final List<String> expectedMessages = new ArrayList<String>();
+        while (true)
+        {
+            final int msgTypeId = expectedMessages.size();
+            final byte[] testBytes = ("message " + msgTypeId).getBytes();
+            if (!pipeWriter.write(msgTypeId, testBytes, 0, testBytes.length))
+            {
+                break;
+            }
+
+            expectedMessages.add(msgTypeId + ":" + new String(testBytes));
+            Assert.assertEquals(1, fastReader.read(fastHandler));
+        }
+
+        Assert.assertTrue(expectedMessages.size() > 0);
+        Assert.assertEquals(expectedMessages, fastMessages);
+
+        final BroadcastMemoryMappedPipeReader slowReader =
+            new BroadcastMemoryMappedPipeReader(file, PIPE_CAPACITY, READER_COUNT, 1);
+        final List<String> slowMessages = new ArrayList<String>();
+
+        Assert.assertEquals(expectedMessages.size(), slowReader.read(new CollectingHandler(slowMessages)));
+        Assert.assertEquals(expectedMessages, slowMessages);
+    }
+
+    @Test
+    public void shouldDetectReaderHasBeenLapped() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final BroadcastMemoryMappedPipeWriter pipeWriter =
+            new BroadcastMemoryMappedPipeWriter(file, PIPE_CAPACITY, READER_COUNT, BroadcastMode.LOSSY);
+        final BroadcastMemoryMappedPipeReader slowReader =
+            new BroadcastMemoryMappedPipeReader(file, PIPE_CAPACITY, READER_COUNT, 1);
+
+        final byte[] testBytes = new byte[8];
+        for (int i = 0; i < PIPE_CAPACITY; i++)
+        {
+            Assert.assertTrue(pipeWriter.write(i, testBytes, 0, testBytes.length));
+        }
+
+        final List<Integer> msgTypeIds = new ArrayList<Integer>();
+        final MessageHandler handler = new MessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final byte[] buffer, final int offset, final int length)
+            {
+                msgTypeIds.add(Integer.valueOf(msgTypeId));
+            }
+        };
+
+        Assert.assertEquals(0, slowReader.read(handler));
+        Assert.assertEquals(1L, slowReader.lappedCount());
+
+        Assert.assertTrue(pipeWriter.write(PIPE_CAPACITY, testBytes, 0, testBytes.length));
+        Assert.assertEquals(1, slowReader.read(handler));
+        Assert.assertEquals(Integer.valueOf(PIPE_CAPACITY), msgTypeIds.get(0));
+    }
+
+    private static class CountingHandler implements MessageHandler
+    {
+        private final int expectedLength;
+
+        private CountingHandler(final int expectedLength)
+        {
+            this.expectedLength = expectedLength;
+        }
+
+        public void onMessage(final int msgTypeId, final byte[] buffer, final int offset, final int length)
+        {
+            Assert.assertEquals(expectedLength, length);
+        }
+    }
+
+    private static class CollectingHandler implements MessageHandler
+    {
+        private final List<String> messages;
+
+        private CollectingHandler(final List<String> messages)
+        {
+            this.messages = messages;
+        }
+
+        public void onMessage(final int msgTypeId, final byte[] buffer, final int offset, final int length)
+        {
+            messages.add(msgTypeId + ":" + new String(buffer, offset, length));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CountersTest
+{
+    @Test
+    public void shouldReadLabelsAndValuesOfAllocatedCounters() throws Exception
+    {
+        final File file = File.createTempFile("counters-", ".dat");
+        file.deleteOnExit();
+
+        final CountersManager countersManager = new CountersManager(file, 8);
+        final MappedCounter sent = countersManager.newCounter("messages sent");
+        final MappedCounter received = countersManager.newCounter("messages received");
+
+        sent.addOrdered(3);
+        received.incrementAndGet();
+        Assert.assertEquals(1, received.getAndAdd(4));
+
+        final CountersReader countersReader = new CountersReader(file);
+        Assert.assertEquals(8, countersReader.maxCounters());
+
+        final List<String> counters = new ArrayList<String>();
+        final int counterCount = countersReader.forEach(new CounterHandler()
+        {
+            public void onCounter(final int counterId, final String label, final long value)
+            {
+                counters.add(counterId + ":" + label + ":" + value);
+            }
+        });
+
+        Assert.assertEquals(2, counterCount);
+        Assert.assertEquals("0:messages sent:3", counters.get(0));
+        Assert.assertEquals("1:messages received:5", counters.get(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectCounterBeyondMaxCounters() throws Exception
+    {
+        final File file = File.createTempFile("counters-", ".dat");
+        file.deleteOnExit();
+
+        final CountersManager countersManager = new CountersManager(file, 1);
+        countersManager.newCounter("first");
+        countersManager.newCounter("second");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldTimeoutWaitingForHeaderToBeWritten() throws Exception
+    {
+        final File file = File.createTempFile("counters-", ".dat");
+        file.deleteOnExit();
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        IoUtil.allocate(randomAccessFile, CountersDescriptor.fileSize(8));
+        randomAccessFile.close();
+
+        new CountersReader(file, 20);
+    }
+
+    @Test
+    public void shouldReadCounterLinkedToValueInAnotherFile() throws Exception
+    {
+        final File countersFile = File.createTempFile("counters-", ".dat");
+        countersFile.deleteOnExit();
+        final File valueFile = File.createTempFile("values-", ".dat");
+        valueFile.deleteOnExit();
+
+        final int valueIndex = 64;
+        final AtomicBuffer values = new AtomicBuffer(IoUtil.mapNewFile(valueFile, 128));
+        final CountersManager countersManager = new CountersManager(countersFile, 8);
+        Assert.assertEquals(0, countersManager.newCounter("linked", valueFile, valueIndex));
+
+        final CountersReader countersReader = new CountersReader(countersFile);
+        final long[] value = new long[1];
+        final CounterHandler handler = new CounterHandler()
+        {
+            public void onCounter(final int counterId, final String label, final long counterValue)
+            {
+                value[0] = counterValue;
+            }
+        };
+
+        values.putOrderedLong(valueIndex, 7);
+        Assert.assertEquals(1, countersReader.forEach(handler));
+        Assert.assertEquals(7, value[0]);
+
+        values.putOrderedLong(valueIndex, 11);
+        countersReader.forEach(handler);
+        Assert.assertEquals(11, value[0]);
+    }
+
+    @Test
+    public void shouldCountBytesAndBackPressureOfPipe() throws Exception
+    {
+        final File countersFile = File.createTempFile("counters-", ".dat");
+        countersFile.deleteOnExit();
+        final File pipeFile = File.createTempFile("pipe-", ".dat");
+        pipeFile.deleteOnExit();
+
+        final int pipeCapacity = 1024;
+        final CountersManager countersManager = new CountersManager(countersFile, 8);
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(pipeFile, pipeCapacity);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(pipeFile, pipeCapacity);
+        pipeWriter.addCounters(countersManager, "pipe");
+        pipeReader.addCounters(countersManager, "pipe");
+
+        final byte[] testBytes = new byte[100];
+        Assert.assertEquals(testBytes.length, pipeWriter.write(testBytes, 0, testBytes.length));
+        Assert.assertEquals(testBytes.length, pipeReader.read(new byte[pipeCapacity], 0, pipeCapacity));
+
+        int bytesWritten = testBytes.length;
+        int written;
+        while (0 != (written = pipeWriter.write(testBytes, 0, testBytes.length)))
+        {
+            bytesWritten += written;
+        }
+
+        final List<String> counters = new ArrayList<String>();
+        new CountersReader(countersFile).forEach(new CounterHandler()
+        {
+            public void onCounter(final int counterId, final String label, final long value)
+            {
+                counters.add(label + ":" + value);
+            }
+        });
+
+        Assert.assertEquals("pipe bytes written:" + bytesWritten, counters.get(0));
+        Assert.assertEquals("pipe back pressure:1", counters.get(1));
+        Assert.assertEquals("pipe bytes read:" + testBytes.length, counters.get(2));
+    }
+}
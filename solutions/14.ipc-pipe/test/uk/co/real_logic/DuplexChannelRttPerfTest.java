@@ -0,0 +1,104 @@
+package uk.co.real_logic;
+
+import java.io.File;
+
+public class DuplexChannelRttPerfTest
+{
+    private static final int REPETITIONS = 10 * 1000 * 1000;
+    private static final int CHANNEL_CAPACITY = 64 * 1024;
+    private static final int MSG_TYPE_ID = 1;
+
+    private static final byte[] TEST_MSG = "This is a representative message size for a finance order".getBytes();
+
+    public static void main(final String[] args)
+        throws Exception
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            final File file = File.createTempFile("duplex-", ".dat");
+            file.deleteOnExit();
+
+            final DuplexServer server = new DuplexServer(file, CHANNEL_CAPACITY);
+            final DuplexClient client = new DuplexClient(file, CHANNEL_CAPACITY);
+
+            final Thread serverThread = new Thread(new ServerRunner(server));
+            serverThread.setName("server");
+            serverThread.start();
+
+            final ResponseCountingHandler responseHandler = new ResponseCountingHandler();
+
+            final long start = System.nanoTime();
+
+            for (int j = 0; j < REPETITIONS; j++)
+            {
+                client.call(MSG_TYPE_ID, TEST_MSG, 0, TEST_MSG.length, responseHandler);
+            }
+
+            final long duration = System.nanoTime() - start;
+
+            client.close();
+            serverThread.join();
+            server.close();
+
+            System.out.printf(" %d: %,d ns mean RTT - %,d responses\n",
+                              Integer.valueOf(i),
+                              Long.valueOf(duration / REPETITIONS),
+                              Long.valueOf(responseHandler.responses));
+
+            if (responseHandler.responses != REPETITIONS)
+            {
+                String msg = String.format("Invalid number of responses: expected %,d got %,d\n",
+                                           Long.valueOf(REPETITIONS),
+                                           Long.valueOf(responseHandler.responses));
+
+                throw new IllegalStateException(msg);
+            }
+        }
+    }
+
+    public static class ServerRunner implements Runnable, RequestHandler
+    {
+        private final DuplexServer server;
+        private final byte[] payload = new byte[CHANNEL_CAPACITY];
+
+        public ServerRunner(final DuplexServer server)
+        {
+            this.server = server;
+        }
+
+        public void run()
+        {
+            server.waitForClientToConnect();
+
+            while (PipeDescriptor.EOF != server.poll(this))
+            {
+                // busy spin
+            }
+        }
+
+        public void onRequest(final long correlationId,
+                              final int msgTypeId,
+                              final AtomicBuffer buffer,
+                              final int index,
+                              final int length,
+                              final DuplexServer server)
+        {
+            buffer.getBytes(index, payload, 0, length);
+            server.respond(correlationId, msgTypeId, payload, 0, length);
+        }
+    }
+
+    public static class ResponseCountingHandler implements ResponseHandler
+    {
+        private long responses;
+
+        public void onResponse(final long correlationId,
+                               final int msgTypeId,
+                               final AtomicBuffer buffer,
+                               final int index,
+                               final int length)
+        {
+            ++responses;
+        }
+    }
+}
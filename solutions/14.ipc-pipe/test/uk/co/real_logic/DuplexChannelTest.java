@@ -0,0 +1,137 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DuplexChannelTest
+{
+    private static final int CAPACITY = 1024;
+
+    @Test
+    public void shouldMatchResponsesToRequestsByCorrelationId() throws Exception
+    {
+        final File file = File.createTempFile("duplex-", ".dat");
+        file.deleteOnExit();
+
+        final DuplexServer server = new DuplexServer(file, CAPACITY);
+        final DuplexClient client = new DuplexClient(file, CAPACITY);
+
+        final byte[] first = "first".getBytes();
+        final byte[] second = "second".getBytes();
+        final long firstCorrelationId = client.send(1, first, 0, first.length);
+        final long secondCorrelationId = client.send(2, second, 0, second.length);
+        Assert.assertTrue(firstCorrelationId != secondCorrelationId);
+
+        final int requestsRead = server.poll(new EchoRequestHandler());
+        Assert.assertEquals(2, requestsRead);
+
+        final List<String> responses = new ArrayList<String>();
+        final ResponseHandler responseHandler = new ResponseHandler()
+        {
+            public void onResponse(final long correlationId,
+                                   final int msgTypeId,
+                                   final AtomicBuffer buffer,
+                                   final int index,
+                                   final int length)
+            {
+                final byte[] dst = new byte[length];
+                buffer.getBytes(index, dst, 0, length);
+                responses.add(correlationId + ":" + msgTypeId + ":" + new String(dst));
+            }
+        };
+
+        Assert.assertEquals(2, client.poll(responseHandler));
+        Assert.assertEquals(firstCorrelationId + ":1:first", responses.get(0));
+        Assert.assertEquals(secondCorrelationId + ":2:second", responses.get(1));
+    }
+
+    @Test
+    public void shouldRefuseSecondClientUntilFirstCloses() throws Exception
+    {
+        final File file = File.createTempFile("duplex-", ".dat");
+        file.deleteOnExit();
+
+        new DuplexServer(file, CAPACITY);
+        final DuplexClient client = new DuplexClient(file, CAPACITY);
+
+        try
+        {
+            new DuplexClient(file, CAPACITY);
+            Assert.fail("second client should have been refused");
+        }
+        catch (final IllegalStateException ex)
+        {
+            // expected as the first client still holds the request ring
+        }
+
+        client.close();
+        new DuplexClient(file, CAPACITY).close();
+    }
+
+    @Test
+    public void shouldCallServerRunningOnAnotherThread() throws Exception
+    {
+        final File file = File.createTempFile("duplex-", ".dat");
+        file.deleteOnExit();
+
+        final DuplexServer server = new DuplexServer(file, CAPACITY);
+        final DuplexClient client = new DuplexClient(file, CAPACITY);
+
+        final Thread serverThread = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                final EchoRequestHandler requestHandler = new EchoRequestHandler();
+                while (PipeDescriptor.EOF != server.poll(requestHandler))
+                {
+                    Thread.yield();
+                }
+            }
+        });
+        serverThread.start();
+
+        final long[] lastCorrelationId = new long[1];
+        final ResponseHandler responseHandler = new ResponseHandler()
+        {
+            public void onResponse(final long correlationId,
+                                   final int msgTypeId,
+                                   final AtomicBuffer buffer,
+                                   final int index,
+                                   final int length)
+            {
+                lastCorrelationId[0] = correlationId;
+            }
+        };
+
+        final byte[] request = "request".getBytes();
+        for (int i = 0; i < 100; i++)
+        {
+            final long correlationId = client.call(1, request, 0, request.length, responseHandler);
+            Assert.assertEquals(correlationId, lastCorrelationId[0]);
+        }
+
+        client.close();
+        serverThread.join();
+        server.close();
+    }
+
+    private static class EchoRequestHandler implements RequestHandler
+    {
+        private final byte[] payload = new byte[CAPACITY];
+
+        public void onRequest(final long correlationId,
+                              final int msgTypeId,
+                              final AtomicBuffer buffer,
+                              final int index,
+                              final int length,
+                              final DuplexServer server)
+        {
+            buffer.getBytes(index, payload, 0, length);
+            server.respond(correlationId, msgTypeId, payload, 0, length);
+        }
+    }
+}
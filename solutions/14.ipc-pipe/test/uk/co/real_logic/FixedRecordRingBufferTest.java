@@ -0,0 +1,240 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+
+import static uk.co.real_logic.PipeDescriptor.INSUFFICIENT_CAPACITY;
+
+public class FixedRecordRingBufferTest
+{
+    private static final int CAPACITY = 16;
+
+    @Test
+    public void shouldEncodeAndDecodeOrdersInPlace()
+    {
+        final FixedRecordRingBuffer ringBuffer =
+            new FixedRecordRingBuffer(CAPACITY, OrderFlyweight.LENGTH, ClaimMode.SINGLE_PRODUCER);
+
+        final OrderFlyweight encoder = new OrderFlyweight();
+        final int orderCount = 3;
+        for (int i = 0; i < orderCount; i++)
+        {
+            final int index = ringBuffer.claim(OrderFlyweight.MSG_TYPE_ID);
+            encoder.wrap(ringBuffer.buffer(), index)
+                   .orderId(i)
+                   .price(10000L + i)
+                   .quantity(100 * i)
+                   .side(OrderFlyweight.BUY);
+            ringBuffer.commit(index);
+        }
+
+        Assert.assertEquals(orderCount, ringBuffer.size());
+
+        final OrderFlyweight decoder = new OrderFlyweight();
+        final long[] expectedOrderId = {0};
+        final int ordersRead = ringBuffer.read(new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                Assert.assertEquals(OrderFlyweight.MSG_TYPE_ID, msgTypeId);
+                Assert.assertEquals(OrderFlyweight.LENGTH, length);
+
+                final long i = expectedOrderId[0]++;
+                decoder.wrap(buffer, index);
+                Assert.assertEquals(i, decoder.orderId());
+                Assert.assertEquals(10000L + i, decoder.price());
+                Assert.assertEquals(100 * i, decoder.quantity());
+                Assert.assertEquals(OrderFlyweight.BUY, decoder.side());
+            }
+        });
+
+        Assert.assertEquals(orderCount, ordersRead);
+        Assert.assertEquals(0, ringBuffer.size());
+    }
+
+    @Test
+    public void shouldRejectClaimWhenFullAndAcceptAgainOnceRead()
+    {
+        final FixedRecordRingBuffer ringBuffer = new FixedRecordRingBuffer(CAPACITY, 8, ClaimMode.SINGLE_PRODUCER);
+        final byte[] record = new byte[8];
+
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(ringBuffer.write(1, record, 0, record.length));
+        }
+
+        Assert.assertEquals(INSUFFICIENT_CAPACITY, ringBuffer.claim(1));
+        Assert.assertFalse(ringBuffer.write(1, record, 0, record.length));
+
+        final int[] count = {0};
+        final BufferMessageHandler handler = new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                ++count[0];
+            }
+        };
+
+        Assert.assertEquals(2, ringBuffer.read(handler, 2));
+        Assert.assertTrue(ringBuffer.write(1, record, 0, record.length));
+        Assert.assertTrue(ringBuffer.write(1, record, 0, record.length));
+        Assert.assertFalse(ringBuffer.write(1, record, 0, record.length));
+        Assert.assertEquals(CAPACITY, ringBuffer.read(handler));
+        Assert.assertEquals(CAPACITY + 2, count[0]);
+    }
+
+    @Test
+    public void shouldConsumeAndZeroRecordsAcrossWrapWhenHandlerThrows()
+    {
+        final FixedRecordRingBuffer ringBuffer = new FixedRecordRingBuffer(CAPACITY, 8, ClaimMode.SINGLE_PRODUCER);
+        final byte[] record = new byte[8];
+        final int[] count = {0};
+        final BufferMessageHandler countingHandler = new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                ++count[0];
+            }
+        };
+        final BufferMessageHandler throwingHandler = new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                if (msgTypeId == 3)
+                {
+                    throw new IllegalStateException("failed to handle record");
+                }
+            }
+        };
+
+        for (int i = 0; i < CAPACITY - 2; i++)
+        {
+            Assert.assertTrue(ringBuffer.write(1, record, 0, record.length));
+        }
+        Assert.assertEquals(CAPACITY - 2, ringBuffer.read(countingHandler));
+
+        for (int i = 0; i < 5; i++)
+        {
+            Assert.assertTrue(ringBuffer.write(i, record, 0, record.length));
+        }
+
+        try
+        {
+            ringBuffer.read(throwingHandler);
+            Assert.fail("handler should have thrown");
+        }
+        catch (final IllegalStateException ignore)
+        {
+        }
+
+        Assert.assertEquals(1, ringBuffer.size());
+        Assert.assertEquals(1, ringBuffer.read(countingHandler));
+
+        for (int i = 0; i < CAPACITY - 2; i++)
+        {
+            Assert.assertTrue(ringBuffer.write(1, record, 0, record.length));
+        }
+        Assert.assertEquals(CAPACITY - 2, ringBuffer.read(countingHandler));
+
+        // the next slot held the record whose handler threw so a stale length there would be read again
+        Assert.assertEquals(0, ringBuffer.read(countingHandler));
+        Assert.assertEquals(2 * CAPACITY - 3, count[0]);
+    }
+
+    @Test
+    public void shouldNotReadClaimedRecordUntilCommitted()
+    {
+        final FixedRecordRingBuffer ringBuffer = new FixedRecordRingBuffer(CAPACITY, 8, ClaimMode.MULTI_PRODUCER);
+        final BufferMessageHandler handler = new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                Assert.assertEquals(7L, buffer.getLong(index));
+            }
+        };
+
+        final int index = ringBuffer.claim(1);
+        Assert.assertEquals(0, ringBuffer.read(handler));
+
+        ringBuffer.buffer().putLong(index, 7L);
+        ringBuffer.commit(index);
+        Assert.assertEquals(1, ringBuffer.read(handler));
+    }
+
+    @Test
+    public void shouldExchangeRecordsFromManyProducers() throws Exception
+    {
+        final int numProducers = 3;
+        final int repetitions = 10 * 1000;
+        final FixedRecordRingBuffer ringBuffer = new FixedRecordRingBuffer(CAPACITY, 8, ClaimMode.MULTI_PRODUCER);
+
+        final CyclicBarrier barrier = new CyclicBarrier(numProducers);
+        final Thread[] producers = new Thread[numProducers];
+        for (int i = 0; i < numProducers; i++)
+        {
+            final int msgTypeId = i;
+            producers[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        barrier.await();
+
+                        for (int j = 0; j < repetitions; j++)
+                        {
+                            int index;
+                            while (INSUFFICIENT_CAPACITY == (index = ringBuffer.claim(msgTypeId)))
+                            {
+                                Thread.yield();
+                            }
+
+                            ringBuffer.buffer().putLong(index, j);
+                            ringBuffer.commit(index);
+                        }
+                    }
+                    catch (final Exception ex)
+                    {
+                        ex.printStackTrace();
+                    }
+                }
+            });
+            producers[i].start();
+        }
+
+        final long[] lastValues = {-1, -1, -1};
+        final BufferMessageHandler handler = new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                final long value = buffer.getLong(index);
+                Assert.assertEquals(lastValues[msgTypeId] + 1, value);
+                lastValues[msgTypeId] = value;
+            }
+        };
+
+        int recordsRead = 0;
+        while (recordsRead < numProducers * repetitions)
+        {
+            final int read = ringBuffer.read(handler);
+            if (0 == read)
+            {
+                Thread.yield();
+            }
+
+            recordsRead += read;
+        }
+
+        for (final Thread producer : producers)
+        {
+            producer.join();
+        }
+
+        for (final long lastValue : lastValues)
+        {
+            Assert.assertEquals(repetitions - 1, lastValue);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package uk.co.real_logic;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JournalTest
+{
+    private static final int SEGMENT_SIZE = 256;
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        directory = File.createTempFile("journal-", "");
+        Assert.assertTrue(directory.delete());
+        Assert.assertTrue(directory.mkdir());
+    }
+
+    @After
+    public void tearDown()
+    {
+        final File[] files = directory.listFiles();
+        if (null != files)
+        {
+            for (final File file : files)
+            {
+                file.delete();
+            }
+        }
+
+        directory.delete();
+    }
+
+    @Test
+    public void shouldReplayMessagesAcrossSegments() throws Exception
+    {
+        final int repetitions = 50;
+        final JournalWriter journalWriter = new JournalWriter(directory, SEGMENT_SIZE);
+        for (int i = 0; i < repetitions; i++)
+        {
+            final byte[] msg = ("message-" + i).getBytes();
+            journalWriter.write(i, msg, 0, msg.length);
+        }
+        journalWriter.close();
+
+        Assert.assertTrue(JournalDescriptor.lastSegmentBasePosition(directory) > 0);
+
+        final List<String> messages = readAll(new JournalReader(directory, SEGMENT_SIZE, 0));
+
+        Assert.assertEquals(repetitions, messages.size());
+        for (int i = 0; i < repetitions; i++)
+        {
+            Assert.assertEquals(i + ":message-" + i, messages.get(i));
+        }
+    }
+
+    @Test
+    public void shouldReplayFromGivenPosition() throws Exception
+    {
+        final JournalWriter journalWriter = new JournalWriter(directory, SEGMENT_SIZE);
+        final byte[] first = "first".getBytes();
+        final byte[] second = "second".getBytes();
+        journalWriter.write(1, first, 0, first.length);
+        final long secondPosition = journalWriter.write(2, second, 0, second.length);
+        journalWriter.close();
+
+        final List<String> messages = readAll(new JournalReader(directory, SEGMENT_SIZE, secondPosition));
+
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("2:second", messages.get(0));
+    }
+
+    @Test
+    public void shouldTailLiveEnd() throws Exception
+    {
+        final JournalWriter journalWriter = new JournalWriter(directory, SEGMENT_SIZE);
+        final JournalReader journalReader = new JournalReader(directory, SEGMENT_SIZE, 0);
+
+        Assert.assertEquals(0, readAll(journalReader).size());
+
+        final byte[] msg = "live".getBytes();
+        journalWriter.write(1, msg, 0, msg.length);
+
+        final List<String> messages = readAll(journalReader);
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals(journalWriter.position(), journalReader.position());
+
+        journalWriter.close();
+        journalReader.close();
+    }
+
+    @Test
+    public void shouldRecoverPositionOnRestart() throws Exception
+    {
+        final byte[] msg = "This is a test message to exchange".getBytes();
+
+        JournalWriter journalWriter = new JournalWriter(directory, SEGMENT_SIZE);
+        for (int i = 0; i < 10; i++)
+        {
+            journalWriter.write(i, msg, 0, msg.length);
+        }
+        final long position = journalWriter.position();
+        journalWriter.close();
+
+        journalWriter = new JournalWriter(directory, SEGMENT_SIZE);
+        Assert.assertEquals(position, journalWriter.position());
+
+        journalWriter.write(10, msg, 0, msg.length);
+        journalWriter.close();
+
+        Assert.assertEquals(11, readAll(new JournalReader(directory, SEGMENT_SIZE, 0)).size());
+    }
+
+    private static List<String> readAll(final JournalReader journalReader) throws Exception
+    {
+        final List<String> messages = new ArrayList<String>();
+        final BufferMessageHandler handler = new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                final byte[] dst = new byte[length];
+                buffer.getBytes(index, dst, 0, length);
+                messages.add(msgTypeId + ":" + new String(dst));
+            }
+        };
+
+        long position;
+        do
+        {
+            position = journalReader.position();
+            journalReader.read(handler);
+        }
+        while (position != journalReader.position());
+
+        return messages;
+    }
+}
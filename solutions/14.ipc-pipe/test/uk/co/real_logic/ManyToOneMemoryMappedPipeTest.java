@@ -0,0 +1,139 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CyclicBarrier;
+
+public class ManyToOneMemoryMappedPipeTest
+{
+    private static final int PIPE_CAPACITY = 1024;
+
+    @Test
+    public void shouldExchangeMessagesFromManyWriters() throws Exception
+    {
+        final int numWriters = 3;
+        final int repetitions = 10 * 1000;
+        final byte[] testBytes = "This is a test message to exchange".getBytes();
+
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final ManyToOneMemoryMappedPipeReader pipeReader = new ManyToOneMemoryMappedPipeReader(file, PIPE_CAPACITY);
+
+        final CyclicBarrier barrier = new CyclicBarrier(numWriters);
+        final Thread[] writers = new Thread[numWriters];
+        for (int i = 0; i < numWriters; i++)
+        {
+            final int msgTypeId = i;
+            final ManyToOneMemoryMappedPipeWriter pipeWriter = new ManyToOneMemoryMappedPipeWriter(file, PIPE_CAPACITY);
+            writers[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        barrier.await();
+
+                        for (int j = 0; j < repetitions; j++)
+                        {
+                            while (!pipeWriter.write(msgTypeId, testBytes, 0, testBytes.length))
+                            {
+                                Thread.yield();
+                            }
+                        }
+
+                        pipeWriter.close();
+                    }
+                    catch (final Exception ex)
+                    {
+                        ex.printStackTrace();
+                    }
+                }
+            });
+            writers[i].start();
+        }
+
+        final int[] counts = new int[numWriters];
+        final BufferMessageHandler handler = new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                Assert.assertEquals(testBytes.length, length);
+                ++counts[msgTypeId];
+            }
+        };
+
+        int messagesRead = 0;
+        while (messagesRead < numWriters * repetitions)
+        {
+            final int read = pipeReader.read(handler);
+            if (0 == read)
+            {
+                Thread.yield();
+            }
+
+            messagesRead += read;
+        }
+
+        for (final Thread writer : writers)
+        {
+            writer.join();
+        }
+
+        pipeReader.close();
+
+        for (final int count : counts)
+        {
+            Assert.assertEquals(repetitions, count);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldTimeoutWaitingForReaderToSizeFile() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        new ManyToOneMemoryMappedPipeWriter(file, PIPE_CAPACITY, 20);
+    }
+
+    @Test
+    public void shouldNotReadUncommittedRecord() throws Exception
+    {
+        final byte[] testBytes = "This is a test message to exchange".getBytes();
+
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final ManyToOneMemoryMappedPipeReader pipeReader = new ManyToOneMemoryMappedPipeReader(file, PIPE_CAPACITY);
+        final ManyToOneMemoryMappedPipeWriter pipeWriter = new ManyToOneMemoryMappedPipeWriter(file, PIPE_CAPACITY);
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        final FileChannel channel = randomAccessFile.getChannel();
+        final AtomicBuffer trailer = new AtomicBuffer(channel.map(FileChannel.MapMode.READ_WRITE, 0, file.length()));
+
+        // simulate a writer that has claimed a record but not yet committed it
+        final int claimedLength = RecordDescriptor.align(RecordDescriptor.HEADER_LENGTH + testBytes.length);
+        trailer.putOrderedLong(PIPE_CAPACITY + PipeDescriptor.WRITE_COUNTER_TRAILER_OFFSET, claimedLength);
+
+        Assert.assertTrue(pipeWriter.write(1, testBytes, 0, testBytes.length));
+
+        final BufferMessageHandler handler = new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                Assert.fail("record should not be visible");
+            }
+        };
+
+        Assert.assertEquals(0, pipeReader.read(handler));
+
+        randomAccessFile.close();
+        pipeWriter.close();
+        pipeReader.close();
+    }
+}
@@ -0,0 +1,130 @@
+package uk.co.real_logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class MemoryMappedPipeMessagePerfTest
+{
+    private static final int REPETITIONS = 200 * 1000 * 1000;
+    private static final int PIPE_CAPACITY = 64 * 1024;
+    private static final int MSG_TYPE_ID = 1;
+
+    private static final byte[] TEST_MSG = "This is a representative message size for a finance order".getBytes();
+    private static final long TEST_MSG_FIRST_WORD =
+        ByteBuffer.wrap(TEST_MSG).order(AtomicBuffer.NATIVE_BYTE_ORDER).getLong(0);
+    private static final byte TEST_MSG_LAST_BYTE = TEST_MSG[TEST_MSG.length - 1];
+
+    private static long totalMessagesRead = 0;
+
+    public static void main(final String[] args)
+        throws Exception
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            final File file = File.createTempFile("pipe-", ".dat");
+            file.deleteOnExit();
+
+            final Thread writer = new Thread(new WriteRunner(new MemoryMappedPipeWriter(file, PIPE_CAPACITY)));
+            writer.setName("writer");
+
+            final Thread reader = new Thread(new ReadRunner(new MemoryMappedPipeReader(file, PIPE_CAPACITY)));
+            reader.setName("reader");
+
+            final long start = System.nanoTime();
+
+            writer.start();
+            reader.start();
+            reader.join();
+
+            final long duration = System.nanoTime() - start;
+
+            System.out.printf(" %d: %,d msg/s - %,d messages exchanged\n",
+                              Integer.valueOf(i),
+                              Long.valueOf((REPETITIONS * 1000000000L) / duration),
+                              Long.valueOf(totalMessagesRead));
+
+            if (totalMessagesRead != REPETITIONS)
+            {
+                String msg = String.format("Invalid number of messages exchanged: expected %,d got %,d\n",
+                                           Long.valueOf(REPETITIONS),
+                                           Long.valueOf(totalMessagesRead));
+
+                throw new IllegalStateException(msg);
+            }
+        }
+    }
+
+    public static class WriteRunner implements Runnable
+    {
+        private final MemoryMappedPipeWriter writeEnd;
+
+        public WriteRunner(final MemoryMappedPipeWriter writeEnd)
+        {
+            this.writeEnd = writeEnd;
+        }
+
+        public void run()
+        {
+            try
+            {
+                writeEnd.waitForReaderToConnect();
+
+                for (int i = 0; i < REPETITIONS; i++)
+                {
+                    while (!writeEnd.write(MSG_TYPE_ID, TEST_MSG, 0, TEST_MSG.length))
+                    {
+                        // busy spin
+                    }
+                }
+
+                writeEnd.close();
+            }
+            catch (final IOException ex)
+            {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    public static class ReadRunner implements Runnable, BufferMessageHandler
+    {
+        private final MemoryMappedPipeReader readEnd;
+        private long messagesRead;
+
+        public ReadRunner(final MemoryMappedPipeReader readEnd)
+        {
+            this.readEnd = readEnd;
+        }
+
+        public void run()
+        {
+            try
+            {
+                messagesRead = 0;
+
+                while (PipeDescriptor.EOF != readEnd.readInPlace(this))
+                {
+                    // busy spin
+                }
+
+                MemoryMappedPipeMessagePerfTest.totalMessagesRead = messagesRead;
+                readEnd.close();
+            }
+            catch (final IOException ex)
+            {
+                ex.printStackTrace();
+            }
+        }
+
+        public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+        {
+            if (TEST_MSG.length == length &&
+                TEST_MSG_FIRST_WORD == buffer.getLong(index) &&
+                TEST_MSG_LAST_BYTE == buffer.getByte(index + length - 1))
+            {
+                ++messagesRead;
+            }
+        }
+    }
+}
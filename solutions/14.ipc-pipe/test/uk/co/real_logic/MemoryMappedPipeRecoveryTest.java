@@ -0,0 +1,195 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MemoryMappedPipeRecoveryTest
+{
+    private static final int CAPACITY = 1024;
+    private static final long TIMEOUT_MS = 20;
+
+    @Test
+    public void shouldTimeoutWaitingForReaderToConnect() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, CAPACITY);
+
+        Assert.assertFalse(pipeWriter.waitForReaderToConnect(TIMEOUT_MS));
+        Assert.assertFalse(pipeWriter.isReaderAlive(TIMEOUT_MS));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldTimeoutWaitingForWriterToSizeFile() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        new MemoryMappedPipeReader(file, CAPACITY, TIMEOUT_MS);
+    }
+
+    @Test
+    public void shouldRecordProcessIdsAndHeartbeatsOfEachEnd() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, CAPACITY);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, CAPACITY);
+
+        Assert.assertEquals(Util.getPid(), pipeWriter.readerPid());
+        Assert.assertEquals(Util.getPid(), pipeReader.writerPid());
+        Assert.assertTrue(pipeWriter.isReaderAlive(1000));
+        Assert.assertTrue(pipeReader.isWriterAlive(1000));
+
+        pipeReader.close();
+        Assert.assertFalse(pipeWriter.isReaderAlive(1000));
+
+        pipeWriter.close();
+        Assert.assertFalse(pipeReader.isWriterAlive(1000));
+    }
+
+    @Test
+    public void shouldAbandonWriteToFullPipeWhenReaderStopsHeartbeating() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, CAPACITY);
+        new MemoryMappedPipeReader(file, CAPACITY);
+
+        final byte[] msg = new byte[pipeWriter.maxMessageLength()];
+        Assert.assertTrue(pipeWriter.write(1, msg, 0, msg.length, TIMEOUT_MS));
+        Assert.assertTrue(pipeWriter.write(1, msg, 0, msg.length, TIMEOUT_MS));
+        Assert.assertFalse(pipeWriter.write(1, msg, 0, msg.length, TIMEOUT_MS));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotReconnectWhileWriterIsAlive() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        new MemoryMappedPipeWriter(file, CAPACITY);
+
+        MemoryMappedPipeWriter.reconnect(file, CAPACITY, 1000);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotReconnectWhileStalledWriterHoldsPipe() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        new MemoryMappedPipeWriter(file, CAPACITY);
+
+        Thread.sleep(2 * TIMEOUT_MS);
+
+        MemoryMappedPipeWriter.reconnect(file, CAPACITY, TIMEOUT_MS);
+    }
+
+    @Test
+    public void shouldRefuseSecondWriterWithoutWipingLivePipe() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, CAPACITY);
+        write(pipeWriter, "unread");
+
+        try
+        {
+            new MemoryMappedPipeWriter(file, CAPACITY);
+            Assert.fail("second writer should have been refused");
+        }
+        catch (final IllegalStateException ex)
+        {
+            // expected as the first writer still holds the pipe
+        }
+
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, CAPACITY);
+        final List<String> messages = new ArrayList<String>();
+        pipeReader.read(new MessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final byte[] buffer, final int offset, final int length)
+            {
+                messages.add(new String(buffer, offset, length));
+            }
+        });
+
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("unread", messages.get(0));
+    }
+
+    @Test
+    public void shouldHeartbeatWhenWriteRefreshesReadCounter() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, CAPACITY);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, CAPACITY);
+
+        Thread.sleep(2 * TIMEOUT_MS);
+        Assert.assertFalse(pipeReader.isWriterAlive(TIMEOUT_MS));
+
+        final byte[] msg = new byte[pipeWriter.maxMessageLength()];
+        while (pipeWriter.write(1, msg, 0, msg.length))
+        {
+            // fill the pipe until the writer must refresh its view of the read counter
+        }
+
+        Assert.assertTrue(pipeReader.isWriterAlive(TIMEOUT_MS));
+    }
+
+    @Test
+    public void shouldResumeFromPersistedCountersAfterWriterAndReaderCrash() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        // a writer whose process has died no longer holds the file lock so is simulated over a plain mapping
+        final int fileSize = CAPACITY + PipeDescriptor.TRAILER_SIZE;
+        final AtomicBuffer crashedBuffer = new AtomicBuffer(IoUtil.mapNewFile(file, fileSize));
+        final MemoryMappedPipeWriter crashedWriter = new MemoryMappedPipeWriter(crashedBuffer, CAPACITY);
+        final MemoryMappedPipeReader crashedReader = new MemoryMappedPipeReader(file, CAPACITY);
+        final List<String> messages = new ArrayList<String>();
+        final MessageHandler handler = new MessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final byte[] buffer, final int offset, final int length)
+            {
+                messages.add(new String(buffer, offset, length));
+            }
+        };
+
+        write(crashedWriter, "first");
+        Assert.assertEquals(1, crashedReader.read(handler));
+        write(crashedWriter, "second");
+        crashedWriter.claim(1, 8);
+
+        Thread.sleep(2 * TIMEOUT_MS);
+        Assert.assertFalse(crashedReader.isWriterAlive(TIMEOUT_MS));
+
+        final MemoryMappedPipeWriter pipeWriter = MemoryMappedPipeWriter.reconnect(file, CAPACITY, TIMEOUT_MS);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, CAPACITY, TIMEOUT_MS);
+        Assert.assertTrue(pipeReader.isWriterAlive(1000));
+
+        write(pipeWriter, "third");
+        Assert.assertEquals(2, pipeReader.read(handler));
+
+        Assert.assertEquals("first", messages.get(0));
+        Assert.assertEquals("second", messages.get(1));
+        Assert.assertEquals("third", messages.get(2));
+    }
+
+    private static void write(final MemoryMappedPipeWriter pipeWriter, final String msg)
+    {
+        final byte[] bytes = msg.getBytes();
+        Assert.assertTrue(pipeWriter.write(1, bytes, 0, bytes.length));
+    }
+}
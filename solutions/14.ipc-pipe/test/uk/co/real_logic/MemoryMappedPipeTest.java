@@ -1,10 +1,18 @@
 package uk.co.real_logic;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class MemoryMappedPipeTest
 {
@@ -139,4 +147,329 @@ public class MemoryMappedPipeTest
         Assert.assertEquals(testBytes.length * 2, bytesRead[0]);
         Assert.assertEquals(exchangedMsg, testMsg + testMsg);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldExchangeWholeMessages() throws Exception
+    {
+        final String testMsg = "This is a test message to exchange";
+        final byte[] testBytes = testMsg.getBytes();
+        final int msgTypeId = 7;
+
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int pipeCapacity = 1024;
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, pipeCapacity);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, pipeCapacity);
+
+        Assert.assertTrue(pipeWriter.write(msgTypeId, testBytes, 0, testBytes.length));
+        Assert.assertTrue(pipeWriter.write(msgTypeId + 1, testBytes, 0, testBytes.length));
+
+        final List<String> messages = new ArrayList<String>();
+        final int messagesRead = pipeReader.read(new MessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final byte[] buffer, final int offset, final int length)
+            {
+                messages.add(msgTypeId + ":" + new String(buffer, offset, length));
+            }
+        });
+
+        Assert.assertEquals(2, messagesRead);
+        Assert.assertEquals(msgTypeId + ":" + testMsg, messages.get(0));
+        Assert.assertEquals((msgTypeId + 1) + ":" + testMsg, messages.get(1));
+    }
+
+    @Test
+    public void shouldPadRatherThanWrapMessages() throws Exception
+    {
+        final String testMsg = "This is a test message to exchange";
+        final byte[] testBytes = testMsg.getBytes();
+        final int repetitions = 100;
+
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int pipeCapacity = 128;
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, pipeCapacity);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, pipeCapacity);
+
+        final List<String> messages = new ArrayList<String>();
+        final MessageHandler handler = new MessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final byte[] buffer, final int offset, final int length)
+            {
+                messages.add(new String(buffer, offset, length));
+            }
+        };
+
+        for (int i = 0; i < repetitions; i++)
+        {
+            while (!pipeWriter.write(1, testBytes, 0, testBytes.length))
+            {
+                pipeReader.read(handler);
+            }
+        }
+
+        pipeWriter.close();
+
+        while (PipeDescriptor.EOF != pipeReader.read(handler))
+        {
+            // keep reading until the end of the pipe
+        }
+
+        Assert.assertEquals(repetitions, messages.size());
+        for (final String message : messages)
+        {
+            Assert.assertEquals(testMsg, message);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMessageLongerThanMaxMessageLength() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, 64);
+        final byte[] testBytes = new byte[pipeWriter.maxMessageLength() + 1];
+
+        pipeWriter.write(1, testBytes, 0, testBytes.length);
+    }
+
+    @Test
+    public void shouldReadMessagesInPlace() throws Exception
+    {
+        final String testMsg = "This is a test message to exchange";
+        final byte[] testBytes = testMsg.getBytes();
+        final int msgTypeId = 7;
+
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int pipeCapacity = 1024;
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, pipeCapacity);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, pipeCapacity);
+
+        Assert.assertTrue(pipeWriter.write(msgTypeId, testBytes, 0, testBytes.length));
+
+        final List<String> messages = new ArrayList<String>();
+        final int messagesRead = pipeReader.readInPlace(new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                final byte[] dst = new byte[length];
+                buffer.getBytes(index, dst, 0, length);
+                messages.add(msgTypeId + ":" + new String(dst));
+            }
+        });
+
+        Assert.assertEquals(1, messagesRead);
+        Assert.assertEquals(msgTypeId + ":" + testMsg, messages.get(0));
+    }
+
+    @Test
+    public void shouldConsumeMessageWhoseHandlerThrows() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int pipeCapacity = 1024;
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, pipeCapacity);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, pipeCapacity);
+
+        final byte[] testBytes = new byte[8];
+        Assert.assertTrue(pipeWriter.write(1, testBytes, 0, testBytes.length));
+        Assert.assertTrue(pipeWriter.write(2, testBytes, 0, testBytes.length));
+
+        final List<Integer> msgTypeIds = new ArrayList<Integer>();
+        final BufferMessageHandler handler = new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                msgTypeIds.add(Integer.valueOf(msgTypeId));
+                if (1 == msgTypeId)
+                {
+                    throw new IllegalStateException();
+                }
+            }
+        };
+
+        try
+        {
+            pipeReader.readInPlace(handler);
+            Assert.fail("expected IllegalStateException");
+        }
+        catch (final IllegalStateException ignore)
+        {
+        }
+
+        Assert.assertEquals(1, pipeReader.readInPlace(handler));
+        Assert.assertEquals(0, pipeReader.readInPlace(handler));
+        Assert.assertEquals(Arrays.asList(1, 2), msgTypeIds);
+    }
+
+    @Test
+    public void shouldExchangeMessageOverPreTouchedPageAlignedPipe() throws Exception
+    {
+        final String testMsg = "This is a test message to exchange";
+        final byte[] testBytes = testMsg.getBytes();
+
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final RandomAccessFile staleFile = new RandomAccessFile(file, "rw");
+        for (int i = 0; i < 2 * IoUtil.PAGE_SIZE; i++)
+        {
+            staleFile.writeByte(0xFF);
+        }
+        staleFile.close();
+
+        final int pipeCapacity = 1024;
+        final MemoryMappedPipeWriter pipeWriter =
+            new MemoryMappedPipeWriter(file, pipeCapacity, IoUtil.PAGE_SIZE, true);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, pipeCapacity);
+
+        Assert.assertEquals(IoUtil.PAGE_SIZE, file.length());
+
+        pipeWriter.write(testBytes, 0, testBytes.length);
+
+        final byte[] buffer = new byte[1024];
+        final int bytes = pipeReader.read(buffer, 0, buffer.length);
+
+        Assert.assertEquals(testMsg, new String(buffer, 0, bytes));
+    }
+
+    @Test
+    public void shouldPublishClaimedMessagesOnlyOnCommit() throws Exception
+    {
+        final byte[] testBytes = "This is a test message to exchange".getBytes();
+
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int pipeCapacity = 1024;
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, pipeCapacity);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, pipeCapacity);
+
+        final List<String> messages = new ArrayList<String>();
+        final MessageHandler handler = new MessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final byte[] buffer, final int offset, final int length)
+            {
+                messages.add(msgTypeId + ":" + new String(buffer, offset, length));
+            }
+        };
+
+        for (int i = 0; i < 3; i++)
+        {
+            final int msgIndex = pipeWriter.claim(i, testBytes.length);
+            Assert.assertTrue(msgIndex >= 0);
+            pipeWriter.buffer().putBytes(msgIndex, testBytes, 0, testBytes.length);
+        }
+
+        Assert.assertEquals(0, pipeReader.read(handler));
+
+        pipeWriter.commit();
+
+        Assert.assertEquals(3, pipeReader.read(handler));
+        Assert.assertEquals("2:" + new String(testBytes), messages.get(2));
+    }
+
+    @Test
+    public void shouldReturnInsufficientCapacityWhenClaimingFromFullPipe() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int pipeCapacity = 64;
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, pipeCapacity);
+
+        int claims = 0;
+        while (PipeDescriptor.INSUFFICIENT_CAPACITY != pipeWriter.claim(1, 8))
+        {
+            ++claims;
+        }
+
+        Assert.assertEquals(pipeCapacity / 16, claims);
+    }
+
+    @Test
+    public void shouldGatherBuffersIntoSingleWrite() throws Exception
+    {
+        final String testMsg = "This is a test message to exchange";
+
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int pipeCapacity = 64;
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, pipeCapacity);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, pipeCapacity);
+
+        final ByteBuffer heapBuffer = ByteBuffer.wrap(testMsg.getBytes());
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(testMsg.length());
+        directBuffer.put(testMsg.getBytes()).flip();
+        final ByteBuffer[] srcs = {heapBuffer, directBuffer};
+
+        Assert.assertEquals(pipeCapacity, pipeWriter.write(srcs));
+        Assert.assertEquals(0, heapBuffer.remaining());
+        Assert.assertEquals((testMsg.length() * 2) - pipeCapacity, directBuffer.remaining());
+
+        final byte[] buffer = new byte[1024];
+        final int bytes = pipeReader.read(buffer, 0, buffer.length);
+        Assert.assertEquals((testMsg + testMsg).substring(0, pipeCapacity), new String(buffer, 0, bytes));
+
+        Assert.assertEquals(directBuffer.remaining(), pipeWriter.write(srcs));
+        final int remainingBytes = pipeReader.read(buffer, 0, buffer.length);
+        Assert.assertEquals(testMsg.substring(pipeCapacity - testMsg.length()), new String(buffer, 0, remainingBytes));
+    }
+
+    @Test
+    public void shouldAllocateZeroedFileReplacingStaleContent() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int length = 3 * IoUtil.PAGE_SIZE + 8;
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        for (int i = 0; i < 2 * length; i++)
+        {
+            randomAccessFile.writeByte(0xFF);
+        }
+
+        IoUtil.allocate(randomAccessFile, length);
+
+        Assert.assertEquals(length, randomAccessFile.length());
+
+        final byte[] content = new byte[length];
+        randomAccessFile.seek(0);
+        randomAccessFile.readFully(content);
+        randomAccessFile.close();
+
+        Assert.assertArrayEquals(new byte[length], content);
+    }
+
+    @Test
+    public void shouldFaultInEveryPageOfSparseFileWhenPreTouched() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int length = 16 * IoUtil.PAGE_SIZE;
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        IoUtil.allocateSparse(randomAccessFile, length);
+        final MappedByteBuffer mappedBuffer =
+            randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        randomAccessFile.close();
+
+        // the page cache may already hold pages of a fresh sparse file, in which case there is nothing to prove
+        Assume.assumeTrue(!mappedBuffer.isLoaded());
+
+        IoUtil.preTouch(new AtomicBuffer(mappedBuffer), length, IoUtil.PAGE_SIZE);
+
+        Assert.assertTrue(mappedBuffer.isLoaded());
+        for (int i = 0; i < length; i++)
+        {
+            Assert.assertEquals(0, mappedBuffer.get(i));
+        }
+    }
+}
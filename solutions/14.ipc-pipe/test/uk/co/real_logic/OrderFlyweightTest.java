@@ -0,0 +1,57 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class OrderFlyweightTest
+{
+    @Test
+    public void shouldEncodeAndDecodeOrdersInPlaceOverPipe() throws Exception
+    {
+        final File file = File.createTempFile("pipe-", ".dat");
+        file.deleteOnExit();
+
+        final int pipeCapacity = 1024;
+        final MemoryMappedPipeWriter pipeWriter = new MemoryMappedPipeWriter(file, pipeCapacity);
+        final MemoryMappedPipeReader pipeReader = new MemoryMappedPipeReader(file, pipeCapacity);
+
+        final OrderFlyweight encoder = new OrderFlyweight();
+        final int orderCount = 3;
+        for (int i = 0; i < orderCount; i++)
+        {
+            final int index = pipeWriter.claim(OrderFlyweight.MSG_TYPE_ID, OrderFlyweight.LENGTH);
+            Assert.assertTrue(index >= 0);
+
+            encoder.wrap(pipeWriter.buffer(), index)
+                   .orderId(i)
+                   .price(10000L + i)
+                   .quantity(100 * i)
+                   .instrumentId(42)
+                   .side(0 == (i & 1) ? OrderFlyweight.BUY : OrderFlyweight.SELL);
+        }
+        pipeWriter.commit();
+
+        final OrderFlyweight decoder = new OrderFlyweight();
+        final long[] expectedOrderId = {0};
+        final int ordersRead = pipeReader.readInPlace(new BufferMessageHandler()
+        {
+            public void onMessage(final int msgTypeId, final AtomicBuffer buffer, final int index, final int length)
+            {
+                Assert.assertEquals(OrderFlyweight.MSG_TYPE_ID, msgTypeId);
+                Assert.assertEquals(OrderFlyweight.LENGTH, length);
+
+                final long i = expectedOrderId[0]++;
+                decoder.wrap(buffer, index);
+                Assert.assertEquals(i, decoder.orderId());
+                Assert.assertEquals(10000L + i, decoder.price());
+                Assert.assertEquals(100 * i, decoder.quantity());
+                Assert.assertEquals(42, decoder.instrumentId());
+                Assert.assertEquals(0 == (i & 1) ? OrderFlyweight.BUY : OrderFlyweight.SELL, decoder.side());
+            }
+        });
+
+        Assert.assertEquals(orderCount, ordersRead);
+    }
+}
@@ -170,6 +170,14 @@ public class AtomicCounterTest
             }
         }
     }
-}
-
 
+    @Test
+    public void shouldGetAndSet()
+    {
+        AtomicCounter counter = new AtomicCounter(INITIAL_VALUE);
+        final long testValue = 9L;
+        long existingValue = counter.getAndSet(testValue);
+        Assert.assertEquals(INITIAL_VALUE, existingValue);
+        Assert.assertEquals(testValue, counter.get());
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2013 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * <p>
+ * Fixed memory histogram of non-negative long values, such as latencies in nanoseconds, which many threads can record
+ * to concurrently.
+ * </p>
+ * <p>
+ * Buckets are log-linear. Values below 2^subBucketBits are counted exactly and each higher power of 2 is divided into
+ * 2^(subBucketBits - 1) linear sub-buckets, so the relative error of a recorded value is at most 2^-(subBucketBits - 1)
+ * across the whole range of long.
+ * </p>
+ * <p>
+ * {@link #recordValue(long)} is a single fetch-and-add on the count of the bucket, so it is wait-free apart from the
+ * CAS on the padded maximum which is only taken when a new maximum is recorded. Snapshots read the counts while
+ * writers carry on, so a snapshot may include some but not all of the values recorded while it was being taken.
+ * </p>
+ */
+public class ConcurrentHistogram
+{
+    /**
+     * Default number of sub-bucket bits giving a relative error of less than 1%.
+     */
+    public static final int DEFAULT_SUB_BUCKET_BITS = 8;
+
+    private static final int PADDING = 8;
+
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final int halfSubBucketCount;
+    private final int bucketCount;
+    private final long[] counts;
+    private final AtomicCounter maxValue = new AtomicCounter(0);
+
+    private HistogramSnapshot lastIntervalSnapshot;
+
+    /**
+     * Create a histogram with {@link #DEFAULT_SUB_BUCKET_BITS}.
+     */
+    public ConcurrentHistogram()
+    {
+        this(DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Create a histogram with the given precision.
+     *
+     * @param subBucketBits number of bits of precision kept for each value, from 2 to 16.
+     */
+    public ConcurrentHistogram(final int subBucketBits)
+    {
+        if (subBucketBits < 2 || subBucketBits > 16)
+        {
+            String msg = "subBucketBits must be in the range 2 to 16: subBucketBits=" + subBucketBits;
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.subBucketBits = subBucketBits;
+        subBucketCount = 1 << subBucketBits;
+        halfSubBucketCount = subBucketCount >> 1;
+        bucketCount = subBucketCount + ((63 - subBucketBits) * halfSubBucketCount);
+        counts = new long[PADDING + bucketCount + PADDING];
+        lastIntervalSnapshot = new HistogramSnapshot(this, new long[bucketCount], 0);
+    }
+
+    /**
+     * Get the number of bits of precision kept for each value.
+     *
+     * @return the number of bits of precision kept for each value.
+     */
+    public int getSubBucketBits()
+    {
+        return subBucketBits;
+    }
+
+    /**
+     * Record a value. Safe to call concurrently from many threads.
+     *
+     * @param value to be recorded which must not be negative.
+     */
+    public void recordValue(final long value)
+    {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("value must not be negative: value=" + value);
+        }
+
+        COUNTS.getAndAdd(counts, PADDING + bucketIndex(value), 1L);
+
+        long currentMax;
+        while (value > (currentMax = maxValue.get()))
+        {
+            if (maxValue.compareAndSet(currentMax, value))
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Get the maximum value recorded since creation.
+     *
+     * @return the maximum value recorded.
+     */
+    public long getMaxValue()
+    {
+        return maxValue.get();
+    }
+
+    /**
+     * Take a snapshot of all the values recorded since creation.
+     *
+     * @return a snapshot of all the values recorded since creation.
+     */
+    public HistogramSnapshot snapshot()
+    {
+        final long[] snapshotCounts = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++)
+        {
+            snapshotCounts[i] = (long)COUNTS.getOpaque(counts, PADDING + i);
+        }
+
+        return new HistogramSnapshot(this, snapshotCounts, maxValue.get());
+    }
+
+    /**
+     * Take a snapshot of the values recorded since the previous call to this method, or since creation for the first
+     * call. Only one thread should take interval snapshots. Writers are not stopped.
+     *
+     * @return a snapshot of the values recorded in the interval.
+     */
+    public synchronized HistogramSnapshot intervalSnapshot()
+    {
+        final HistogramSnapshot snapshot = snapshot();
+        final HistogramSnapshot interval = snapshot.minus(lastIntervalSnapshot);
+        lastIntervalSnapshot = snapshot;
+
+        return interval;
+    }
+
+    /**
+     * Find the index of the bucket counting a value.
+     *
+     * @param value to be counted.
+     * @return the index of the bucket.
+     */
+    public int bucketIndex(final long value)
+    {
+        if (value < subBucketCount)
+        {
+            return (int)value;
+        }
+
+        final int msb = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int)(value >>> (msb - subBucketBits + 1));
+
+        return subBucketCount + ((msb - subBucketBits) * halfSubBucketCount) + (subBucket - halfSubBucketCount);
+    }
+
+    /**
+     * Get the lowest value counted by a bucket.
+     *
+     * @param index of the bucket.
+     * @return the lowest value counted by the bucket.
+     */
+    public long lowestValueAt(final int index)
+    {
+        if (index < subBucketCount)
+        {
+            return index;
+        }
+
+        final int offset = index - subBucketCount;
+        final int msb = subBucketBits + (offset / halfSubBucketCount);
+        final long subBucket = halfSubBucketCount + (offset % halfSubBucketCount);
+
+        return subBucket << (msb - subBucketBits + 1);
+    }
+
+    /**
+     * Get the highest value counted by a bucket.
+     *
+     * @param index of the bucket.
+     * @return the highest value counted by the bucket.
+     */
+    public long highestValueAt(final int index)
+    {
+        return index + 1 < bucketCount ? lowestValueAt(index + 1) - 1 : Long.MAX_VALUE;
+    }
+}
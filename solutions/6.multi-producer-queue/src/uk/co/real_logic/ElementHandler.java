@@ -0,0 +1,6 @@
+package uk.co.real_logic;
+
+public interface ElementHandler<E>
+{
+    void onElement(E e);
+}
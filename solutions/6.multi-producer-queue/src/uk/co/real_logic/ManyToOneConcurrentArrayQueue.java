@@ -1,31 +1,15 @@
 package uk.co.real_logic;
 
-import sun.misc.Unsafe;
-
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 
-public class ManyToOneConcurrentArrayQueue<E> implements Queue<E>
+public class ManyToOneConcurrentArrayQueue<E> implements Queue<E>, Drainable<E>
 {
-    private static final Unsafe unsafe;
-    private static final int arrayBase;
-    private static final int arrayScale;
-
-    static
-    {
-        try
-        {
-            unsafe = Util.getUnsafe();
-            arrayBase = unsafe.arrayBaseOffset(Object[].class);
-            arrayScale = Util.calculateShiftForScale(unsafe.arrayIndexScale(Object[].class));
-        }
-        catch (Exception e)
-        {
-            throw new RuntimeException(e);
-        }
-    }
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
 
     private final E[] buffer;
     private final int mask;
@@ -74,12 +58,11 @@ public class ManyToOneConcurrentArrayQueue<E> implements Queue<E>
 
         final int index = (int)currentTail & mask;
         
-        unsafe.putOrderedObject(buffer, calculateOffset(index), e);
+        ELEMENTS.setRelease(buffer, index, e);
 
         return true;
     }
 
-    @SuppressWarnings("unchecked")
     public E poll()
     {
         final long currentHead = head.get();
@@ -88,20 +71,37 @@ public class ManyToOneConcurrentArrayQueue<E> implements Queue<E>
             return null;
         }
 
-        final long elementOffset = calculateOffset((int)currentHead & mask);
-        E item;
-        do
-        {
-            item = (E)unsafe.getObjectVolatile(buffer, elementOffset);
-        }
-        while (null == item);
-
-        unsafe.putOrderedObject(buffer, elementOffset, null);
+        final E item = removeSequence(currentHead);
         head.setOrdered(currentHead + 1);
 
         return item;
     }
 
+    /**
+     * Drain all elements up to the tail observed at the start, waiting on any slot whose producer has claimed it but
+     * not yet stored its element, and publish the head once for the whole batch.
+     */
+    public int drain(final ElementHandler<E> elementHandler)
+    {
+        final long currentHead = head.get();
+        final long currentTail = tail.get();
+        long nextSequence = currentHead;
+
+        try
+        {
+            while (nextSequence < currentTail)
+            {
+                elementHandler.onElement(removeSequence(nextSequence++));
+            }
+        }
+        finally
+        {
+            head.setOrdered(nextSequence);
+        }
+
+        return (int)(nextSequence - currentHead);
+    }
+
     public E remove()
     {
         final E e = poll();
@@ -127,7 +127,7 @@ public class ManyToOneConcurrentArrayQueue<E> implements Queue<E>
     public E peek()
     {
         final int index = (int)head.get() & mask;
-        return getElementVolatile(index);
+        return getElementAcquire(index);
     }
 
     public int size()
@@ -158,7 +158,7 @@ public class ManyToOneConcurrentArrayQueue<E> implements Queue<E>
 
         for (long i = head.get(), limit = tail.get(); i < limit; i++)
         {
-            final E e = getElementVolatile((int)i & mask);
+            final E e = getElementAcquire((int)i & mask);
             if (o.equals(e))
             {
                 return true;
@@ -226,14 +226,25 @@ public class ManyToOneConcurrentArrayQueue<E> implements Queue<E>
         throw new UnsupportedOperationException();
     }
 
-    private static long calculateOffset(final int index)
+    @SuppressWarnings("unchecked")
+    private E getElementAcquire(final int index)
     {
-        return arrayBase + ((long)index << arrayScale);
+        return (E)ELEMENTS.getAcquire(buffer, index);
     }
 
     @SuppressWarnings("unchecked")
-    private E getElementVolatile(final int index)
+    private E removeSequence(final long sequence)
     {
-        return (E)unsafe.getObjectVolatile(buffer, calculateOffset(index));
+        final int index = (int)sequence & mask;
+        E item;
+        do
+        {
+            item = (E)ELEMENTS.getAcquire(buffer, index);
+        }
+        while (null == item);
+
+        ELEMENTS.setRelease(buffer, index, null);
+
+        return item;
     }
 }
@@ -0,0 +1,330 @@
+package uk.co.real_logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Unbounded multiple producer to single consumer queue made of a linked list of fixed size array chunks.
+ *
+ * Producers claim a sequence with a CAS on the tail as for {@link ManyToOneConcurrentArrayQueue} so offer never fails.
+ * The chunk holding a sequence is found by its index, which is the sequence divided by the chunk size. The producer
+ * that claims the first sequence of a new chunk appends it while the other producers for that chunk wait. Producers
+ * with a sequence in an earlier chunk walk back to it through the previous chunk links.
+ *
+ * The consumer scans each chunk in order like an array queue. It recycles a chunk once it has consumed it, so a
+ * consumer that keeps up with its producers reuses the same chunks and generates no garbage.
+ */
+public class ManyToOneConcurrentChunkedArrayQueue<E> implements Queue<E>, Drainable<E>
+{
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final long ROTATION = -1;
+
+    private final int chunkSize;
+    private final int chunkMask;
+    private final int chunkShift;
+
+    private final AtomicCounter head = new AtomicCounter(0);
+    private final AtomicCounter tail = new AtomicCounter(0);
+    private final AtomicCounter producerChunkIndex = new AtomicCounter(0);
+
+    private volatile Chunk producerChunk;
+    private volatile Chunk spareChunk;
+    private Chunk consumerChunk;
+
+    public ManyToOneConcurrentChunkedArrayQueue(final int chunkSize)
+    {
+        this.chunkSize = Util.findNextPositivePowerOfTwo(chunkSize);
+        chunkMask = this.chunkSize - 1;
+        chunkShift = Integer.numberOfTrailingZeros(this.chunkSize);
+
+        final Chunk chunk = new Chunk(this.chunkSize);
+        chunk.index = 0;
+        producerChunk = chunk;
+        consumerChunk = chunk;
+    }
+
+    public int chunkSize()
+    {
+        return chunkSize;
+    }
+
+    public boolean add(final E e)
+    {
+        return offer(e);
+    }
+
+    public boolean offer(final E e)
+    {
+        if (null == e)
+        {
+            throw new NullPointerException("element cannot be null");
+        }
+
+        final long sequence = tail.getAndIncrement();
+        final Chunk chunk = producerChunkFor(sequence >> chunkShift);
+
+        ELEMENTS.setRelease(chunk.elements, (int)sequence & chunkMask, e);
+
+        return true;
+    }
+
+    public E poll()
+    {
+        final long currentHead = head.get();
+        if (currentHead == tail.get())
+        {
+            return null;
+        }
+
+        final E item = removeSequence(currentHead);
+        head.setOrdered(currentHead + 1);
+
+        return item;
+    }
+
+    /**
+     * Drain all elements up to the tail observed at the start, waiting on any slot whose producer has claimed it but
+     * not yet stored its element, and publish the head once for the whole batch.
+     */
+    public int drain(final ElementHandler<E> elementHandler)
+    {
+        final long currentHead = head.get();
+        final long currentTail = tail.get();
+        long nextSequence = currentHead;
+
+        try
+        {
+            while (nextSequence < currentTail)
+            {
+                elementHandler.onElement(removeSequence(nextSequence++));
+            }
+        }
+        finally
+        {
+            head.setOrdered(nextSequence);
+        }
+
+        return (int)(nextSequence - currentHead);
+    }
+
+    public E remove()
+    {
+        final E e = poll();
+        if (null == e)
+        {
+            throw new IllegalStateException("Queue is empty");
+        }
+
+        return e;
+    }
+
+    public E element()
+    {
+        final E e = peek();
+        if (null == e)
+        {
+            throw new NoSuchElementException("Queue is empty");
+        }
+
+        return e;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E peek()
+    {
+        final long currentHead = head.get();
+        final int index = (int)currentHead & chunkMask;
+        if (0 == index && currentHead != 0)
+        {
+            final Chunk next = consumerChunk.next;
+            return null == next ? null : (E)ELEMENTS.getAcquire(next.elements, 0);
+        }
+
+        return (E)ELEMENTS.getAcquire(consumerChunk.elements, index);
+    }
+
+    public int size()
+    {
+        long currentHead;
+        long currentTail;
+        do
+        {
+            currentHead = head.get();
+            currentTail = tail.get();
+        }
+        while (currentHead != head.get());
+
+        return (int)Math.min(currentTail - currentHead, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty()
+    {
+        return tail.get() == head.get();
+    }
+
+    public boolean contains(final Object o)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Iterator<E> iterator()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Object[] toArray()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public <T> T[] toArray(final T[] a)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean remove(final Object o)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean containsAll(final Collection<?> c)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean addAll(final Collection<? extends E> c)
+    {
+        for (final E o : c)
+        {
+            add(o);
+        }
+
+        return true;
+    }
+
+    public boolean removeAll(final Collection<?> c)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean retainAll(final Collection<?> c)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public void clear()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    private Chunk producerChunkFor(final long chunkIndex)
+    {
+        while (true)
+        {
+            final long currentChunkIndex = producerChunkIndex.get();
+            if (ROTATION != currentChunkIndex)
+            {
+                Chunk chunk = producerChunk;
+                if (chunk.index >= chunkIndex)
+                {
+                    // chunks from the latest back to ours cannot be recycled until our element has been consumed
+                    while (chunk.index != chunkIndex)
+                    {
+                        chunk = chunk.prev;
+                    }
+
+                    return chunk;
+                }
+
+                if (chunkIndex == currentChunkIndex + 1 &&
+                    producerChunkIndex.compareAndSet(currentChunkIndex, ROTATION))
+                {
+                    return appendChunk(producerChunk, chunkIndex);
+                }
+            }
+
+            Thread.yield();
+        }
+    }
+
+    private Chunk appendChunk(final Chunk lastChunk, final long chunkIndex)
+    {
+        Chunk chunk = spareChunk;
+        if (null == chunk)
+        {
+            chunk = new Chunk(chunkSize);
+        }
+        else
+        {
+            spareChunk = null;
+        }
+
+        chunk.prev = lastChunk;
+        chunk.index = chunkIndex;
+        lastChunk.next = chunk;
+        producerChunk = chunk;
+        producerChunkIndex.setOrdered(chunkIndex);
+
+        return chunk;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E removeSequence(final long sequence)
+    {
+        final int index = (int)sequence & chunkMask;
+        Chunk chunk = consumerChunk;
+        if (0 == index && chunk.index != sequence >> chunkShift)
+        {
+            chunk = nextConsumerChunk(chunk);
+        }
+
+        E item;
+        do
+        {
+            item = (E)ELEMENTS.getAcquire(chunk.elements, index);
+        }
+        while (null == item);
+
+        ELEMENTS.setRelease(chunk.elements, index, null);
+
+        return item;
+    }
+
+    private Chunk nextConsumerChunk(final Chunk chunk)
+    {
+        Chunk next;
+        while (null == (next = chunk.next))
+        {
+            Thread.yield();
+        }
+
+        next.prev = null;
+        chunk.next = null;
+        chunk.index = ROTATION;
+        consumerChunk = next;
+
+        if (null == spareChunk)
+        {
+            spareChunk = chunk;
+        }
+
+        return next;
+    }
+
+    private static final class Chunk
+    {
+        private final Object[] elements;
+        private volatile long index;
+        private volatile Chunk prev;
+        private volatile Chunk next;
+
+        private Chunk(final int chunkSize)
+        {
+            elements = new Object[chunkSize];
+        }
+    }
+}
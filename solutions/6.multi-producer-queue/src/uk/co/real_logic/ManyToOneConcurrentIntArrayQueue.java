@@ -0,0 +1,124 @@
+package uk.co.real_logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Multiple producer to single consumer queue of primitive ints which avoids the boxing, allocation and
+ * indirection of a {@link ManyToOneConcurrentArrayQueue} of {@link Integer}.
+ *
+ * A reserved null value, which cannot be offered, marks an empty slot in the same way null does for the object
+ * queue and is returned by {@link #poll()} and {@link #peek()} when the queue is empty.
+ */
+public class ManyToOneConcurrentIntArrayQueue
+{
+    public static final int DEFAULT_NULL_VALUE = Integer.MIN_VALUE;
+
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int[] buffer;
+    private final int nullValue;
+    private final int mask;
+    private final int capacity;
+
+    private final AtomicCounter head = new AtomicCounter(0);
+    private final AtomicCounter tail = new AtomicCounter(0);
+
+    public ManyToOneConcurrentIntArrayQueue(final int capacity)
+    {
+        this(capacity, DEFAULT_NULL_VALUE);
+    }
+
+    public ManyToOneConcurrentIntArrayQueue(final int capacity, final int nullValue)
+    {
+        this.capacity = Util.findNextPositivePowerOfTwo(capacity);
+        mask = this.capacity - 1;
+        this.nullValue = nullValue;
+        buffer = new int[this.capacity];
+        Arrays.fill(buffer, nullValue);
+    }
+
+    public int nullValue()
+    {
+        return nullValue;
+    }
+
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    public boolean offer(final int value)
+    {
+        if (nullValue == value)
+        {
+            throw new IllegalArgumentException("null value cannot be offered: " + value);
+        }
+
+        long currentTail;
+        do
+        {
+            final long bufferLimit = head.get() + capacity;
+            currentTail = tail.get();
+
+            if (currentTail >= bufferLimit)
+            {
+                return false;
+            }
+        }
+        while (!tail.compareAndSet(currentTail, currentTail + 1));
+
+        final int index = (int)currentTail & mask;
+
+        ELEMENTS.setRelease(buffer, index, value);
+
+        return true;
+    }
+
+    public int poll()
+    {
+        final long currentHead = head.get();
+        if (currentHead == tail.get())
+        {
+            return nullValue;
+        }
+
+        final int index = (int)currentHead & mask;
+        int value;
+        do
+        {
+            value = (int)ELEMENTS.getAcquire(buffer, index);
+        }
+        while (nullValue == value);
+
+        ELEMENTS.setRelease(buffer, index, nullValue);
+        head.setOrdered(currentHead + 1);
+
+        return value;
+    }
+
+    public int peek()
+    {
+        return (int)ELEMENTS.getAcquire(buffer, (int)head.get() & mask);
+    }
+
+    public int size()
+    {
+        int size;
+        do
+        {
+            final long currentHead = head.get();
+            final long currentTail = tail.get();
+            size = (int)(currentTail - currentHead);
+        }
+        while (size > capacity);
+
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return tail.get() == head.get();
+    }
+}
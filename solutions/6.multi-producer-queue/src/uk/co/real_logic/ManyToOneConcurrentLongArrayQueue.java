@@ -0,0 +1,124 @@
+package uk.co.real_logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Multiple producer to single consumer queue of primitive longs which avoids the boxing, allocation and
+ * indirection of a {@link ManyToOneConcurrentArrayQueue} of {@link Long}.
+ *
+ * A reserved null value, which cannot be offered, marks an empty slot in the same way null does for the object
+ * queue and is returned by {@link #poll()} and {@link #peek()} when the queue is empty.
+ */
+public class ManyToOneConcurrentLongArrayQueue
+{
+    public static final long DEFAULT_NULL_VALUE = Long.MIN_VALUE;
+
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] buffer;
+    private final long nullValue;
+    private final int mask;
+    private final int capacity;
+
+    private final AtomicCounter head = new AtomicCounter(0);
+    private final AtomicCounter tail = new AtomicCounter(0);
+
+    public ManyToOneConcurrentLongArrayQueue(final int capacity)
+    {
+        this(capacity, DEFAULT_NULL_VALUE);
+    }
+
+    public ManyToOneConcurrentLongArrayQueue(final int capacity, final long nullValue)
+    {
+        this.capacity = Util.findNextPositivePowerOfTwo(capacity);
+        mask = this.capacity - 1;
+        this.nullValue = nullValue;
+        buffer = new long[this.capacity];
+        Arrays.fill(buffer, nullValue);
+    }
+
+    public long nullValue()
+    {
+        return nullValue;
+    }
+
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    public boolean offer(final long value)
+    {
+        if (nullValue == value)
+        {
+            throw new IllegalArgumentException("null value cannot be offered: " + value);
+        }
+
+        long currentTail;
+        do
+        {
+            final long bufferLimit = head.get() + capacity;
+            currentTail = tail.get();
+
+            if (currentTail >= bufferLimit)
+            {
+                return false;
+            }
+        }
+        while (!tail.compareAndSet(currentTail, currentTail + 1));
+
+        final int index = (int)currentTail & mask;
+
+        ELEMENTS.setRelease(buffer, index, value);
+
+        return true;
+    }
+
+    public long poll()
+    {
+        final long currentHead = head.get();
+        if (currentHead == tail.get())
+        {
+            return nullValue;
+        }
+
+        final int index = (int)currentHead & mask;
+        long value;
+        do
+        {
+            value = (long)ELEMENTS.getAcquire(buffer, index);
+        }
+        while (nullValue == value);
+
+        ELEMENTS.setRelease(buffer, index, nullValue);
+        head.setOrdered(currentHead + 1);
+
+        return value;
+    }
+
+    public long peek()
+    {
+        return (long)ELEMENTS.getAcquire(buffer, (int)head.get() & mask);
+    }
+
+    public int size()
+    {
+        int size;
+        do
+        {
+            final long currentHead = head.get();
+            final long currentTail = tail.get();
+            size = (int)(currentTail - currentHead);
+        }
+        while (size > capacity);
+
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return tail.get() == head.get();
+    }
+}
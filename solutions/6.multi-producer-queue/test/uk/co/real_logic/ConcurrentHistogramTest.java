@@ -0,0 +1,116 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class ConcurrentHistogramTest
+{
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram();
+
+    @Test
+    public void shouldCountSmallValuesExactly()
+    {
+        for (long value = 0; value < (1 << ConcurrentHistogram.DEFAULT_SUB_BUCKET_BITS); value++)
+        {
+            final int index = histogram.bucketIndex(value);
+            Assert.assertEquals(value, histogram.lowestValueAt(index));
+            Assert.assertEquals(value, histogram.highestValueAt(index));
+        }
+    }
+
+    @Test
+    public void shouldBucketEveryValueWithinRelativeError()
+    {
+        final double maxRelativeError = 1.0 / (1 << (ConcurrentHistogram.DEFAULT_SUB_BUCKET_BITS - 1));
+        final Random random = new Random(7);
+        for (int i = 0; i < 100000; i++)
+        {
+            final long value = random.nextLong() >>> (1 + random.nextInt(63));
+            final int index = histogram.bucketIndex(value);
+            final long lowest = histogram.lowestValueAt(index);
+            final long highest = histogram.highestValueAt(index);
+
+            Assert.assertTrue(value >= lowest && value <= highest);
+            Assert.assertTrue((highest - lowest) <= value * maxRelativeError);
+        }
+
+        Assert.assertEquals(Long.MAX_VALUE, histogram.highestValueAt(histogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void shouldReportPercentilesAndMax()
+    {
+        for (long value = 1; value <= 1000; value++)
+        {
+            histogram.recordValue(value);
+        }
+        histogram.recordValue(1000000);
+
+        final HistogramSnapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(1001, snapshot.getTotalCount());
+        Assert.assertEquals(1, snapshot.getMinValue());
+        Assert.assertEquals(1000000, snapshot.getMaxValue());
+        Assert.assertEquals(1000000, snapshot.getValueAtPercentile(100.0));
+        Assert.assertEquals(500.0, snapshot.getValueAtPercentile(50.0), 500.0 / 128);
+        Assert.assertEquals(999.0, snapshot.getValueAtPercentile(99.9), 999.0 / 128);
+        Assert.assertEquals(1499.0, snapshot.getMean(), 1499.0 / 128);
+    }
+
+    @Test
+    public void shouldTakeIntervalSnapshots()
+    {
+        histogram.recordValue(10);
+        histogram.recordValue(20);
+        Assert.assertEquals(2, histogram.intervalSnapshot().getTotalCount());
+
+        histogram.recordValue(30);
+        final HistogramSnapshot interval = histogram.intervalSnapshot();
+        Assert.assertEquals(1, interval.getTotalCount());
+        Assert.assertEquals(30, interval.getMinValue());
+        Assert.assertEquals(30, interval.getMaxValue());
+
+        Assert.assertEquals(0, histogram.intervalSnapshot().getTotalCount());
+        Assert.assertEquals(3, histogram.snapshot().getTotalCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeValues()
+    {
+        histogram.recordValue(-1);
+    }
+
+    @Test
+    public void shouldRecordFromManyThreads() throws Exception
+    {
+        final int numThreads = 3;
+        final int repetitions = 10 * 1000;
+        final Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++)
+        {
+            final long base = i * 1000L;
+            threads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    for (int j = 0; j < repetitions; j++)
+                    {
+                        histogram.recordValue(base + (j % 100));
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        final HistogramSnapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(numThreads * repetitions, snapshot.getTotalCount());
+        Assert.assertEquals(((numThreads - 1) * 1000L) + 99, snapshot.getMaxValue());
+        Assert.assertEquals(0, snapshot.getMinValue());
+    }
+}
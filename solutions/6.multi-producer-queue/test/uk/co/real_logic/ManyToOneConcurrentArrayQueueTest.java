@@ -0,0 +1,91 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class ManyToOneConcurrentArrayQueueTest
+{
+    private static final int QUEUE_CAPACITY = 1024;
+
+    @Test
+    public void shouldDrainAllElementsUpToTailInOrder()
+    {
+        final ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(QUEUE_CAPACITY);
+        for (int i = 0; i < 5; i++)
+        {
+            Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+        }
+
+        final List<Integer> drained = new ArrayList<Integer>();
+        final int drainCount = queue.drain(new ElementHandler<Integer>()
+        {
+            public void onElement(final Integer e)
+            {
+                drained.add(e);
+            }
+        });
+
+        Assert.assertEquals(5, drainCount);
+        for (int i = 0; i < 5; i++)
+        {
+            Assert.assertEquals(Integer.valueOf(i), drained.get(i));
+        }
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void shouldDrainFromManyProducersWithoutLosingElements() throws Exception
+    {
+        final ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(QUEUE_CAPACITY);
+        final int producerCount = 3;
+        final int repetitions = 100 * 1000;
+        final CountDownLatch latch = new CountDownLatch(producerCount);
+
+        for (int p = 0; p < producerCount; p++)
+        {
+            new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < repetitions; i++)
+                    {
+                        while (!queue.offer(Integer.valueOf(i)))
+                        {
+                            Thread.yield();
+                        }
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+
+        final long[] sum = {0};
+        final ElementHandler<Integer> handler = new ElementHandler<Integer>()
+        {
+            public void onElement(final Integer e)
+            {
+                sum[0] += e.intValue();
+            }
+        };
+
+        int drained = 0;
+        while (drained < producerCount * repetitions)
+        {
+            final int drainCount = queue.drain(handler);
+            if (0 == drainCount)
+            {
+                Thread.yield();
+            }
+            drained += drainCount;
+        }
+
+        latch.await();
+        Assert.assertEquals(producerCount * ((long)repetitions * (repetitions - 1) / 2), sum[0]);
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+
+public class ManyToOneConcurrentChunkedArrayQueueTest
+{
+    private static final int CHUNK_SIZE = 4;
+
+    @Test
+    public void shouldOfferBeyondChunkSizeAndPollInOrder()
+    {
+        final ManyToOneConcurrentChunkedArrayQueue<Integer> queue =
+            new ManyToOneConcurrentChunkedArrayQueue<Integer>(CHUNK_SIZE);
+
+        for (int lap = 0; lap < 3; lap++)
+        {
+            final int count = (CHUNK_SIZE * 5) + 1;
+            for (int i = 0; i < count; i++)
+            {
+                Assert.assertTrue(queue.offer(Integer.valueOf(i)));
+            }
+            Assert.assertEquals(count, queue.size());
+            Assert.assertEquals(Integer.valueOf(0), queue.peek());
+
+            for (int i = 0; i < count; i++)
+            {
+                Assert.assertEquals(Integer.valueOf(i), queue.poll());
+            }
+            Assert.assertNull(queue.poll());
+            Assert.assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test
+    public void shouldPreserveOrderPerProducerAcrossChunks() throws Exception
+    {
+        final ManyToOneConcurrentChunkedArrayQueue<Long> queue =
+            new ManyToOneConcurrentChunkedArrayQueue<Long>(CHUNK_SIZE);
+        final int producerCount = 3;
+        final int repetitions = 100 * 1000;
+        final CyclicBarrier barrier = new CyclicBarrier(producerCount);
+
+        for (int p = 0; p < producerCount; p++)
+        {
+            final long producerId = p;
+            new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        barrier.await();
+                    }
+                    catch (final Exception ignore)
+                    {
+                    }
+
+                    for (long i = 0; i < repetitions; i++)
+                    {
+                        queue.offer(Long.valueOf((producerId << 32) | i));
+                    }
+                }
+            }).start();
+        }
+
+        final long[] nextExpected = new long[producerCount];
+        final ElementHandler<Long> handler = new ElementHandler<Long>()
+        {
+            public void onElement(final Long e)
+            {
+                final int producerId = (int)(e.longValue() >>> 32);
+                Assert.assertEquals(nextExpected[producerId]++, e.longValue() & 0xFFFFFFFFL);
+            }
+        };
+
+        int received = 0;
+        while (received < producerCount * repetitions)
+        {
+            final int drainCount = queue.drain(handler);
+            if (0 == drainCount)
+            {
+                Thread.yield();
+            }
+            received += drainCount;
+        }
+
+        for (int p = 0; p < producerCount; p++)
+        {
+            Assert.assertEquals(repetitions, nextExpected[p]);
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
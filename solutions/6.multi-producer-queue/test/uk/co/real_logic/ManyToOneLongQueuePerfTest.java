@@ -0,0 +1,113 @@
+package uk.co.real_logic;
+
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+
+public class ManyToOneLongQueuePerfTest
+{
+    private static final long TEST_ELEMENT = 777L;
+    private static final int REPETITIONS = 20 * 1000 * 1000;
+    private static final int NUM_PRODUCERS = 1;
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int SAMPLE_INTERVAL = 1000;
+
+    public static void main(final String[] args)
+        throws Exception
+    {
+        ManyToOneLongQueuePerfTest test = new ManyToOneLongQueuePerfTest();
+        test.shouldPerformanceTestOfferAndPoll();
+    }
+
+    @Test
+    public void shouldPerformanceTestOfferAndPoll()
+        throws Exception
+    {
+        final ManyToOneConcurrentLongArrayQueue queue = new ManyToOneConcurrentLongArrayQueue(QUEUE_CAPACITY);
+
+        for (int i = 0; i < 5; i++)
+        {
+            System.gc();
+            Thread.sleep(1000L);
+            perfRun(i, queue);
+        }
+    }
+
+    private void perfRun(final int runNum, final ManyToOneConcurrentLongArrayQueue queue)
+        throws Exception
+    {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
+        final CyclicBarrier barrier = new CyclicBarrier(NUM_PRODUCERS + 1);
+        for (int i = 0; i < NUM_PRODUCERS; i++)
+        {
+            new Thread(new Producer(queue, barrier)).start();
+        }
+
+        barrier.await();
+
+        final long start = System.nanoTime();
+
+        int i = (REPETITIONS * NUM_PRODUCERS) + 1;
+        while (0 != --i)
+        {
+            long value;
+            while (queue.nullValue() == (value = queue.poll()))
+            {
+                Thread.yield();
+            }
+
+            if (TEST_ELEMENT != value)
+            {
+                histogram.recordValue(System.nanoTime() - value);
+            }
+        }
+
+        long duration = System.nanoTime() - start;
+        long opsPerSec = (REPETITIONS * NUM_PRODUCERS * 1000L * 1000L * 1000L) / duration;
+        System.out.printf("%d - %d producers: %,d ops/sec - %s\n",
+                          Integer.valueOf(runNum),
+                          Integer.valueOf(NUM_PRODUCERS),
+                          Long.valueOf(opsPerSec),
+                          this.getClass().getSimpleName());
+        histogram.snapshot().printSummary(System.out, "    latency ns:");
+    }
+
+    private static class Producer implements Runnable
+    {
+        private final ManyToOneConcurrentLongArrayQueue queue;
+        private final CyclicBarrier barrier;
+
+        private Producer(final ManyToOneConcurrentLongArrayQueue queue, final CyclicBarrier barrier)
+        {
+            this.queue = queue;
+            this.barrier = barrier;
+        }
+
+        public void run()
+        {
+            try
+            {
+                barrier.await();
+            }
+            catch (Exception ignore)
+            {
+            }
+
+            int i = REPETITIONS + 1;
+            while (0 != --i)
+            {
+                long value = TEST_ELEMENT;
+                if (0 == i % SAMPLE_INTERVAL)
+                {
+                    value = System.nanoTime();
+                }
+
+                while (!queue.offer(value))
+                {
+                    Thread.yield();
+                }
+            }
+        }
+    }
+}
+
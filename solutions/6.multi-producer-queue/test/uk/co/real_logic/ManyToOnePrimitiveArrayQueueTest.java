@@ -0,0 +1,58 @@
+package uk.co.real_logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ManyToOnePrimitiveArrayQueueTest
+{
+    private static final int CAPACITY = 4;
+
+    @Test
+    public void shouldOfferAndPollLongsInOrder()
+    {
+        final ManyToOneConcurrentLongArrayQueue queue = new ManyToOneConcurrentLongArrayQueue(CAPACITY);
+
+        Assert.assertEquals(ManyToOneConcurrentLongArrayQueue.DEFAULT_NULL_VALUE, queue.poll());
+        for (int lap = 0; lap < 3; lap++)
+        {
+            for (long i = 0; i < CAPACITY; i++)
+            {
+                Assert.assertTrue(queue.offer(i));
+            }
+            Assert.assertFalse(queue.offer(CAPACITY));
+            Assert.assertEquals(CAPACITY, queue.size());
+
+            for (long i = 0; i < CAPACITY; i++)
+            {
+                Assert.assertEquals(i, queue.poll());
+            }
+            Assert.assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test
+    public void shouldOfferAndPollIntsInOrder()
+    {
+        final ManyToOneConcurrentIntArrayQueue queue = new ManyToOneConcurrentIntArrayQueue(CAPACITY, -1);
+
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertEquals(0, queue.peek());
+
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            Assert.assertEquals(i, queue.poll());
+        }
+        Assert.assertEquals(-1, queue.poll());
+        Assert.assertEquals(-1, queue.peek());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullValue()
+    {
+        final ManyToOneConcurrentIntArrayQueue queue = new ManyToOneConcurrentIntArrayQueue(CAPACITY, -1);
+        queue.offer(-1);
+    }
+}
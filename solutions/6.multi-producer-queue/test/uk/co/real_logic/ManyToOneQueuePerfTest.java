@@ -11,6 +11,7 @@ public class ManyToOneQueuePerfTest
     private static final int REPETITIONS = 20 * 1000 * 1000;
     private static final int NUM_PRODUCERS = 1;
     private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int SAMPLE_INTERVAL = 1000;
 
     public static void main(final String[] args)
         throws Exception
@@ -23,8 +24,8 @@ public class ManyToOneQueuePerfTest
     public void shouldPerformanceTestOfferAndPoll()
         throws Exception
     {
-        final Queue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(QUEUE_CAPACITY);
-        //final Queue<Integer> queue = new java.util.concurrent.ArrayBlockingQueue<Integer>(QUEUE_CAPACITY);
+        final Queue<Number> queue = new ManyToOneConcurrentArrayQueue<Number>(QUEUE_CAPACITY);
+        //final Queue<Number> queue = new java.util.concurrent.ArrayBlockingQueue<Number>(QUEUE_CAPACITY);
 
         for (int i = 0; i < 5; i++)
         {
@@ -34,9 +35,10 @@ public class ManyToOneQueuePerfTest
         }
     }
 
-    private void perfRun(final int runNum, final Queue<Integer> queue)
+    private void perfRun(final int runNum, final Queue<Number> queue)
         throws Exception
     {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
         final CyclicBarrier barrier = new CyclicBarrier(NUM_PRODUCERS + 1);
         for (int i = 0; i < NUM_PRODUCERS; i++)
         {
@@ -50,10 +52,16 @@ public class ManyToOneQueuePerfTest
         int i = (REPETITIONS * NUM_PRODUCERS) + 1;
         while (0 != --i)
         {
-            while (null == queue.poll())
+            Number value;
+            while (null == (value = queue.poll()))
             {
                 Thread.yield();
             }
+
+            if (value instanceof Long)
+            {
+                histogram.recordValue(System.nanoTime() - value.longValue());
+            }
         }
 
         long duration = System.nanoTime() - start;
@@ -63,14 +71,15 @@ public class ManyToOneQueuePerfTest
                           Integer.valueOf(NUM_PRODUCERS),
                           Long.valueOf(opsPerSec),
                           this.getClass().getSimpleName());
+        histogram.snapshot().printSummary(System.out, "    latency ns:");
     }
 
     private static class Producer implements Runnable
     {
-        private final Queue<Integer> queue;
+        private final Queue<Number> queue;
         private final CyclicBarrier barrier;
 
-        private Producer(final Queue<Integer> queue, final CyclicBarrier barrier)
+        private Producer(final Queue<Number> queue, final CyclicBarrier barrier)
         {
             this.queue = queue;
             this.barrier = barrier;
@@ -89,7 +98,13 @@ public class ManyToOneQueuePerfTest
             int i = REPETITIONS + 1;
             while (0 != --i)
             {
-                while (!queue.offer(TEST_ELEMENT))
+                Number value = TEST_ELEMENT;
+                if (0 == i % SAMPLE_INTERVAL)
+                {
+                    value = Long.valueOf(System.nanoTime());
+                }
+
+                while (!queue.offer(value))
                 {
                     Thread.yield();
                 }
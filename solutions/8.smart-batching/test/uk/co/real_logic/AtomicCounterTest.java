@@ -94,6 +94,14 @@ public class AtomicCounterTest
         Assert.assertEquals(INITIAL_VALUE, existingValue);
         Assert.assertEquals(INITIAL_VALUE + increment, sequence.get());
     }
-}
-
 
+    @Test
+    public void shouldGetAndSet()
+    {
+        AtomicCounter counter = new AtomicCounter(INITIAL_VALUE);
+        final long testValue = 9L;
+        long existingValue = counter.getAndSet(testValue);
+        Assert.assertEquals(INITIAL_VALUE, existingValue);
+        Assert.assertEquals(testValue, counter.get());
+    }
+}
@@ -17,11 +17,11 @@ package uk.co.real_logic;
 
 public class DrainingConsumer implements Runnable
 {
-    private final Drainable<Integer> queue;
-    private final ElementHandler<Integer> elementHandler;
+    private final Drainable<Number> queue;
+    private final ElementHandler<Number> elementHandler;
     private volatile boolean running = true;
 
-    public DrainingConsumer(final Drainable<Integer> queue, final ElementHandler<Integer> elementHandler)
+    public DrainingConsumer(final Drainable<Number> queue, final ElementHandler<Number> elementHandler)
     {
         this.queue = queue;
         this.elementHandler = elementHandler;
@@ -11,7 +11,7 @@ public class OneToOneQueueBatchProcessorPerfTest
     private static final int QUEUE_SIZE = 64 * 1024;
     private static final int TEST_ELEMENT = 777;
 
-    private static final OneToOneConcurrentArrayQueue<Integer> queue = new OneToOneConcurrentArrayQueue<Integer>(QUEUE_SIZE);
+    private static final OneToOneConcurrentArrayQueue<Number> queue = new OneToOneConcurrentArrayQueue<Number>(QUEUE_SIZE);
 
     public static void main(final String[] args)
         throws Exception
@@ -35,7 +35,8 @@ public class OneToOneQueueBatchProcessorPerfTest
     private void perfRun(int runNumber)
         throws Exception
     {
-        final ProducerEventCountingElementHandler eventHandler = new ProducerEventCountingElementHandler();
+        final ConcurrentHistogram histogram = new ConcurrentHistogram();
+        final ProducerEventCountingElementHandler eventHandler = new ProducerEventCountingElementHandler(histogram);
 
         final CyclicBarrier cyclicBarrier = new CyclicBarrier(2);
         final QueueProducer producer = new QueueProducer(queue, TEST_ELEMENT, cyclicBarrier, REPETITIONS);
@@ -66,15 +67,26 @@ public class OneToOneQueueBatchProcessorPerfTest
         Assert.assertEquals(REPETITIONS, eventHandler.getCounter());
         final long ops = (REPETITIONS * 1000L * 1000L * 1000L) / duration;
         System.out.printf("%d - 1 to 1: %,d ops/sec\n", Integer.valueOf(runNumber), Long.valueOf(ops));
+        histogram.snapshot().printSummary(System.out, "    latency ns:");
     }
 
-    private static class ProducerEventCountingElementHandler implements ElementHandler<Integer>
+    private static class ProducerEventCountingElementHandler implements ElementHandler<Number>
     {
+        private final ConcurrentHistogram histogram;
         private long counter;
 
-        public void onElement(final Integer element)
+        private ProducerEventCountingElementHandler(final ConcurrentHistogram histogram)
+        {
+            this.histogram = histogram;
+        }
+
+        public void onElement(final Number element)
         {
             ++counter;
+            if (element instanceof Long)
+            {
+                histogram.recordValue(System.nanoTime() - element.longValue());
+            }
         }
 
         public long getCounter()
@@ -21,12 +21,17 @@ import java.util.concurrent.CyclicBarrier;
 
 public class QueueProducer implements Runnable
 {
-    private final Queue<Integer> queue;
+    /**
+     * Every SAMPLE_INTERVAL element is the {@link System#nanoTime()} it was offered at as a {@link Long}.
+     */
+    public static final int SAMPLE_INTERVAL = 1000;
+
+    private final Queue<Number> queue;
     private final int id;
     private final CyclicBarrier cyclicBarrier;
     private final int repetitions;
 
-    public QueueProducer(final Queue<Integer> queue,
+    public QueueProducer(final Queue<Number> queue,
                          final int id,
                          final CyclicBarrier cyclicBarrier,
                          final int repetitions)
@@ -53,7 +58,13 @@ public class QueueProducer implements Runnable
 
         while (--i != 0)
         {
-            while (!queue.offer(id))
+            Number value = id;
+            if (0 == i % SAMPLE_INTERVAL)
+            {
+                value = Long.valueOf(System.nanoTime());
+            }
+
+            while (!queue.offer(value))
             {
                 Thread.yield();
             }